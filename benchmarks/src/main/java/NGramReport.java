@@ -0,0 +1,38 @@
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * 各阶单词模型的规模与内存：对每个阶数构建一次（先预热一次），输出状态数、转移数、
+ * 模型数组的字节数（不含普通单词图）、完整GC后实际保留的堆（含普通单词图）、每条转移的字节数和构建吞吐量，
+ * 用于选择生产环境的 k
+ * 用法（在仓库根目录下）：java -cp benchmarks/target/benchmarks.jar NGramReport [语料文件] [最大阶数]
+ */
+public class NGramReport {
+
+    public static void main(String[] args) throws Exception {
+        String corpus = args.length > 0 ? args[0] : "Cursed Be The Treasure.txt";
+        int maxOrder = args.length > 1 ? Integer.parseInt(args[1]) : Lab1.NGramModel.MAX_ORDER;
+        double megabytes = Files.size(Paths.get(corpus)) / 1048576.0;
+
+        System.out.printf("corpus: %s (%.1f MB)%n", corpus, megabytes);
+        System.out.printf("%5s %12s %12s %10s %12s %10s %10s%n",
+                "order", "states", "transitions", "model MB", "retained MB", "B/trans", "MB/s");
+        for (int order = Lab1.NGramModel.MIN_ORDER; order <= maxOrder; order++) {
+            Lab1.buildNGram(corpus, order); // 预热
+            long before = retainedHeap();
+            long start = System.nanoTime();
+            Lab1.NGramModel model = Lab1.buildNGram(corpus, order);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long retained = retainedHeap() - before;
+            System.out.printf("%5d %12d %12d %10.1f %12.1f %10.1f %10.2f%n", order, model.stateCount(),
+                    model.transitionCount(), model.bytes() / 1048576.0, retained / 1048576.0,
+                    (double) model.bytes() / Math.max(1, model.transitionCount()), megabytes / seconds);
+        }
+    }
+
+    private static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
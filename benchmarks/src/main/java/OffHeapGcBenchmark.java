@@ -0,0 +1,157 @@
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * 堆内 / 堆外两种存储的GC对比：分别在两个子JVM（相同的 -Xmx 和GC参数）中构图、预热各惰性缓存，然后
+ * - 记录一次完整GC后的堆占用、直接内存 / 映射内存占用，以及这次完整GC的停顿
+ * - 多个线程持续执行混合查询（桥接词、最短路径、新文本、随机游走，结果缓存开启，制造老年代压力），
+ *   期间通过GC通知统计每次停顿，输出GC次数、总停顿、最大停顿和查询延迟分位数
+ * 用法（在仓库根目录下）：java -cp benchmarks/target/benchmarks.jar OffHeapGcBenchmark [语料文件] [持续秒数] [查询线程数] [子JVM参数...]
+ * 子JVM参数默认为 -Xms2g -Xmx2g -XX:+UseG1GC（固定堆大小，两次运行的新生代大小相同）；单独运行一种存储：... OffHeapGcBenchmark --run heap|offheap 语料文件 秒数 线程数
+ */
+public class OffHeapGcBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--run")) {
+            run(args[1].equals("offheap"), args[2], Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            return;
+        }
+        String corpus = args.length > 0 ? args[0] : "Cursed Be The Treasure.txt";
+        String seconds = args.length > 1 ? args[1] : "20";
+        String clients = args.length > 2 ? args[2] : "4";
+        List<String> jvmOptions = args.length > 3
+                ? Arrays.asList(args).subList(3, args.length)
+                : List.of("-Xms2g", "-Xmx2g", "-XX:+UseG1GC");
+        if (!Files.exists(Paths.get(corpus))) {
+            throw new IllegalArgumentException("Corpus not found: " + Paths.get(corpus).toAbsolutePath());
+        }
+        for (String mode : new String[]{"heap", "offheap"}) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmOptions);
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), OffHeapGcBenchmark.class.getName(),
+                    "--run", mode, corpus, seconds, clients));
+            int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exit != 0) {
+                throw new IllegalStateException(mode + " run exited with " + exit);
+            }
+        }
+    }
+
+    private static void run(boolean offHeap, String corpus, int seconds, int clients) throws Exception {
+        long buildStart = System.nanoTime();
+        Lab1.CompiledGraph graph = Lab1.buildCompiled(corpus);
+        if (offHeap) {
+            graph = graph.toOffHeap();
+        }
+        graph.pageRank();
+        graph.randomWalker();
+        graph.bridgeIndex();
+        double buildMillis = (System.nanoTime() - buildStart) / 1e6;
+
+        long fullGcStart = System.nanoTime();
+        System.gc();
+        double fullGcMillis = (System.nanoTime() - fullGcStart) / 1e6;
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        List<Long> pauses = Collections.synchronizedList(new ArrayList<>());
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    // 并发周期（如 G1 Concurrent GC）不是停顿
+                    if (!info.getGcCause().equals("No GC") && !info.getGcName().contains("Concurrent")) {
+                        pauses.add(info.getGcInfo().getDuration());
+                    }
+                }
+            }, null, null);
+        }
+
+        Lab1.CompiledGraph g = graph;
+        String[] words = new String[Math.min(g.size(), 10_000)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = g.word(i);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            Thread thread = new Thread(() -> {
+                SplittableRandom rand = new SplittableRandom(seed);
+                long[] samples = new long[1 << 16];
+                int n = 0;
+                while (running.get()) {
+                    String a = words[rand.nextInt(words.length)];
+                    String b = words[rand.nextInt(words.length)];
+                    long start = System.nanoTime();
+                    switch (rand.nextInt(4)) {
+                        case 0:
+                            Lab1.queryBridgeWords(g, a, b);
+                            break;
+                        case 1:
+                            Lab1.calcShortestPath(g, a, b);
+                            break;
+                        case 2:
+                            Lab1.generateNewText(g, a + " " + b + " " + a + " " + b, rand);
+                            break;
+                        default:
+                            Lab1.randomWalk(g, rand);
+                    }
+                    if (n == samples.length) {
+                        samples = Arrays.copyOf(samples, n * 2);
+                    }
+                    samples[n++] = System.nanoTime() - start;
+                }
+                latencies.add(Arrays.copyOf(samples, n));
+            });
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] sorted = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        long[] gcPauses;
+        synchronized (pauses) {
+            gcPauses = pauses.stream().mapToLong(Long::longValue).toArray();
+        }
+        System.out.printf("[%s] nodes=%d edges=%d build+warm=%.0f ms%n", offHeap ? "off-heap" : "heap",
+                g.size(), g.edgeCount(), buildMillis);
+        System.out.printf("  after full GC: heap used %.1f MB, direct %.1f MB, mapped %.1f MB, full GC pause %.1f ms%n",
+                heapUsed / 1048576.0, bufferPool("direct") / 1048576.0, bufferPool("mapped") / 1048576.0, fullGcMillis);
+        System.out.printf("  under load (%d s, %d threads): %d GC pauses, total %d ms, max %d ms, heap used %.1f MB%n",
+                seconds, clients, gcPauses.length, Arrays.stream(gcPauses).sum(), Arrays.stream(gcPauses).max().orElse(0),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1048576.0);
+        if (sorted.length > 0) {
+            System.out.printf("  %d queries, p50=%.3f ms p99=%.3f ms p99.9=%.3f ms max=%.3f ms%n", sorted.length,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6);
+        }
+        System.out.println("  result cache: " + Lab1.results);
+    }
+
+    private static long bufferPool(String name) {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals(name)) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e6;
+    }
+}
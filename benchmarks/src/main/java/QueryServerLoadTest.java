@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 查询服务压力测试：在本进程内启动 QueryServer（随机端口），多个客户端线程持续发送混合查询，
+ * 运行过程中重新加载一次图，输出吞吐量和延迟分位数（整体 / 重新加载期间）
+ * 用法（在仓库根目录下）：java -cp benchmarks/target/benchmarks.jar QueryServerLoadTest [语料文件] [客户端线程数] [持续秒数]
+ */
+public class QueryServerLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String corpus = args.length > 0 ? args[0] : "Cursed Be The Treasure.txt";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Lab1.CompiledGraph graph = Lab1.CompiledGraph.compile(Lab1.buildGraph(corpus));
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        Lab1.QueryServer server = new Lab1.QueryServer(graph, new InetSocketAddress("127.0.0.1", 0),
+                () -> Lab1.CompiledGraph.compile(Lab1.buildGraph(corpus)));
+        server.start();
+        String base = "http://127.0.0.1:" + server.address().getPort();
+        HttpClient http = HttpClient.newHttpClient();
+
+        String[] words = new String[Math.min(graph.size(), 2000)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = graph.word(i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean reloading = new AtomicBoolean(false);
+        List<long[]> normal = Collections.synchronizedList(new ArrayList<>());
+        List<long[]> duringReload = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            Thread thread = new Thread(() -> {
+                Random rand = new Random(seed);
+                long[] latencies = new long[1 << 16];
+                long[] reloadLatencies = new long[1 << 16];
+                int n = 0;
+                int r = 0;
+                while (running.get()) {
+                    String uri = base + randomQuery(rand, words);
+                    boolean inReload = reloading.get();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException(uri + " -> " + response.statusCode() + " " + response.body());
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        throw new IllegalStateException(uri, e);
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    if (inReload || reloading.get()) {
+                        if (r == reloadLatencies.length) reloadLatencies = Arrays.copyOf(reloadLatencies, r * 2);
+                        reloadLatencies[r++] = elapsed;
+                    } else {
+                        if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+                        latencies[n++] = elapsed;
+                    }
+                }
+                normal.add(Arrays.copyOf(latencies, n));
+                duringReload.add(Arrays.copyOf(reloadLatencies, r));
+            });
+            threads.add(thread);
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 500L);
+        reloading.set(true);
+        long reloadStart = System.nanoTime();
+        HttpResponse<String> reload = http.send(HttpRequest.newBuilder(URI.create(base + "/reload")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        double reloadMillis = (System.nanoTime() - reloadStart) / 1e6;
+        reloading.set(false);
+        Thread.sleep(seconds * 500L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        server.stop();
+
+        long[] all = merge(normal);
+        long[] reloadAll = merge(duringReload);
+        System.out.printf("clients=%d duration=%.1fs nodes=%d edges=%d%n", clients, elapsed, graph.size(), graph.edgeCount());
+        System.out.printf("throughput: %.0f requests/s%n", (all.length + reloadAll.length) / elapsed);
+        report("steady", all);
+        System.out.printf("reload: %s (%.1f ms)%n", reload.body(), reloadMillis);
+        report("during reload", reloadAll);
+        System.out.println("result cache: " + Lab1.results);
+    }
+
+    private static String randomQuery(Random rand, String[] words) {
+        String a = encode(words[rand.nextInt(words.length)]);
+        String b = encode(words[rand.nextInt(words.length)]);
+        switch (rand.nextInt(5)) {
+            case 0:
+                return "/bridge?from=" + a + "&to=" + b;
+            case 1:
+                return "/newtext?text=" + a + "+" + b + "+" + a + "&seed=" + rand.nextInt();
+            case 2:
+                return "/path?from=" + a + "&to=" + b;
+            case 3:
+                return rand.nextBoolean() ? "/pagerank?word=" + a : "/pagerank?top=10";
+            default:
+                return "/walk?seed=" + rand.nextInt();
+        }
+    }
+
+    private static String encode(String word) {
+        return URLEncoder.encode(word, StandardCharsets.UTF_8);
+    }
+
+    private static long[] merge(List<long[]> parts) {
+        long[] all = parts.stream().flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static void report(String label, long[] sorted) {
+        if (sorted.length == 0) {
+            System.out.printf("  %-14s: no requests%n", label);
+            return;
+        }
+        System.out.printf("  %-14s: %d requests, p50=%.2f ms p99=%.2f ms max=%.2f ms%n", label, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e6;
+    }
+}
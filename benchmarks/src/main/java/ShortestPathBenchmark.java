@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 最短路径基准测试：对比原有实现（字符串键 + PriorityQueue.remove）与基于编号的索引堆Dijkstra
+ * 用法（在仓库根目录下）：java -cp benchmarks/target/benchmarks.jar ShortestPathBenchmark [语料文件] [查询次数] [合成图边数]
+ * - 在语料构建的图上随机抽取单词对，两种实现各跑一遍，核对路径长度一致并输出平均耗时
+ * - 在随机合成图（默认约100万条边）上重复测试；原有实现在大图上是 O(V·E)，只跑少量查询
+ * - 最后对比点对点查询的各种搜索方式（完整 / 提前结束 / 双向 / 地标A*），地标预处理耗时单独输出
+ */
+public class ShortestPathBenchmark {
+    private static final int LANDMARKS = 16;
+
+    public static void main(String[] args) throws IOException {
+        String corpus = args.length > 0 ? args[0] : "Cursed Be The Treasure.txt";
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int syntheticEdges = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+
+        System.out.println("== corpus: " + corpus);
+        compare(Lab1.buildGraph(corpus), queries, queries);
+
+        System.out.println("== synthetic: " + syntheticEdges + " edges");
+        compare(syntheticGraph(syntheticEdges, syntheticEdges / 10, 42), queries, 1);
+    }
+
+    /**
+     * 随机合成图：nodes 个单词，edges 次随机相邻（目标按平方分布偏向小编号，模拟高频词）
+     */
+    static Lab1.Graph syntheticGraph(int edges, int nodes, long seed) {
+        Random rand = new Random(seed);
+        String[] words = new String[nodes];
+        for (int i = 0; i < nodes; i++) {
+            words[i] = "w" + i;
+        }
+        Lab1.Graph graph = new Lab1.Graph();
+        String current = words[0];
+        for (int i = 0; i < edges; i++) {
+            double x = rand.nextDouble();
+            String next = words[(int) (x * x * nodes)];
+            graph.addEdge(current, next);
+            current = rand.nextInt(4) == 0 ? words[rand.nextInt(nodes)] : next;
+        }
+        return graph;
+    }
+
+    private static void compare(Lab1.Graph graph, int queries, int legacyQueries) {
+        Lab1.graph = graph;
+        Lab1.CompiledGraph g = Lab1.compiledGraph();
+        Random rand = new Random(7);
+        int[][] pairs = new int[queries][];
+        for (int i = 0; i < queries; i++) {
+            pairs[i] = new int[]{rand.nextInt(g.size()), rand.nextInt(g.size())};
+        }
+
+        // 预热
+        Lab1.ShortestPaths sp = new Lab1.ShortestPaths(g);
+        for (int i = 0; i < Math.min(queries, 20); i++) {
+            sp.run(pairs[i][0]);
+        }
+
+        long start = System.nanoTime();
+        int[] lengths = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            sp.run(pairs[i][0]);
+            lengths[i] = sp.dist[pairs[i][1]];
+        }
+        double indexed = (System.nanoTime() - start) / 1e6 / queries;
+
+        start = System.nanoTime();
+        int legacyRuns = Math.min(queries, legacyQueries);
+        for (int i = 0; i < legacyRuns; i++) {
+            int length = legacyDistance(graph, g.word(pairs[i][0]), g.word(pairs[i][1]));
+            if (length != lengths[i]) {
+                throw new IllegalStateException("length mismatch for " + g.word(pairs[i][0]) + " -> " + g.word(pairs[i][1]));
+            }
+        }
+        double legacy = (System.nanoTime() - start) / 1e6 / legacyRuns;
+
+        System.out.printf("nodes=%d edges=%d%n", g.size(), g.edgeCount());
+        System.out.printf("  legacy PriorityQueue : %10.3f ms/query (%d queries)%n", legacy, legacyRuns);
+        System.out.printf("  indexed heap         : %10.3f ms/query (%d queries)%n", indexed, queries);
+
+        start = System.nanoTime();
+        g.useLandmarks(Lab1.Landmarks.compute(g, LANDMARKS, Lab1.Landmarks.Strategy.FARTHEST));
+        System.out.printf("  landmark preprocessing (K=%d): %.1f ms%n", LANDMARKS, (System.nanoTime() - start) / 1e6);
+
+        for (Lab1.SearchMode mode : Lab1.SearchMode.values()) {
+            long settled = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                if (sp.distance(pairs[i][0], pairs[i][1], mode) != lengths[i]) {
+                    throw new IllegalStateException(mode + " length mismatch for " + g.word(pairs[i][0]) + " -> " + g.word(pairs[i][1]));
+                }
+                settled += sp.settled;
+            }
+            System.out.printf("  point-to-point %-14s: %10.3f ms/query, %d nodes settled/query%n",
+                    mode, (System.nanoTime() - start) / 1e6 / queries, settled / queries);
+        }
+    }
+
+    /**
+     * 原有 calcShortestPath 的Dijkstra部分（保留用于对比）
+     */
+    private static int legacyDistance(Lab1.Graph graph, String source, String target) {
+        Map<String, Integer> dist = new HashMap<>();
+        PriorityQueue<String> queue = new PriorityQueue<>(Comparator.comparingInt(node -> dist.getOrDefault(node, Integer.MAX_VALUE)));
+        graph.adjacencyList.keySet().forEach(node -> dist.put(node, Integer.MAX_VALUE));
+        dist.put(source, 0);
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            int currentDist = dist.get(current);
+            for (Map.Entry<String, Integer> edge : graph.adjacencyList.getOrDefault(current, new HashMap<>()).entrySet()) {
+                String neighbor = edge.getKey();
+                int newDist = currentDist + edge.getValue();
+                if (newDist < dist.getOrDefault(neighbor, Integer.MAX_VALUE)) {
+                    dist.put(neighbor, newDist);
+                    if (queue.contains(neighbor)) queue.remove(neighbor);
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return dist.getOrDefault(target, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,47 @@
+package lab1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 整图分析（强连通分量、凝聚图、度数与边权分布、可达性抽样）的单次耗时，图在 Setup 中构建
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    @Param({"Cursed Be The Treasure.txt", "synthetic-64MB"})
+    public String corpus;
+
+    /** 可达性抽样的源点数 */
+    @Param({"32"})
+    public int samples;
+
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        graph = Lab1Api.buildCompiled(Corpora.resolve(corpus).toString());
+    }
+
+    @Benchmark
+    public Object analyze() throws Throwable {
+        return Lab1Api.analyze(graph, samples, 1);
+    }
+}
@@ -0,0 +1,78 @@
+package lab1.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 构图吞吐量：除每秒构图次数外，辅助计数器 megabytes 给出每秒处理的 MB 数
+ * - buildGraph: 构建可修改的 Graph（HashMap 邻接表）
+ * - buildCompiled: GraphBuilder 直接构建只读的编译形式（原始类型哈希表）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuildGraphBenchmark {
+
+    @Param({"Easy Test.txt", "Cursed Be The Treasure.txt", "synthetic-64MB"})
+    public String corpus;
+
+    /** 构图线程数，大于1时使用并行分块构图 */
+    @Param({"1"})
+    public int threads;
+
+    private String path;
+    private double megabytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path file = Corpora.resolve(corpus);
+        path = file.toString();
+        megabytes = Files.size(file) / (1024.0 * 1024.0);
+    }
+
+    /**
+     * 累计处理的数据量（MB），按操作计数器报告，即 MB/s
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    @Benchmark
+    public Object buildGraph(Bytes bytes) throws Throwable {
+        Object graph = Lab1Api.buildGraph(path, threads);
+        bytes.megabytes += megabytes;
+        return graph;
+    }
+
+    @Benchmark
+    public Object buildCompiled(Bytes bytes) throws Throwable {
+        Object graph = Lab1Api.buildCompiled(path);
+        bytes.megabytes += megabytes;
+        return graph;
+    }
+}
@@ -0,0 +1,61 @@
+package lab1.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试使用的语料：仓库根目录下的文本文件，或 "synthetic-<N>MB" 形式的合成语料
+ * （固定种子生成到临时文件，词频近似Zipf分布，每 12 个单词左右插入一个标点）
+ */
+final class Corpora {
+    private static final String SYNTHETIC = "synthetic-";
+    private static final int VOCABULARY = 50_000;
+
+    private Corpora() {
+    }
+
+    /**
+     * 解析语料名称为文件路径；相对路径相对于工作目录（在仓库根目录下运行）
+     */
+    static Path resolve(String name) throws IOException {
+        if (!name.startsWith(SYNTHETIC)) {
+            Path path = Paths.get(name);
+            if (!Files.exists(path)) {
+                throw new IOException("Corpus not found: " + path.toAbsolutePath() + " (run from the repository root)");
+            }
+            return path;
+        }
+        long megabytes = Long.parseLong(name.substring(SYNTHETIC.length(), name.length() - "MB".length()));
+        Path path = Files.createTempFile("lab1-" + name + "-", ".txt");
+        path.toFile().deleteOnExit();
+        generate(path, megabytes << 20, 42);
+        return path;
+    }
+
+    private static void generate(Path path, long bytes, long seed) throws IOException {
+        SplittableRandom rand = new SplittableRandom(seed);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            char[] word = new char[2 + rand.nextInt(9)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + rand.nextInt(26));
+            }
+            words[i] = new String(word);
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            long written = 0;
+            while (written < bytes) {
+                double x = rand.nextDouble();
+                String word = words[(int) (x * x * x * VOCABULARY)];
+                out.write(word);
+                out.write(rand.nextInt(12) == 0 ? ". " : " ");
+                written += word.length() + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package lab1.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.random.RandomGenerator;
+
+/**
+ * 通过方法句柄调用 Lab1：JMH 要求基准类位于具名包中，而具名包无法直接引用默认包中的 Lab1。
+ * 句柄保存在 static final 字段中，JIT 可以把调用内联，开销与直接调用相当
+ */
+final class Lab1Api {
+    private static final Class<?> LAB1 = type("Lab1");
+    private static final Class<?> GRAPH = type("Lab1$Graph");
+    private static final Class<?> COMPILED_GRAPH = type("Lab1$CompiledGraph");
+    private static final Class<?> RESULT_CACHE = type("Lab1$ResultCache");
+    private static final Class<?> NGRAM_MODEL = type("Lab1$NGramModel");
+    private static final MethodHandles.Lookup LOOKUP = lookup();
+
+    private static final MethodHandle BUILD_GRAPH = findStatic("buildGraph", GRAPH, String.class, int.class);
+    private static final MethodHandle BUILD_COMPILED = findStatic("buildCompiled", COMPILED_GRAPH, String.class);
+    private static final MethodHandle SET_GRAPH = findStaticSetter("graph", GRAPH);
+    private static final MethodHandle COMPILED = findStatic("compiledGraph", COMPILED_GRAPH);
+    private static final MethodHandle SET_RESULTS = findStaticSetter("results", RESULT_CACHE);
+    private static final MethodHandle NEW_RESULT_CACHE = findConstructor(RESULT_CACHE, long.class);
+    private static final MethodHandle SIZE = findVirtual(COMPILED_GRAPH, "size", int.class);
+    private static final MethodHandle WORD = findVirtual(COMPILED_GRAPH, "word", String.class, int.class);
+    private static final MethodHandle PAGE_RANK = findVirtual(COMPILED_GRAPH, "pageRank", type("Lab1$PageRank"));
+    private static final MethodHandle RANDOM_WALKER = findVirtual(COMPILED_GRAPH, "randomWalker", type("Lab1$RandomWalker"));
+    private static final MethodHandle BRIDGE_INDEX = findVirtual(COMPILED_GRAPH, "bridgeIndex", type("Lab1$BridgeIndex"));
+
+    private static final MethodHandle QUERY_BRIDGE_WORDS = findStatic("queryBridgeWords", String.class, String.class, String.class);
+    private static final MethodHandle QUERY_BRIDGE_CHAINS = findStatic("queryBridgeChains", String.class, String.class, String.class, int.class);
+    private static final MethodHandle GENERATE_NEW_TEXT = findStatic("generateNewText", String.class, String.class);
+    private static final MethodHandle CALC_SHORTEST_PATH = findStatic("calcShortestPath", String.class, String.class, String.class);
+    private static final MethodHandle CALC_PAGE_RANK = findStatic("calcPageRank", double.class, String.class);
+    private static final MethodHandle RANDOM_WALK = findStatic("randomWalk", String.class);
+
+    private static final MethodHandle ANALYZE = findStaticIn(type("Lab1$GraphAnalytics"), "compute",
+            type("Lab1$GraphAnalytics"), COMPILED_GRAPH, int.class, long.class);
+
+    private static final MethodHandle BUILD_NGRAM = findStatic("buildNGram", NGRAM_MODEL, String.class, int.class);
+    private static final MethodHandle NGRAM_NEW_TEXT = findStatic("generateNewText", String.class, NGRAM_MODEL, String.class, RandomGenerator.class);
+    private static final MethodHandle NGRAM_WALK = findStatic("randomWalk", String.class, NGRAM_MODEL, RandomGenerator.class);
+
+    private Lab1Api() {
+    }
+
+    /** Lab1.buildGraph(path, threads) */
+    static Object buildGraph(String path, int threads) throws Throwable {
+        return BUILD_GRAPH.invoke(path, threads);
+    }
+
+    /** Lab1.buildCompiled(path) */
+    static Object buildCompiled(String path) throws Throwable {
+        return BUILD_COMPILED.invoke(path);
+    }
+
+    /**
+     * 从文件构图并设为 Lab1 的当前图，关闭结果缓存（测量的是实际计算），预先计算各惰性缓存
+     * @return 当前图的全部单词
+     */
+    static String[] load(String path) throws Throwable {
+        SET_GRAPH.invoke(buildGraph(path, 1));
+        SET_RESULTS.invoke(NEW_RESULT_CACHE.invoke(0L));
+        Object compiled = COMPILED.invoke();
+        PAGE_RANK.invoke(compiled);
+        RANDOM_WALKER.invoke(compiled);
+        BRIDGE_INDEX.invoke(compiled);
+        String[] words = new String[(int) SIZE.invoke(compiled)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = (String) WORD.invoke(compiled, i);
+        }
+        return words;
+    }
+
+    static String queryBridgeWords(String word1, String word2) throws Throwable {
+        return (String) QUERY_BRIDGE_WORDS.invokeExact(word1, word2);
+    }
+
+    static String queryBridgeChains(String word1, String word2, int maxBridges) throws Throwable {
+        return (String) QUERY_BRIDGE_CHAINS.invokeExact(word1, word2, maxBridges);
+    }
+
+    static String generateNewText(String text) throws Throwable {
+        return (String) GENERATE_NEW_TEXT.invokeExact(text);
+    }
+
+    static String calcShortestPath(String word1, String word2) throws Throwable {
+        return (String) CALC_SHORTEST_PATH.invokeExact(word1, word2);
+    }
+
+    static double calcPageRank(String word) throws Throwable {
+        return (double) CALC_PAGE_RANK.invokeExact(word);
+    }
+
+    static String randomWalk() throws Throwable {
+        return (String) RANDOM_WALK.invokeExact();
+    }
+
+    /** GraphAnalytics.compute(graph, samples, seed)：每次重新计算，不使用图上缓存的结果 */
+    static Object analyze(Object graph, int samples, long seed) throws Throwable {
+        return ANALYZE.invoke(graph, samples, seed);
+    }
+
+    /** Lab1.buildNGram(path, order)，返回 NGramModel */
+    static Object buildNGram(String path, int order) throws Throwable {
+        return BUILD_NGRAM.invoke(path, order);
+    }
+
+    static String generateNewText(Object model, String text, RandomGenerator rand) throws Throwable {
+        return (String) NGRAM_NEW_TEXT.invoke(model, text, rand);
+    }
+
+    static String randomWalk(Object model, RandomGenerator rand) throws Throwable {
+        return (String) NGRAM_WALK.invoke(model, rand);
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup() {
+        try {
+            return MethodHandles.privateLookupIn(LAB1, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findStatic(String name, Class<?> returnType, Class<?>... parameterTypes) {
+        return findStaticIn(LAB1, name, returnType, parameterTypes);
+    }
+
+    private static MethodHandle findStaticIn(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findStatic(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findVirtual(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> owner, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findConstructor(owner, MethodType.methodType(void.class, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle findStaticSetter(String name, Class<?> type) {
+        try {
+            return LOOKUP.findStaticSetter(LAB1, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package lab1.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * k 阶单词模型：按阶数比较构建吞吐量（辅助计数器 megabytes 即 MB/s，-prof gc 给出每次构建的分配量），
+ * 以及在构建好的模型上生成新文本、随机游走的单次延迟（微秒）。各阶的内存占用见 NGramReport
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NGramBenchmark {
+    private static final int INPUTS = 1024;
+    private static final int SENTENCE_WORDS = 12;
+
+    @Param({"Cursed Be The Treasure.txt"})
+    public String corpus;
+
+    @Param({"2", "3", "4"})
+    public int order;
+
+    private String path;
+    private double megabytes;
+    private Object model;
+    private String[] sentences;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Path file = Corpora.resolve(corpus);
+        path = file.toString();
+        megabytes = Files.size(file) / (1024.0 * 1024.0);
+        model = Lab1Api.buildNGram(path, order);
+        String[] words = Lab1Api.load(path);
+        SplittableRandom rand = new SplittableRandom(7);
+        sentences = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            StringBuilder sentence = new StringBuilder();
+            for (int j = 0; j < SENTENCE_WORDS; j++) {
+                sentence.append(j == 0 ? "" : " ").append(words[rand.nextInt(words.length)]);
+            }
+            sentences[i] = sentence.toString();
+        }
+    }
+
+    /**
+     * 累计处理的数据量（MB），按操作计数器报告，即 MB/s
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    /** 每个线程独立的输入下标和随机数 */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplittableRandom rand = new SplittableRandom(11);
+        private int next;
+
+        int next() {
+            next = (next + 1) & (INPUTS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object build(Bytes bytes) throws Throwable {
+        Object built = Lab1Api.buildNGram(path, order);
+        bytes.megabytes += megabytes;
+        return built;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String generateNewText(Cursor cursor) throws Throwable {
+        return Lab1Api.generateNewText(model, sentences[cursor.next()], cursor.rand);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String randomWalk(Cursor cursor) throws Throwable {
+        return Lab1Api.randomWalk(model, cursor.rand);
+    }
+}
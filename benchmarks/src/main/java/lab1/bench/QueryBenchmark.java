@@ -0,0 +1,102 @@
+package lab1.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 各查询的单次延迟：在语料构建的图上按固定种子轮流使用预先抽取的单词对 / 句子。
+ * 结果缓存被关闭，PageRank、别名表等惰性结构在 Setup 中预先构建，测量的是稳态下每次查询的计算量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final int INPUTS = 1024;
+    private static final int SENTENCE_WORDS = 12;
+
+    @Param({"Cursed Be The Treasure.txt"})
+    public String corpus;
+
+    private String[] from;
+    private String[] to;
+    private String[] sentences;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        String[] words = Lab1Api.load(Corpora.resolve(corpus).toString());
+        SplittableRandom rand = new SplittableRandom(7);
+        from = new String[INPUTS];
+        to = new String[INPUTS];
+        sentences = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            from[i] = words[rand.nextInt(words.length)];
+            to[i] = words[rand.nextInt(words.length)];
+            StringBuilder sentence = new StringBuilder();
+            for (int j = 0; j < SENTENCE_WORDS; j++) {
+                sentence.append(j == 0 ? "" : " ").append(words[rand.nextInt(words.length)]);
+            }
+            sentences[i] = sentence.toString();
+        }
+    }
+
+    /** 每个线程独立轮转输入下标 */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            next = (next + 1) & (INPUTS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public String queryBridgeWords(Cursor cursor) throws Throwable {
+        int i = cursor.next();
+        return Lab1Api.queryBridgeWords(from[i], to[i]);
+    }
+
+    /** 最多 3 个桥接词的链，使用默认的结果条数和时间限制 */
+    @Benchmark
+    public String queryBridgeChains(Cursor cursor) throws Throwable {
+        int i = cursor.next();
+        return Lab1Api.queryBridgeChains(from[i], to[i], 3);
+    }
+
+    @Benchmark
+    public String generateNewText(Cursor cursor) throws Throwable {
+        return Lab1Api.generateNewText(sentences[cursor.next()]);
+    }
+
+    @Benchmark
+    public String calcShortestPath(Cursor cursor) throws Throwable {
+        int i = cursor.next();
+        return Lab1Api.calcShortestPath(from[i], to[i]);
+    }
+
+    @Benchmark
+    public double calcPageRank(Cursor cursor) throws Throwable {
+        return Lab1Api.calcPageRank(from[cursor.next()]);
+    }
+
+    @Benchmark
+    public String randomWalk() throws Throwable {
+        return Lab1Api.randomWalk();
+    }
+}
@@ -0,0 +1,6071 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 主类 Lab1，实现文本有向图分析工具，包含以下功能：
+ * 1. 从文件构建有向图
+ * 2. 展示有向图结构
+ * 3. 查询桥接词
+ * 4. 生成新文本（插入桥接词）
+ * 5. 计算最短路径（Dijkstra算法）
+ * 6. 计算PageRank值
+ * 7. 随机游走
+ */
+public class Lab1 {
+    static Graph graph;
+    static CompiledGraph compiled;
+    // 高阶模式（--order=k, k>2）的单词模型及其构图器，未启用时为 null
+    static NGramModel ngrams;
+    static NGramBuilder ngramBuilder;
+    /**
+     * 内部类 Graph，表示有向图数据结构
+     * - adjacencyList: 邻接表，存储每个节点的出边及权重（格式：源节点 -> {目标节点: 出现次数}）
+     * - incomingEdges: 入边表，存储每个节点的入边来源（格式：目标节点 -> [源节点列表]，每条不同的边只记录一次）
+     */
+    static class Graph {
+        Map<String, Map<String, Integer>> adjacencyList = new HashMap<>();
+        Map<String, List<String>> incomingEdges = new HashMap<>();
+        // 修改计数，用于判断编译形式是否过期
+        int version;
+
+        /**
+         * 添加有向边（自动转为小写）
+         * @param source 源节点
+         * @param target 目标节点
+         */
+        void addEdge(String source, String target) {
+            //全部转化为小写（已经是小写时 toLowerCase 返回原字符串，不复制）
+            source = source.toLowerCase();
+            target = target.toLowerCase();
+            // 更新出边权重（出现次数+1）；只在第一次出现这条边时创建邻接表项和记录入边
+            if (adjacencyList.computeIfAbsent(source, k -> new HashMap<>()).merge(target, 1, Integer::sum) == 1) {
+                incomingEdges.computeIfAbsent(target, k -> new ArrayList<>()).add(source);
+            }
+            version++;
+        }
+
+        /**
+         * 检查图中是否包含某个节点（不区分大小写）
+         */
+        boolean containsNode(String word) {
+            String lowerWord = word.toLowerCase();
+            return adjacencyList.containsKey(lowerWord) || incomingEdges.containsKey(lowerWord);
+        }
+
+        /**
+         * 把另一张图的边合并到本图：出边权重相加，本图中没有的边加入入边列表。
+         * 新来源按 other 入边列表中的顺序（即 other 中首次出现的顺序）追加，
+         * 因此按文本顺序依次合并各段的局部图时，入边列表与顺序构建完全相同
+         */
+        void merge(Graph other) {
+            other.incomingEdges.forEach((node, sources) -> {
+                for (String source : sources) {
+                    if (!adjacencyList.getOrDefault(source, Collections.emptyMap()).containsKey(node)) {
+                        incomingEdges.computeIfAbsent(node, k -> new ArrayList<>()).add(source);
+                    }
+                }
+            });
+            other.adjacencyList.forEach((source, edges) -> {
+                Map<String, Integer> target = adjacencyList.computeIfAbsent(source, k -> new HashMap<>());
+                edges.forEach((node, weight) -> target.merge(node, weight, Integer::sum));
+            });
+            version++;
+        }
+
+        /**
+         * 追加一段新文本构成的图（与本图之间不连边），返回本次修改的内容
+         */
+        GraphDelta append(Graph added) {
+            GraphDelta delta = new GraphDelta(added.adjacencyList);
+            added.adjacencyList.forEach((source, edges) -> {
+                if (!containsNode(source)) {
+                    delta.newNodes.add(source);
+                }
+                Map<String, Integer> existing = adjacencyList.getOrDefault(source, Collections.emptyMap());
+                for (String target : edges.keySet()) {
+                    if (!containsNode(target)) {
+                        delta.newNodes.add(target);
+                    }
+                    if (!existing.containsKey(target)) {
+                        delta.newEdges.computeIfAbsent(source, k -> new HashSet<>()).add(target);
+                    }
+                }
+            });
+            merge(added);
+            return delta;
+        }
+
+        /**
+         * 从字符流追加文本（分词规则与构图相同）
+         */
+        GraphDelta append(Reader text) throws IOException {
+            Graph added = new Graph();
+            WordScanner scanner = new WordScanner(added::addEdge);
+            char[] buf = new char[8192];
+            for (int n = text.read(buf); n >= 0; n = text.read(buf)) {
+                scanner.feed(buf, 0, n);
+            }
+            scanner.finish();
+            return append(added);
+        }
+    }
+
+    /**
+     * 内部类 GraphDelta，一次追加对图的修改
+     * - newNodes: 新出现的单词
+     * - newEdges: 新出现的边（源节点 -> 目标节点集合）
+     * - weightIncrements: 所有权重发生变化的边及其增量（包括新边）
+     */
+    static final class GraphDelta {
+        final Set<String> newNodes = new HashSet<>();
+        final Map<String, Set<String>> newEdges = new HashMap<>();
+        final Map<String, Map<String, Integer>> weightIncrements;
+
+        GraphDelta(Map<String, Map<String, Integer>> weightIncrements) {
+            this.weightIncrements = weightIncrements;
+        }
+
+        /** 权重发生变化的边数 */
+        int changedEdgeCount() {
+            return weightIncrements.values().stream().mapToInt(Map::size).sum();
+        }
+
+        /** 新出现的边数 */
+        int newEdgeCount() {
+            return newEdges.values().stream().mapToInt(Set::size).sum();
+        }
+
+        /** 出边或入边发生变化的节点 */
+        Set<String> changedNodes() {
+            Set<String> nodes = new HashSet<>(weightIncrements.keySet());
+            weightIncrements.values().forEach(edges -> nodes.addAll(edges.keySet()));
+            return nodes;
+        }
+
+        boolean isEmpty() {
+            return weightIncrements.isEmpty();
+        }
+    }
+
+    /**
+     * 内部类 CompiledGraph，Graph 的只读编译形式（构图完成后一次性生成，供各算法使用）
+     * - words / ids: 单词与整数编号的双向字典，编号按 adjacencyList 的遍历顺序分配，只有入边的节点排在最后
+     * - outOffsets / outTargets / outWeights: 出边的压缩稀疏行(CSR)数组，
+     *   节点 u 的出边位于 [outOffsets[u], outOffsets[u+1])，按目标编号升序排列
+     * - inOffsets / inSources / inWeights: 入边的CSR数组，每条不同的边只出现一次，按来源编号升序排列
+     * - store: 堆外存储（见 OffHeapStore），不为 null 时以上字典和数组均为 null，访问方法改为读取堆外缓冲区
+     */
+    static final class CompiledGraph {
+        final String[] words;
+        final Map<String, Integer> ids;
+        final int[] outOffsets;
+        final int[] outTargets;
+        final int[] outWeights;
+        final int[] inOffsets;
+        final int[] inSources;
+        final int[] inWeights;
+        final OffHeapStore store;
+        // 编译来源及其当时的版本号
+        private final Graph source;
+        private final int version;
+        // 全局递增的编译代号，每个 CompiledGraph 实例唯一，用作结果缓存键的一部分
+        private static final AtomicLong GENERATIONS = new AtomicLong();
+        final long generation = GENERATIONS.incrementAndGet();
+        // 桥接词索引，首次使用时创建
+        private BridgeIndex bridgeIndex;
+        // 地标预处理结果（ALT），未预处理时为 null
+        private volatile Landmarks landmarks;
+        // 缓存的PageRank结果，首次查询时计算；增量编译时以旧结果作为迭代初值
+        private PageRank pageRank;
+        private double[] warmStart;
+        // 加权随机游走的别名表，首次使用时构建
+        private RandomWalker randomWalker;
+        // 整图分析结果（强连通分量等），首次使用时计算
+        private GraphAnalytics analytics;
+        // 空闲的最短路径引擎：查询时借出、结束后归还（每个请求一个虚拟线程，按线程缓存无法复用）
+        private final ConcurrentLinkedQueue<ShortestPaths> idlePaths = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        private CompiledGraph(Graph source, String[] words, Map<String, Integer> ids,
+                              int[] outOffsets, int[] outTargets, int[] outWeights) {
+            this(source, words, ids, outOffsets, outTargets, outWeights, null, null, null);
+        }
+
+        /**
+         * 入边CSR为 null 时由出边CSR转置得到
+         */
+        private CompiledGraph(Graph source, String[] words, Map<String, Integer> ids,
+                              int[] outOffsets, int[] outTargets, int[] outWeights,
+                              int[] inOffsets, int[] inSources, int[] inWeights) {
+            this.source = source;
+            this.version = source == null ? 0 : source.version;
+            this.store = null;
+            this.words = words;
+            this.ids = ids;
+            this.outOffsets = outOffsets;
+            this.outTargets = outTargets;
+            this.outWeights = outWeights;
+            if (inOffsets != null) {
+                this.inOffsets = inOffsets;
+                this.inSources = inSources;
+                this.inWeights = inWeights;
+                return;
+            }
+
+            // 由出边CSR转置得到入边CSR：按来源升序填充，因此每行天然有序
+            int n = words.length;
+            inOffsets = new int[n + 1];
+            for (int t : outTargets) {
+                inOffsets[t + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            inSources = new int[outTargets.length];
+            inWeights = new int[outTargets.length];
+            int[] fill = Arrays.copyOf(inOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int i = outOffsets[u]; i < outOffsets[u + 1]; i++) {
+                    int slot = fill[outTargets[i]]++;
+                    inSources[slot] = u;
+                    inWeights[slot] = outWeights[i];
+                }
+            }
+            this.inOffsets = inOffsets;
+            this.inSources = inSources;
+            this.inWeights = inWeights;
+        }
+
+        /**
+         * 以堆外存储为后端
+         */
+        private CompiledGraph(Graph source, OffHeapStore store) {
+            this.source = source;
+            this.version = source == null ? 0 : source.version;
+            this.store = store;
+            this.words = null;
+            this.ids = null;
+            this.outOffsets = null;
+            this.outTargets = null;
+            this.outWeights = null;
+            this.inOffsets = null;
+            this.inSources = null;
+            this.inWeights = null;
+        }
+
+        /**
+         * 以堆外存储为后端的编译图（如映射的快照文件）
+         */
+        static CompiledGraph of(OffHeapStore store) {
+            return new CompiledGraph(null, store);
+        }
+
+        /**
+         * 复制到堆外（直接缓冲区）：结果不再关联可修改的 Graph，已计算的PageRank和地标预处理结果随之保留
+         */
+        CompiledGraph toOffHeap() {
+            if (store != null) {
+                return this;
+            }
+            CompiledGraph copy = new CompiledGraph(null, OffHeapStore.copyOf(this));
+            synchronized (this) {
+                copy.pageRank = pageRank;
+            }
+            copy.landmarks = landmarks;
+            return copy;
+        }
+
+        /** 字典和CSR数组是否在堆外 */
+        boolean isOffHeap() {
+            return store != null;
+        }
+
+        /**
+         * 由各数组直接组装（如从快照加载），不做任何转换
+         */
+        static CompiledGraph of(String[] words, int[] outOffsets, int[] outTargets, int[] outWeights,
+                                int[] inOffsets, int[] inSources, int[] inWeights) {
+            Map<String, Integer> ids = new HashMap<>(words.length * 2);
+            for (int i = 0; i < words.length; i++) {
+                ids.put(words[i], i);
+            }
+            return new CompiledGraph(null, words, ids, outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+        }
+
+        /**
+         * 还原为可修改的 Graph
+         */
+        Graph toGraph() {
+            Graph graph = new Graph();
+            String[] names = wordArray();
+            for (int u = 0; u < size(); u++) {
+                if (outDegree(u) > 0) {
+                    Map<String, Integer> edges = new HashMap<>(outDegree(u) * 2);
+                    for (int i = outBegin(u); i < outEnd(u); i++) {
+                        edges.put(names[outTarget(i)], outWeight(i));
+                    }
+                    graph.adjacencyList.put(names[u], edges);
+                }
+                if (inDegree(u) > 0) {
+                    List<String> sources = new ArrayList<>(inDegree(u));
+                    for (int i = inBegin(u); i < inEnd(u); i++) {
+                        sources.add(names[inSource(i)]);
+                    }
+                    graph.incomingEdges.put(names[u], sources);
+                }
+            }
+            return graph;
+        }
+
+        /** 按编号排列的全部单词（堆外存储时逐个解码） */
+        private String[] wordArray() {
+            if (store == null) {
+                return words;
+            }
+            String[] names = new String[size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = store.word(i);
+            }
+            return names;
+        }
+
+        /**
+         * 返回以 graph 为来源的同一份编译结果（共享所有数组和已计算的缓存），用于把快照接到还原出的 Graph 上
+         */
+        CompiledGraph adopt(Graph graph) {
+            CompiledGraph adopted = store != null ? new CompiledGraph(graph, store)
+                    : new CompiledGraph(graph, words, ids, outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+            synchronized (this) {
+                adopted.pageRank = pageRank;
+                adopted.bridgeIndex = bridgeIndex;
+            }
+            adopted.landmarks = landmarks;
+            return adopted;
+        }
+
+        /**
+         * 编译有向图
+         */
+        static CompiledGraph compile(Graph graph) {
+            return compile(graph, null, null);
+        }
+
+        /**
+         * 增量重新编译：previous 是同一个 graph 之前的编译结果时，保留原有单词的编号（新单词排在后面），
+         * PageRank 以 previous 的结果为初值热启动；若还给出了 delta，则保留不受新边影响的桥接词缓存。
+         * 旧的地标预处理结果不再有效（边权变化），不予保留
+         */
+        static CompiledGraph compile(Graph graph, CompiledGraph previous, GraphDelta delta) {
+            if (previous != null && previous.source != graph) {
+                previous = null;
+            }
+            List<String> words = previous == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(previous.wordArray()));
+            Map<String, Integer> ids;
+            if (previous == null) {
+                ids = new HashMap<>();
+            } else if (previous.store == null) {
+                ids = new HashMap<>(previous.ids);
+            } else {
+                ids = new HashMap<>(words.size() * 2);
+                for (int i = 0; i < words.size(); i++) {
+                    ids.put(words.get(i), i);
+                }
+            }
+            for (String node : graph.adjacencyList.keySet()) {
+                if (!ids.containsKey(node)) {
+                    ids.put(node, words.size());
+                    words.add(node);
+                }
+            }
+            for (String node : graph.incomingEdges.keySet()) {
+                if (!ids.containsKey(node)) {
+                    ids.put(node, words.size());
+                    words.add(node);
+                }
+            }
+
+            int n = words.size();
+            int[] offsets = new int[n + 1];
+            int edges = 0;
+            for (int u = 0; u < n; u++) {
+                offsets[u] = edges;
+                edges += graph.adjacencyList.getOrDefault(words.get(u), Collections.emptyMap()).size();
+            }
+            offsets[n] = edges;
+
+            int[] targets = new int[edges];
+            int[] weights = new int[edges];
+            for (int u = 0; u < n; u++) {
+                Map<String, Integer> out = graph.adjacencyList.get(words.get(u));
+                if (out == null) {
+                    continue;
+                }
+                // (目标编号, 权重) 打包为 long 后排序，使每行按目标编号升序
+                long[] row = new long[out.size()];
+                int k = 0;
+                for (Map.Entry<String, Integer> e : out.entrySet()) {
+                    row[k++] = ((long) ids.get(e.getKey()) << 32) | e.getValue();
+                }
+                Arrays.sort(row);
+                for (int j = 0; j < row.length; j++) {
+                    targets[offsets[u] + j] = (int) (row[j] >>> 32);
+                    weights[offsets[u] + j] = (int) row[j];
+                }
+            }
+            CompiledGraph compiled = new CompiledGraph(graph, words.toArray(new String[0]), ids, offsets, targets, weights);
+            if (previous != null) {
+                compiled.carryOver(previous, delta);
+            }
+            return compiled;
+        }
+
+        /**
+         * 从同一张图的旧编译结果继承仍然有效的状态
+         */
+        private void carryOver(CompiledGraph previous, GraphDelta delta) {
+            PageRank previousRanks;
+            BridgeIndex previousBridges;
+            synchronized (previous) {
+                previousRanks = previous.pageRank;
+                previousBridges = previous.bridgeIndex;
+            }
+            if (previousRanks != null) {
+                // 新节点的初值取均匀分布，compute 会重新归一化
+                warmStart = Arrays.copyOf(previousRanks.ranks, size());
+                Arrays.fill(warmStart, previousRanks.ranks.length, size(), 1.0 / size());
+            }
+            if (previousBridges != null && delta != null) {
+                bridgeIndex = previousBridges.carryOver(this, delta);
+            }
+        }
+
+        /**
+         * 是否由 graph 的当前状态编译而来
+         */
+        boolean isCompiledFrom(Graph graph) {
+            return source == graph && (graph == null || version == graph.version);
+        }
+
+        /** 节点数 */
+        int size() {
+            return store == null ? words.length : store.size;
+        }
+
+        /** 不同的边数 */
+        int edgeCount() {
+            return store == null ? outTargets.length : store.edges;
+        }
+
+        /** 单词对应的编号（需已转为小写），不存在时返回 -1 */
+        int id(String word) {
+            if (store != null) {
+                return store.id(word);
+            }
+            Integer id = ids.get(word);
+            return id == null ? -1 : id;
+        }
+
+        /** 编号对应的单词（堆外存储时每次解码出新的字符串） */
+        String word(int id) {
+            return store == null ? words[id] : store.word(id);
+        }
+
+        int outBegin(int u) {
+            return store == null ? outOffsets[u] : store.outOffsets.get(u);
+        }
+
+        int outEnd(int u) {
+            return store == null ? outOffsets[u + 1] : store.outOffsets.get(u + 1);
+        }
+
+        int outDegree(int u) {
+            return outEnd(u) - outBegin(u);
+        }
+
+        int outTarget(int i) {
+            return store == null ? outTargets[i] : store.outTargets.get(i);
+        }
+
+        int outWeight(int i) {
+            return store == null ? outWeights[i] : store.outWeights.get(i);
+        }
+
+        int inBegin(int v) {
+            return store == null ? inOffsets[v] : store.inOffsets.get(v);
+        }
+
+        int inEnd(int v) {
+            return store == null ? inOffsets[v + 1] : store.inOffsets.get(v + 1);
+        }
+
+        int inDegree(int v) {
+            return inEnd(v) - inBegin(v);
+        }
+
+        int inSource(int i) {
+            return store == null ? inSources[i] : store.inSources.get(i);
+        }
+
+        int inWeight(int i) {
+            return store == null ? inWeights[i] : store.inWeights.get(i);
+        }
+
+        /** 出边下标区间 [from, to)（同一行，按目标编号升序）中是否有指向 target 的边 */
+        boolean hasOutTarget(int from, int to, int target) {
+            return store == null ? Arrays.binarySearch(outTargets, from, to, target) >= 0
+                    : OffHeapStore.contains(store.outTargets, from, to, target);
+        }
+
+        /** 入边下标区间 [from, to)（同一行，按来源编号升序）中是否有来自 source 的边 */
+        boolean hasInSource(int from, int to, int source) {
+            return store == null ? Arrays.binarySearch(inSources, from, to, source) >= 0
+                    : OffHeapStore.contains(store.inSources, from, to, source);
+        }
+
+        /**
+         * 六个CSR数组的只读视图，依次为 outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights
+         */
+        IntBuffer[] csr() {
+            if (store != null) {
+                return new IntBuffer[]{store.outOffsets.duplicate(), store.outTargets.duplicate(), store.outWeights.duplicate(),
+                        store.inOffsets.duplicate(), store.inSources.duplicate(), store.inWeights.duplicate()};
+            }
+            return new IntBuffer[]{IntBuffer.wrap(outOffsets), IntBuffer.wrap(outTargets), IntBuffer.wrap(outWeights),
+                    IntBuffer.wrap(inOffsets), IntBuffer.wrap(inSources), IntBuffer.wrap(inWeights)};
+        }
+
+        /** 地标预处理结果，未预处理时为 null */
+        Landmarks landmarks() {
+            return landmarks;
+        }
+
+        /** 设置地标预处理结果，之后 LANDMARKS 搜索方式使用它 */
+        void useLandmarks(Landmarks landmarks) {
+            this.landmarks = landmarks;
+        }
+
+        /**
+         * 图结构的指纹（由字典和CSR数组计算），用于校验随图保存的预处理结果
+         */
+        long fingerprint() {
+            long h = 1125899906842597L;
+            for (int i = 0; i < size(); i++) {
+                h = 31 * h + word(i).hashCode();
+            }
+            for (int i = 0; i < size(); i++) {
+                h = 31 * h + outBegin(i);
+            }
+            h = 31 * h + edgeCount();
+            for (int i = 0; i < edgeCount(); i++) {
+                h = 31 * h + outTarget(i);
+                h = 31 * h + outWeight(i);
+            }
+            return h;
+        }
+
+        /** 本图的PageRank结果（首次调用时计算并缓存） */
+        synchronized PageRank pageRank() {
+            if (pageRank == null) {
+                pageRank = PageRank.compute(this, warmStart, null);
+                warmStart = null;
+            }
+            return pageRank;
+        }
+
+        /** 本图的加权随机游走引擎（首次调用时构建别名表） */
+        synchronized RandomWalker randomWalker() {
+            if (randomWalker == null) {
+                randomWalker = new RandomWalker(this);
+            }
+            return randomWalker;
+        }
+
+        // 最多保留的空闲引擎数，超出的在归还时直接丢弃
+        private static final int MAX_IDLE_PATHS = Runtime.getRuntime().availableProcessors() * 2;
+
+        /** 借出一个最短路径引擎，用完后必须通过 release 归还 */
+        ShortestPaths borrowShortestPaths() {
+            ShortestPaths sp = idlePaths.poll();
+            if (sp == null) {
+                return new ShortestPaths(this);
+            }
+            idleCount.decrementAndGet();
+            return sp;
+        }
+
+        /** 归还 borrowShortestPaths 借出的引擎 */
+        void release(ShortestPaths sp) {
+            if (idleCount.incrementAndGet() <= MAX_IDLE_PATHS) {
+                idlePaths.offer(sp);
+            } else {
+                idleCount.decrementAndGet();
+            }
+        }
+
+        /** 本图的桥接词索引 */
+        synchronized BridgeIndex bridgeIndex() {
+            if (bridgeIndex == null) {
+                bridgeIndex = new BridgeIndex(this, BridgeIndex.DEFAULT_BUDGET);
+            }
+            return bridgeIndex;
+        }
+
+        /** 本图的整图分析结果（首次调用时计算） */
+        synchronized GraphAnalytics analytics() {
+            if (analytics == null) {
+                analytics = GraphAnalytics.compute(this, GraphAnalytics.DEFAULT_SAMPLES, GraphAnalytics.DEFAULT_SEED);
+            }
+            return analytics;
+        }
+    }
+
+    /**
+     * 获取当前 graph 的编译形式；graph 被替换或修改后自动重新编译
+     */
+    static CompiledGraph compiledGraph() {
+        CompiledGraph c = compiled;
+        if (c == null || !c.isCompiledFrom(graph)) {
+            c = CompiledGraph.compile(graph, c, null);
+            compiled = c;
+        }
+        return c;
+    }
+
+    /**
+     * 获取可修改的图；从快照启动时 graph 为空，此时由编译形式还原（只在第一次需要修改时进行）
+     */
+    static Graph mutableGraph() {
+        if (graph == null && compiled != null) {
+            graph = compiled.toGraph();
+            compiled = compiled.adopt(graph);
+        }
+        return graph;
+    }
+
+    /**
+     * 把文件中的文本追加到当前图（与已有文本之间不连边），并增量重新编译：
+     * 保留单词编号，PageRank热启动，只丢弃受新边影响的桥接词缓存，地标预处理失效
+     * @return 本次追加修改的节点和边
+     */
+    public static GraphDelta appendText(String filePath) throws IOException {
+        Graph target = mutableGraph();
+        CompiledGraph previous = compiledGraph();
+        GraphDelta delta = target.append(buildGraph(filePath));
+        compiled = CompiledGraph.compile(graph, previous, delta);
+        return delta;
+    }
+
+    // ---------------------- 运行指标 ----------------------
+
+    /**
+     * 内部类 Metrics，构图和各查询热点路径上的计数器与直方图（延迟单位为纳秒）。
+     * 由系统属性 -Dlab1.metrics=true 开启；ENABLED 是 static final 常量，关闭时所有 if (Metrics.ENABLED) 分支被JIT消除，
+     * 没有任何开销。记录时不分配对象：计数器为 LongAdder，直方图为固定大小的计数数组
+     */
+    static final class Metrics {
+        static final boolean ENABLED = Boolean.getBoolean("lab1.metrics");
+
+        // 构图：读取字节数、单词数、边（相邻单词对）数和耗时
+        static final LongAdder INGEST_BYTES = new LongAdder();
+        static final LongAdder INGEST_TOKENS = new LongAdder();
+        static final LongAdder INGEST_EDGES = new LongAdder();
+        static final Histogram INGEST = new Histogram();
+        // 各查询的延迟
+        static final Histogram BRIDGE = new Histogram();
+        static final Histogram BRIDGE_CHAINS = new Histogram();
+        static final Histogram NEW_TEXT = new Histogram();
+        static final Histogram SHORTEST_PATH = new Histogram();
+        static final Histogram PAGE_RANK = new Histogram();
+        static final Histogram RANDOM_WALK = new Histogram();
+        // 算法内部：点对点最短路径扩展的节点数、PageRank收敛所需迭代次数、随机游走长度
+        static final Histogram DIJKSTRA_SETTLED = new Histogram();
+        static final Histogram PAGERANK_ITERATIONS = new Histogram();
+        static final Histogram WALK_LENGTH = new Histogram();
+
+        private Metrics() {
+        }
+
+        /** 记录一次构图（一个文件） */
+        static void recordIngest(long bytes, long tokens, long startNanos) {
+            INGEST.recordSince(startNanos);
+            INGEST_BYTES.add(bytes);
+            INGEST_TOKENS.add(tokens);
+            INGEST_EDGES.add(Math.max(0, tokens - 1));
+        }
+
+        /**
+         * 当前全部指标的文本报告
+         */
+        static String report() {
+            if (!ENABLED) {
+                return "metrics disabled (run with -Dlab1.metrics=true)";
+            }
+            StringBuilder out = new StringBuilder();
+            double seconds = INGEST.sum() / 1e9;
+            out.append(String.format("ingest: %d files, %.2f MB, %d tokens, %d edges in %.1f ms",
+                    INGEST.count(), INGEST_BYTES.sum() / 1048576.0, INGEST_TOKENS.sum(), INGEST_EDGES.sum(), seconds * 1e3));
+            if (seconds > 0) {
+                out.append(String.format(" (%.2f MB/s, %.0f tokens/s, %.0f edges/s)",
+                        INGEST_BYTES.sum() / 1048576.0 / seconds, INGEST_TOKENS.sum() / seconds, INGEST_EDGES.sum() / seconds));
+            }
+            out.append('\n');
+            line(out, "query.bridge", BRIDGE, "us", 1e3);
+            line(out, "query.chains", BRIDGE_CHAINS, "us", 1e3);
+            line(out, "query.newtext", NEW_TEXT, "us", 1e3);
+            line(out, "query.path", SHORTEST_PATH, "us", 1e3);
+            line(out, "query.pagerank", PAGE_RANK, "us", 1e3);
+            line(out, "query.walk", RANDOM_WALK, "us", 1e3);
+            line(out, "dijkstra.settled", DIJKSTRA_SETTLED, "nodes", 1);
+            line(out, "pagerank.iterations", PAGERANK_ITERATIONS, "iterations", 1);
+            line(out, "walk.length", WALK_LENGTH, "nodes", 1);
+            return out.toString();
+        }
+
+        static void line(StringBuilder out, String name, Histogram h, String unit, double scale) {
+            out.append(String.format("%-20s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f max=%.1f %s%n", name, h.count(),
+                    h.mean() / scale, h.percentile(0.50) / scale, h.percentile(0.90) / scale, h.percentile(0.99) / scale,
+                    h.max() / scale, unit));
+        }
+
+        /**
+         * 每隔 periodSeconds 秒把报告写到 out（守护线程）
+         */
+        static void startReporter(long periodSeconds, PrintStream out) {
+            ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(() -> out.print(report()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 内部类 Histogram，对数线性分桶的直方图（与 HdrHistogram 的分桶方式相同）：
+     * 小于32的值各占一个桶，之后每个 [2^k, 2^(k+1)) 区间等分为16个桶，相对误差不超过 1/16。
+     * 记录是无锁的原子自增，不分配对象
+     */
+    static final class Histogram {
+        private static final int LINEAR = 32;
+        private static final int SUB_BUCKETS = 16;
+        private static final int BUCKETS = LINEAR + 58 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            value = Math.max(0, value);
+            counts.incrementAndGet(bucket(value));
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        /** 记录从 startNanos 到现在经过的纳秒数 */
+        void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long sum() {
+            return sum.sum();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        double mean() {
+            long n = count();
+            return n == 0 ? 0 : (double) sum() / n;
+        }
+
+        /**
+         * 分位数的近似值（所在桶的上界，不超过最大值）
+         */
+        long percentile(double p) {
+            long n = count();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(max(), i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE);
+                }
+            }
+            return max();
+        }
+
+        static int bucket(long value) {
+            if (value < LINEAR) {
+                return (int) value;
+            }
+            int shift = 59 - Long.numberOfLeadingZeros(value); // 保留最高的5位
+            return LINEAR + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+        }
+
+        static long lowerBound(int bucket) {
+            if (bucket < LINEAR) {
+                return bucket;
+            }
+            int shift = (bucket - LINEAR) / SUB_BUCKETS + 1;
+            return (long) ((bucket - LINEAR) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        }
+    }
+
+    // ---------------------- 功能1：读取文件并构建图 ----------------------
+
+    /**
+     * 从文件构建有向图（流式：内存映射文件后单遍扫描，相邻单词对直接加入图，不生成全文字符串和单词列表）
+     * @param filePath 文件路径
+     * @return 构建完成的有向图对象
+     */
+    public static Graph buildGraph(String filePath) throws IOException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        Graph graph = new Graph();
+        WordScanner scanner = new WordScanner(graph::addEdge);
+        long bytes;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            scanRange(channel, 0, bytes, scanner);
+        }
+        scanner.finish();
+        if (Metrics.ENABLED) {
+            Metrics.recordIngest(bytes, scanner.tokens, start);
+        }
+        return graph;
+    }
+
+    /**
+     * 并行构建有向图：按单词边界把文件切成 threads 个字节区间，在 ForkJoinPool 上各自构建局部图，
+     * 再按区间顺序合并，并补上每个区间边界处跨越的那一条边。结果与顺序构建完全相同
+     * （包括入边列表中来源的出现顺序）
+     * @param filePath 文件路径
+     * @param threads  线程数，小于等于1时退化为顺序构建
+     */
+    public static Graph buildGraph(String filePath, int threads) throws IOException {
+        if (threads <= 1) {
+            return buildGraph(filePath);
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, threads);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<Future<Graph>> partials = new ArrayList<>();
+                List<WordScanner> scanners = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    Graph partial = new Graph();
+                    WordScanner scanner = new WordScanner(partial::addEdge);
+                    scanners.add(scanner);
+                    partials.add(pool.submit(() -> {
+                        scanRange(channel, from, to, scanner);
+                        scanner.finish();
+                        return partial;
+                    }));
+                }
+
+                // 按区间顺序合并：先补跨边界的边，再追加该区间的局部图，保证与顺序构建一致
+                Graph graph = new Graph();
+                String last = null;
+                for (int i = 0; i < threads; i++) {
+                    Graph partial = partials.get(i).get();
+                    WordScanner scanner = scanners.get(i);
+                    if (last != null && scanner.first != null) {
+                        graph.addEdge(last, scanner.first);
+                    }
+                    graph.merge(partial);
+                    if (scanner.previous != null) {
+                        last = scanner.previous;
+                    }
+                }
+                if (Metrics.ENABLED) {
+                    Metrics.recordIngest(channel.size(), scanners.stream().mapToLong(s -> s.tokens).sum(), start);
+                }
+                return graph;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("并行构图被中断", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("并行构图失败: " + e.getCause(), e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /** 查找区间边界时每次读取的字节数 */
+    private static final int BOUNDARY_WINDOW = 256;
+
+    /**
+     * 计算 chunks 个区间的边界（长度 chunks+1），每个内部边界向后移动到不在单词中间的位置；
+     * 每次读入一小段窗口在内存中查找，而不是逐字节读取
+     */
+    static long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+        for (int i = 1; i < chunks; i++) {
+            long pos = Math.max(bounds[i - 1], size / chunks * i);
+            // 前一个字节和当前字节都是字母说明处在单词中间，继续后移；窗口从 pos - 1 开始，读完仍在单词中则读下一段
+            while (pos > 0 && pos < size) {
+                long start = pos - 1;
+                int n = readFully(channel, window, start);
+                int j = 1;
+                while (j < n && isLetter(window.get(j - 1)) && isLetter(window.get(j))) {
+                    j++;
+                }
+                pos = start + j;
+                if (j < n) {
+                    break;
+                }
+            }
+            bounds[i] = pos;
+        }
+        return bounds;
+    }
+
+    /**
+     * 从 position 开始读满 buffer（到文件末尾为止），返回读到的字节数
+     */
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    private static boolean isLetter(int b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /** 单次映射的最大字节数（MappedByteBuffer 上限为 2GB，超大文件分段映射） */
+    static final long MAP_SEGMENT = 1L << 30;
+
+    /**
+     * 分段映射文件的 [from, to) 区间并交给扫描器；跨段的单词由扫描器内部状态自然衔接
+     */
+    static void scanRange(FileChannel channel, long from, long to, WordScanner scanner) throws IOException {
+        for (long pos = from; pos < to; pos += MAP_SEGMENT) {
+            long size = Math.min(MAP_SEGMENT, to - pos);
+            scanner.feed(channel.map(FileChannel.MapMode.READ_ONLY, pos, size));
+        }
+    }
+
+    /**
+     * 逐个接收单词字符的回调：chars[0, len) 为小写单词，数组在回调返回后会被复用
+     */
+    interface WordSink {
+        void word(char[] chars, int len);
+    }
+
+    /**
+     * 单遍ASCII字母扫描器：非 a-zA-Z 字符均视为分隔符，单词转小写，
+     * 每识别出一个单词就把 (上一个单词, 当前单词) 交给回调
+     * - first: 扫描到的第一个单词
+     * - previous: 最近一个单词（扫描结束后即最后一个单词）
+     */
+    static final class WordScanner {
+        private final BiConsumer<String, String> sink;
+        private final WordSink words;
+        private char[] buf = new char[32];
+        private int len;
+        String first;
+        String previous;
+        // 已输出的单词数，仅在开启运行指标时统计
+        long tokens;
+
+        WordScanner(BiConsumer<String, String> sink) {
+            this.sink = sink;
+            this.words = null;
+        }
+
+        /**
+         * 直接输出每个单词的字符（不创建字符串、不记录 first / previous）
+         */
+        WordScanner(WordSink words) {
+            this.sink = null;
+            this.words = words;
+        }
+
+        /**
+         * 扫描缓冲区 [position, limit) 中的字节，不修改缓冲区位置
+         */
+        void feed(ByteBuffer bytes) {
+            for (int i = bytes.position(), end = bytes.limit(); i < end; i++) {
+                int b = bytes.get(i);
+                if (b >= 'a' && b <= 'z') {
+                    append((char) b);
+                } else if (b >= 'A' && b <= 'Z') {
+                    append((char) (b + ('a' - 'A')));
+                } else if (len > 0) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * 扫描字符数组 [from, to)，规则与字节扫描相同
+         */
+        void feed(char[] chars, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = chars[i];
+                if (c >= 'a' && c <= 'z') {
+                    append(c);
+                } else if (c >= 'A' && c <= 'Z') {
+                    append((char) (c + ('a' - 'A')));
+                } else if (len > 0) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * 输入结束：输出缓冲区中尚未结束的最后一个单词
+         */
+        void finish() {
+            if (len > 0) {
+                flush();
+            }
+        }
+
+        private void append(char c) {
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, len * 2);
+            }
+            buf[len++] = c;
+        }
+
+        private void flush() {
+            if (Metrics.ENABLED) {
+                tokens++;
+            }
+            if (words != null) {
+                words.word(buf, len);
+                len = 0;
+                return;
+            }
+            String word = new String(buf, 0, len);
+            len = 0;
+            if (previous == null) {
+                first = word;
+            } else {
+                sink.accept(previous, word);
+            }
+            previous = word;
+        }
+    }
+
+    /**
+     * 内部类 CorpusBuilder，从目录树或通配符（如 "docs/**.txt"）匹配的多个文件构建一张图：
+     * - 最多 ioThreads 个文件同时读取和分词（每个文件由一个线程内存映射后单遍扫描）
+     * - 所有线程共用一个并发的单词字典（单词 -> 编号），边按 (源编号 << 32 | 目标编号) 记录
+     * - 每个文件先在线程本地的 LongIntMap 中累计边的出现次数，结束后按键的哈希分组合并到共享的分段 LongIntMap
+     *   （每段一把锁，每个文件对每段只加锁一次），计数全程不装箱
+     * - crossDocument 为 true 时，按路径排序后相邻两个文件之间补上“前一文件最后一个单词 -> 后一文件第一个单词”的边，
+     *   结果与把所有文件依次拼接（以空白分隔）后构图相同；为 false 时文档之间不连边
+     * - progress 不为 null 时定期输出已处理的文件数、数据量和吞吐量
+     * 入边列表中来源的顺序与单文件构图不同，其余完全一致。
+     * 字典、边表和进度计数都属于单次 build，构建器本身只保存设置，可以重复（包括并发）调用 build
+     */
+    static final class CorpusBuilder {
+        /** 共享边表的段数（2 的幂） */
+        private static final int STRIPES = 64;
+
+        int ioThreads = 4;
+        boolean crossDocument;
+        PrintStream progress;
+        long progressIntervalMillis = 1000;
+
+        /**
+         * 设置相同的新构建器
+         */
+        CorpusBuilder copy() {
+            CorpusBuilder copy = new CorpusBuilder();
+            copy.ioThreads = ioThreads;
+            copy.crossDocument = crossDocument;
+            copy.progress = progress;
+            copy.progressIntervalMillis = progressIntervalMillis;
+            return copy;
+        }
+
+        /**
+         * 构建 pattern 指定的所有文件（目录时递归包含其下所有普通文件）
+         */
+        Graph build(String pattern) throws IOException {
+            List<Path> files = resolve(pattern);
+            long totalBytes = 0;
+            for (Path file : files) {
+                totalBytes += Files.size(file);
+            }
+            Run run = new Run(files.size(), totalBytes);
+            int[][] ends = new int[files.size()][];
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, ioThreads));
+            ScheduledExecutorService reporter = progress == null ? null : startProgress(run);
+            try {
+                List<Future<int[]>> tasks = new ArrayList<>();
+                for (Path file : files) {
+                    tasks.add(pool.submit(() -> run.ingest(file)));
+                }
+                for (int i = 0; i < tasks.size(); i++) {
+                    ends[i] = tasks.get(i).get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("构建语料被中断", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("构建语料失败: " + e.getCause(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+                if (reporter != null) {
+                    reporter.shutdownNow();
+                }
+            }
+
+            if (crossDocument) {
+                // 按文件顺序连接文档边界（跳过没有单词的文件）
+                int last = -1;
+                for (int[] end : ends) {
+                    if (end[0] < 0) {
+                        continue;
+                    }
+                    if (last >= 0) {
+                        long key = edgeKey(last, end[0]);
+                        run.stripes[stripe(key)].increment(key);
+                    }
+                    last = end[1];
+                }
+            }
+            Graph graph = run.toGraph();
+            if (progress != null) {
+                progress.println(run.progressLine() + ", " + run.edgeCount() + " distinct edges");
+            }
+            return graph;
+        }
+
+        /**
+         * 把 pattern 解析为排序后的文件列表：目录（递归）、单个文件或 glob 通配符
+         */
+        static List<Path> resolve(String pattern) throws IOException {
+            Path path = Paths.get(pattern);
+            List<Path> files = new ArrayList<>();
+            if (!isPattern(pattern)) {
+                if (Files.isDirectory(path)) {
+                    try (var stream = Files.walk(path)) {
+                        stream.filter(Files::isRegularFile).forEach(files::add);
+                    }
+                } else {
+                    files.add(path);
+                }
+            } else {
+                // 从第一个含通配符的路径段之前的目录开始遍历
+                Path base = Paths.get("");
+                for (Path part : path) {
+                    if (isPattern(part.toString())) {
+                        break;
+                    }
+                    base = base.resolve(part);
+                }
+                if (path.isAbsolute()) {
+                    base = path.getRoot().resolve(base);
+                }
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+                if (Files.isDirectory(base)) {
+                    try (var stream = Files.walk(base)) {
+                        stream.filter(Files::isRegularFile).filter(matcher::matches).forEach(files::add);
+                    }
+                }
+            }
+            Collections.sort(files);
+            return files;
+        }
+
+        /** 是否包含 glob 通配符 */
+        static boolean isPattern(String pattern) {
+            return pattern.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+        }
+
+        private static long edgeKey(int source, int target) {
+            return ((long) source << 32) | (target & 0xffffffffL);
+        }
+
+        /** 边所在的段：取乘法哈希的高位，与 LongIntMap 内部的探查位置（低位）无关 */
+        private static int stripe(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(STRIPES)));
+        }
+
+        private ScheduledExecutorService startProgress(Run run) {
+            ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "corpus-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(() -> progress.println(run.progressLine()),
+                    progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+            return timer;
+        }
+
+        /** 一次 build 的字典、边表和进度 */
+        private static final class Run {
+            final int files;
+            final long totalBytes;
+            final long start = System.nanoTime();
+            final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+            final AtomicInteger nextId = new AtomicInteger();
+            final LongIntMap[] stripes = new LongIntMap[STRIPES];
+            final AtomicLong bytesDone = new AtomicLong();
+            final AtomicLong tokensDone = new AtomicLong();
+            final AtomicInteger filesDone = new AtomicInteger();
+
+            Run(int files, long totalBytes) {
+                this.files = files;
+                this.totalBytes = totalBytes;
+                for (int i = 0; i < STRIPES; i++) {
+                    stripes[i] = new LongIntMap();
+                }
+            }
+
+            /**
+             * 读取并分词一个文件，边先在本地累计再按段合并到共享表
+             * @return {第一个单词的编号, 最后一个单词的编号}，文件中没有单词时为 {-1, -1}
+             */
+            int[] ingest(Path file) throws IOException {
+                long start = Metrics.ENABLED ? System.nanoTime() : 0;
+                LongIntMap local = new LongIntMap();
+                int[] previous = {-1};
+                long[] pairs = {0};
+                WordScanner scanner = new WordScanner((String source, String target) -> {
+                    if (previous[0] < 0) {
+                        previous[0] = intern(source);
+                    }
+                    int id = intern(target);
+                    local.increment(edgeKey(previous[0], id));
+                    previous[0] = id;
+                    pairs[0]++;
+                });
+                long bytes;
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    bytes = channel.size();
+                    scanRange(channel, 0, bytes, scanner);
+                }
+                scanner.finish();
+                merge(local);
+
+                bytesDone.addAndGet(bytes);
+                tokensDone.addAndGet(pairs[0] + (scanner.first != null ? 1 : 0));
+                filesDone.incrementAndGet();
+                if (Metrics.ENABLED) {
+                    Metrics.recordIngest(bytes, scanner.tokens, start);
+                }
+                return scanner.first == null
+                        ? new int[]{-1, -1}
+                        : new int[]{intern(scanner.first), intern(scanner.previous)};
+            }
+
+            /** 把本地边表按段分组（计数排序），每段加锁一次整批加入 */
+            private void merge(LongIntMap local) {
+                long[] table = local.table;
+                int[] offsets = new int[STRIPES + 1];
+                for (int i = 0; i < table.length; i += 2) {
+                    if (table[i] != LongIntMap.EMPTY) {
+                        offsets[stripe(table[i]) + 1]++;
+                    }
+                }
+                for (int s = 0; s < STRIPES; s++) {
+                    offsets[s + 1] += offsets[s];
+                }
+                int[] fill = Arrays.copyOf(offsets, STRIPES);
+                long[] keys = new long[local.size()];
+                int[] counts = new int[local.size()];
+                for (int i = 0; i < table.length; i += 2) {
+                    if (table[i] != LongIntMap.EMPTY) {
+                        int j = fill[stripe(table[i])]++;
+                        keys[j] = table[i];
+                        counts[j] = (int) table[i + 1];
+                    }
+                }
+                for (int s = 0; s < STRIPES; s++) {
+                    if (offsets[s] == offsets[s + 1]) {
+                        continue;
+                    }
+                    LongIntMap shared = stripes[s];
+                    synchronized (shared) {
+                        for (int j = offsets[s]; j < offsets[s + 1]; j++) {
+                            shared.add(keys[j], counts[j]);
+                        }
+                    }
+                }
+            }
+
+            private int intern(String word) {
+                Integer id = ids.get(word);
+                return id != null ? id : ids.computeIfAbsent(word, w -> nextId.getAndIncrement());
+            }
+
+            long edgeCount() {
+                long count = 0;
+                for (LongIntMap stripe : stripes) {
+                    count += stripe.size();
+                }
+                return count;
+            }
+
+            Graph toGraph() {
+                String[] words = new String[nextId.get()];
+                ids.forEach((word, id) -> words[id] = word);
+                Graph graph = new Graph();
+                for (LongIntMap stripe : stripes) {
+                    long[] table = stripe.table;
+                    for (int i = 0; i < table.length; i += 2) {
+                        long key = table[i];
+                        if (key != LongIntMap.EMPTY) {
+                            String source = words[(int) (key >>> 32)];
+                            String target = words[(int) key];
+                            graph.adjacencyList.computeIfAbsent(source, k -> new HashMap<>()).put(target, (int) table[i + 1]);
+                            graph.incomingEdges.computeIfAbsent(target, k -> new ArrayList<>()).add(source);
+                        }
+                    }
+                }
+                graph.version++;
+                return graph;
+            }
+
+            String progressLine() {
+                double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+                double megabytes = bytesDone.get() / 1048576.0;
+                return String.format("corpus: %d/%d files, %.1f/%.1f MB, %d tokens, %d words, %.1f s (%.2f MB/s, %.0f tokens/s)",
+                        filesDone.get(), files, megabytes, totalBytes / 1048576.0, tokensDone.get(), nextId.get(), seconds,
+                        megabytes / seconds, tokensDone.get() / seconds);
+            }
+        }
+    }
+
+    /**
+     * 从目录树或通配符匹配的多个文件构建有向图（见 CorpusBuilder）
+     * @param pattern       目录、文件或 glob 通配符
+     * @param ioThreads     同时读取的文件数
+     * @param crossDocument 文档之间是否连边
+     */
+    public static Graph buildCorpus(String pattern, int ioThreads, boolean crossDocument) throws IOException {
+        CorpusBuilder builder = new CorpusBuilder();
+        builder.ioThreads = ioThreads;
+        builder.crossDocument = crossDocument;
+        return builder.build(pattern);
+    }
+
+    /**
+     * 从文件直接构建只读的编译形式（见 GraphBuilder），不经过可修改的 Graph；需要修改时由 mutableGraph() 还原
+     * @param filePath 文件路径
+     */
+    public static CompiledGraph buildCompiled(String filePath) throws IOException {
+        return GraphBuilder.build(filePath);
+    }
+
+    /**
+     * 内部类 GraphBuilder，不经过 Graph 的 HashMap、直接构建编译形式的构图器：
+     * - 单词由扫描器以字符形式交给 WordTable 去重编号，只有新单词被复制一次，已有单词不创建任何对象
+     * - 边的出现次数记录在以 (源编号 << 32 | 目标编号) 为键的开放寻址表 LongIntMap 中，不装箱
+     * - freeze() 按来源计数排序后直接生成出边CSR（每行按目标编号升序），入边CSR由转置得到
+     * 单词编号按首次出现的顺序分配；结果与 CompiledGraph.compile(buildGraph(...)) 表示同一张图
+     * 一个构图器可依次 add 多个文件（文件之间不连边）；freeze 不改变构图器，之后可以继续 add 再重新 freeze
+     */
+    static final class GraphBuilder implements WordSink {
+        private final WordTable words = new WordTable();
+        private final LongIntMap edges = new LongIntMap();
+        private int previous = -1;
+
+        /**
+         * 读取并分词一个文件，相邻单词连边
+         */
+        GraphBuilder add(String filePath) throws IOException {
+            return add(filePath, this);
+        }
+
+        /**
+         * 读取并分词一个文件，单词交给 sink（sink 需调用 next 把单词加入本图）
+         */
+        GraphBuilder add(String filePath, WordSink sink) throws IOException {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            WordScanner scanner = new WordScanner(sink);
+            long size;
+            try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+                size = channel.size();
+                scanRange(channel, 0, size, scanner);
+            }
+            scanner.finish();
+            previous = -1;
+            if (Metrics.ENABLED) {
+                Metrics.recordIngest(size, scanner.tokens, start);
+            }
+            return this;
+        }
+
+        @Override
+        public void word(char[] chars, int len) {
+            next(chars, len);
+        }
+
+        /**
+         * 加入下一个单词（与前一个单词连边）
+         * @return 单词编号
+         */
+        int next(char[] chars, int len) {
+            int id = words.intern(chars, len);
+            if (previous >= 0) {
+                edges.increment(((long) previous << 32) | id);
+            }
+            previous = id;
+            return id;
+        }
+
+        /** 不同的边数 */
+        int edgeCount() {
+            return edges.size();
+        }
+
+        /**
+         * 生成只读的编译形式
+         */
+        CompiledGraph freeze() {
+            String[] names = words.toArray();
+            int n = names.length;
+            Map<String, Integer> ids = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                ids.put(names[i], i);
+            }
+
+            // 按来源计数得到行偏移，再把 (目标编号 << 32 | 权重) 放入所在行，每行排序即按目标编号升序
+            int m = edges.size();
+            int[] offsets = new int[n + 1];
+            long[] table = edges.table;
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != LongIntMap.EMPTY) {
+                    offsets[(int) (table[i] >>> 32) + 1]++;
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            int[] fill = Arrays.copyOf(offsets, n);
+            long[] packed = new long[m];
+            for (int i = 0; i < table.length; i += 2) {
+                long key = table[i];
+                if (key != LongIntMap.EMPTY) {
+                    packed[fill[(int) (key >>> 32)]++] = (key << 32) | table[i + 1];
+                }
+            }
+            int[] targets = new int[m];
+            int[] weights = new int[m];
+            for (int u = 0; u < n; u++) {
+                Arrays.sort(packed, offsets[u], offsets[u + 1]);
+            }
+            for (int i = 0; i < m; i++) {
+                targets[i] = (int) (packed[i] >>> 32);
+                weights[i] = (int) packed[i];
+            }
+            return new CompiledGraph(null, names, ids, offsets, targets, weights);
+        }
+
+        /**
+         * 从单个文件构建编译形式
+         */
+        static CompiledGraph build(String filePath) throws IOException {
+            return new GraphBuilder().add(filePath).freeze();
+        }
+    }
+
+    /**
+     * 内部类 WordTable，单词 -> 编号的开放寻址字典：
+     * 所有单词的字符依次存放在一个 char 数组中（starts 记录每个单词的起点），槽位中存放编号+1（0 为空），
+     * 并缓存每个单词的哈希值，扩容时不必重新计算；查找时直接与字符数组比较，不创建字符串
+     */
+    static final class WordTable {
+        private char[] chars = new char[1 << 12];
+        private int[] starts = new int[256 + 1];
+        private int[] hashes = new int[256];
+        private int[] slots = new int[512];
+        private int size;
+
+        /** 返回单词的编号，新单词按出现顺序编号 */
+        int intern(char[] word, int len) {
+            int h = 0;
+            for (int i = 0; i < len; i++) {
+                h = 31 * h + word[i];
+            }
+            int mask = slots.length - 1;
+            for (int i = mix(h) & mask; ; i = (i + 1) & mask) {
+                int slot = slots[i];
+                if (slot == 0) {
+                    int id = add(word, len, h);
+                    slots[i] = id + 1;
+                    if (size * 2 > slots.length) {
+                        rehash();
+                    }
+                    return id;
+                }
+                int id = slot - 1;
+                if (hashes[id] == h && equals(id, word, len)) {
+                    return id;
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** 按编号顺序生成全部单词 */
+        String[] toArray() {
+            String[] words = new String[size];
+            for (int i = 0; i < size; i++) {
+                words[i] = new String(chars, starts[i], starts[i + 1] - starts[i]);
+            }
+            return words;
+        }
+
+        private boolean equals(int id, char[] word, int len) {
+            int start = starts[id];
+            if (starts[id + 1] - start != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (chars[start + i] != word[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int add(char[] word, int len, int h) {
+            int id = size++;
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                starts = Arrays.copyOf(starts, size * 2 + 1);
+            }
+            int start = starts[id];
+            if (start + len > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + len));
+            }
+            System.arraycopy(word, 0, chars, start, len);
+            starts[id + 1] = start + len;
+            hashes[id] = h;
+            return id;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int id = 0; id < size; id++) {
+                int i = mix(hashes[id]) & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = id + 1;
+            }
+        }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * 内部类 LongIntMap，开放寻址的 long -> int 表（键必须非负），用于累计边 (src << 32 | dst) 的出现次数，也用作状态字典。
+     * 键和计数交错存放在同一个数组中（table[2i] 为键，table[2i+1] 为计数），一次探测只触及一条缓存行；
+     * 装载因子不超过 1/2
+     */
+    static final class LongIntMap {
+        static final long EMPTY = -1;
+        long[] table = new long[2 << 10];
+        private int size;
+
+        LongIntMap() {
+            Arrays.fill(table, EMPTY);
+        }
+
+        /** 键的计数加一，返回新的计数 */
+        int increment(long key) {
+            return add(key, 1);
+        }
+
+        /** 键的计数加 delta（键不存在时从0开始），返回新的计数 */
+        int add(long key, int delta) {
+            int mask = table.length - 2;
+            for (int i = (mix(key) << 1) & mask; ; i = (i + 2) & mask) {
+                long k = table[i];
+                if (k == key) {
+                    return (int) (table[i + 1] += delta);
+                }
+                if (k == EMPTY) {
+                    table[i] = key;
+                    table[i + 1] = delta;
+                    if (++size * 4 > table.length) {
+                        grow();
+                    }
+                    return delta;
+                }
+            }
+        }
+
+        /** 键对应的值，不存在时返回 missing */
+        int get(long key, int missing) {
+            int mask = table.length - 2;
+            for (int i = (mix(key) << 1) & mask; ; i = (i + 2) & mask) {
+                long k = table[i];
+                if (k == key) {
+                    return (int) table[i + 1];
+                }
+                if (k == EMPTY) {
+                    return missing;
+                }
+            }
+        }
+
+        /** 键不存在时以 value 加入，返回键对应的（原有或新加入的）值 */
+        int putIfAbsent(long key, int value) {
+            int mask = table.length - 2;
+            for (int i = (mix(key) << 1) & mask; ; i = (i + 2) & mask) {
+                long k = table[i];
+                if (k == key) {
+                    return (int) table[i + 1];
+                }
+                if (k == EMPTY) {
+                    table[i] = key;
+                    table[i + 1] = value;
+                    if (++size * 4 > table.length) {
+                        grow();
+                    }
+                    return value;
+                }
+            }
+        }
+
+        /** 表占用的字节数 */
+        long bytes() {
+            return 8L * table.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            Arrays.fill(table, EMPTY);
+            int mask = table.length - 2;
+            for (int j = 0; j < old.length; j += 2) {
+                long key = old[j];
+                if (key != EMPTY) {
+                    int i = (mix(key) << 1) & mask;
+                    while (table[i] != EMPTY) {
+                        i = (i + 2) & mask;
+                    }
+                    table[i] = key;
+                    table[i + 1] = old[j + 1];
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * 内部类 GraphSnapshot，编译图的二进制快照（小端序）：
+     * 文件头(64字节) | 字典偏移 int[n+1] | 单词字节（补齐到8字节） | 出边CSR | 入边CSR | 单词索引 | 可选的PageRank double[n]
+     * 文件头记录源文本的大小、修改时间和CRC32C，用于判断快照是否过期；单词索引与 OffHeapStore 的开放寻址表相同。
+     * 默认加载（load）直接把各段映射为堆外存储，不拷贝数组也不重建索引，加载时间与图的规模基本无关；
+     * 需要堆上数组时用 loadOnHeap 按段批量拷贝（仍不需要重新分词或转置）
+     */
+    static final class GraphSnapshot {
+        private static final long MAGIC = 0x50414E5331424C4CL; // "LLB1SNAP"
+        private static final int FORMAT_VERSION = 2;
+        private static final int HEADER_BYTES = 64;
+        private static final int FLAG_PAGERANK = 1;
+        /** 写出时的缓冲区大小 */
+        static final int IO_CHUNK = 1 << 20;
+
+        /**
+         * 写出快照
+         * @param source   生成该图的源文本（记录其大小、修改时间和校验和），可为 null
+         * @param withRank 是否同时保存PageRank（未计算时先计算）
+         */
+        static void write(CompiledGraph graph, Path file, Path source, boolean withRank) throws IOException {
+            int n = graph.size();
+            int e = graph.edgeCount();
+            byte[][] encoded = new byte[n][];
+            int[] dictOffsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                encoded[i] = graph.word(i).getBytes(StandardCharsets.ISO_8859_1);
+                dictOffsets[i + 1] = dictOffsets[i] + encoded[i].length;
+            }
+            long blobBytes = dictOffsets[n];
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(FORMAT_VERSION).putInt(withRank ? FLAG_PAGERANK : 0)
+                    .putInt(n).putInt(e).putLong(blobBytes);
+            if (source != null) {
+                header.putLong(Files.size(source))
+                        .putLong(Files.getLastModifiedTime(source).toMillis())
+                        .putLong(checksum(source));
+            }
+            header.clear();
+
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(out, header);
+                ByteBuffer buf = ByteBuffer.allocateDirect(IO_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+                writeInts(out, buf, IntBuffer.wrap(dictOffsets));
+                for (byte[] word : encoded) {
+                    writeBytes(out, buf, word);
+                }
+                int padding = (int) (-blobBytes & 7);
+                if (buf.remaining() < padding) {
+                    drain(out, buf);
+                }
+                for (int i = 0; i < padding; i++) {
+                    buf.put((byte) 0);
+                }
+                for (IntBuffer section : graph.csr()) {
+                    writeInts(out, buf, section);
+                }
+                writeInts(out, buf, OffHeapStore.buildIndex(n, i -> graph.word(i).hashCode()));
+                if (withRank) {
+                    for (double rank : graph.pageRank().ranks) {
+                        if (buf.remaining() < Double.BYTES) {
+                            drain(out, buf);
+                        }
+                        buf.putDouble(rank);
+                    }
+                }
+                drain(out, buf);
+            }
+        }
+
+        /**
+         * 把快照加载为堆上数组（各段批量拷贝，单词索引重建为 HashMap）
+         */
+        static CompiledGraph loadOnHeap(Path file) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = map(in, 0, HEADER_BYTES);
+                if (header.getLong() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                    throw new IOException("不是图快照文件: " + file);
+                }
+                int flags = header.getInt();
+                int n = header.getInt();
+                int e = header.getInt();
+                long blobBytes = header.getLong();
+
+                long pos = HEADER_BYTES;
+                int[] dictOffsets = readInts(in, pos, n + 1);
+                pos += 4L * (n + 1);
+                // 字典偏移为 int，单词字节不超过 2GB，可以一次映射
+                byte[] bytes = new byte[(int) blobBytes];
+                if (blobBytes > 0) {
+                    map(in, pos, blobBytes).get(bytes);
+                }
+                String[] words = new String[n];
+                for (int i = 0; i < n; i++) {
+                    words[i] = new String(bytes, dictOffsets[i], dictOffsets[i + 1] - dictOffsets[i], StandardCharsets.ISO_8859_1);
+                }
+                pos += (blobBytes + 7) / 8 * 8;
+
+                int[] outOffsets = readInts(in, pos, n + 1);
+                pos += 4L * (n + 1);
+                int[] outTargets = readInts(in, pos, e);
+                pos += 4L * e;
+                int[] outWeights = readInts(in, pos, e);
+                pos += 4L * e;
+                int[] inOffsets = readInts(in, pos, n + 1);
+                pos += 4L * (n + 1);
+                int[] inSources = readInts(in, pos, e);
+                pos += 4L * e;
+                int[] inWeights = readInts(in, pos, e);
+                pos += 4L * e;
+                pos += 4L * OffHeapStore.indexCapacity(n);
+
+                CompiledGraph graph = CompiledGraph.of(words, outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+                if ((flags & FLAG_PAGERANK) != 0) {
+                    readRanks(in, pos, graph);
+                }
+                return graph;
+            }
+        }
+
+        /**
+         * 加载快照：直接映射为堆外存储，字典、CSR数组和单词索引都不拷贝到堆上；
+         * 映射在关闭文件后仍然有效，快照文件在图使用期间不能被修改。保存的PageRank仍读入堆（每个节点一个 double）
+         */
+        static CompiledGraph load(Path file) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = map(in, 0, HEADER_BYTES);
+                if (header.getLong() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                    throw new IOException("不是图快照文件: " + file);
+                }
+                int flags = header.getInt();
+                int n = header.getInt();
+                int e = header.getInt();
+                long blobBytes = header.getLong();
+
+                long pos = HEADER_BYTES;
+                IntBuffer dictOffsets = mapInts(in, pos, n + 1);
+                pos += 4L * (n + 1);
+                ByteBuffer wordBytes = map(in, pos, blobBytes);
+                pos += (blobBytes + 7) / 8 * 8;
+                IntBuffer[] csr = new IntBuffer[6];
+                for (int i = 0; i < csr.length; i++) {
+                    int count = i % 3 == 0 ? n + 1 : e;
+                    csr[i] = mapInts(in, pos, count);
+                    pos += 4L * count;
+                }
+                int capacity = OffHeapStore.indexCapacity(n);
+                IntBuffer index = mapInts(in, pos, capacity);
+                pos += 4L * capacity;
+
+                CompiledGraph graph = CompiledGraph.of(new OffHeapStore(dictOffsets, wordBytes, csr, index));
+                if ((flags & FLAG_PAGERANK) != 0) {
+                    readRanks(in, pos, graph);
+                }
+                return graph;
+            }
+        }
+
+        private static void readRanks(FileChannel in, long pos, CompiledGraph graph) throws IOException {
+            int n = graph.size();
+            double[] ranks = new double[n];
+            for (int done = 0; done < n; ) {
+                int count = Math.min(n - done, IO_CHUNK / Double.BYTES);
+                map(in, pos + 8L * done, 8L * count).asDoubleBuffer().get(ranks, done, count);
+                done += count;
+            }
+            synchronized (graph) {
+                graph.pageRank = new PageRank(ranks, 0, 0);
+            }
+        }
+
+        /** 把一段 int 数组映射为缓冲区（不超过 2GB） */
+        private static IntBuffer mapInts(FileChannel in, long pos, int count) throws IOException {
+            if (4L * count > Integer.MAX_VALUE) {
+                throw new IOException("数组超过 2GB，无法映射为一个缓冲区: " + count + " 个 int");
+            }
+            return map(in, pos, 4L * count).asIntBuffer();
+        }
+
+        /**
+         * 快照是否存在且与源文本一致：大小和修改时间都相同即视为一致；
+         * 修改时间不同但大小相同时（例如文件被复制或 touch）再比较内容校验和
+         */
+        static boolean isFresh(Path file, Path source) throws IOException {
+            if (!Files.exists(file) || !Files.exists(source) || Files.size(file) < HEADER_BYTES) {
+                return false;
+            }
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = map(in, 0, HEADER_BYTES);
+                if (header.getLong() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                    return false;
+                }
+                header.position(32);
+                long size = header.getLong();
+                long mtime = header.getLong();
+                long hash = header.getLong();
+                if (size != Files.size(source)) {
+                    return false;
+                }
+                return mtime == Files.getLastModifiedTime(source).toMillis() || hash == checksum(source);
+            }
+        }
+
+        /** 源文本内容的 CRC32C 校验和（内存映射后分段计算） */
+        static long checksum(Path source) throws IOException {
+            CRC32C crc = new CRC32C();
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                for (long pos = 0, size = in.size(); pos < size; pos += MAP_SEGMENT) {
+                    crc.update(in.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_SEGMENT, size - pos)));
+                }
+            }
+            return crc.getValue();
+        }
+
+        private static ByteBuffer map(FileChannel in, long pos, long size) throws IOException {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, pos, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+
+        private static int[] readInts(FileChannel in, long pos, int count) throws IOException {
+            int[] values = new int[count];
+            for (int done = 0; done < count; ) {
+                int chunk = (int) Math.min(count - done, MAP_SEGMENT / Integer.BYTES);
+                map(in, pos + 4L * done, 4L * chunk).asIntBuffer().get(values, done, chunk);
+                done += chunk;
+            }
+            return values;
+        }
+
+        private static void writeInts(FileChannel out, ByteBuffer buf, IntBuffer values) throws IOException {
+            IntBuffer src = values.duplicate();
+            while (src.hasRemaining()) {
+                if (buf.remaining() < Integer.BYTES) {
+                    drain(out, buf);
+                }
+                int chunk = Math.min(src.remaining(), buf.remaining() / Integer.BYTES);
+                IntBuffer part = src.slice();
+                part.limit(chunk);
+                buf.asIntBuffer().put(part);
+                buf.position(buf.position() + chunk * Integer.BYTES);
+                src.position(src.position() + chunk);
+            }
+        }
+
+        /** 写出字节，超过缓冲区剩余空间的部分（包括比缓冲区还长的单词）分段写出 */
+        private static void writeBytes(FileChannel out, ByteBuffer buf, byte[] bytes) throws IOException {
+            for (int off = 0; off < bytes.length; ) {
+                if (!buf.hasRemaining()) {
+                    drain(out, buf);
+                }
+                int chunk = Math.min(bytes.length - off, buf.remaining());
+                buf.put(bytes, off, chunk);
+                off += chunk;
+            }
+        }
+
+        private static void drain(FileChannel out, ByteBuffer buf) throws IOException {
+            buf.flip();
+            writeFully(out, buf);
+            buf.clear();
+        }
+
+        private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+        }
+    }
+
+    /**
+     * 内部类 OffHeapStore，编译图的堆外存储：字典和CSR数组都放在直接缓冲区或内存映射的快照文件中，
+     * 查询经 CompiledGraph 的访问方法直接读取，Java 堆上只有十几个缓冲区对象，堆占用与图的规模无关，
+     * GC 也不需要扫描或复制这些数据
+     * - dictOffsets / wordBytes: 单词 i 的 ISO-8859-1 字节位于 wordBytes 的 [dictOffsets[i], dictOffsets[i+1])
+     * - outOffsets ... inWeights: 与 CompiledGraph 中同名数组的内容相同（小端序）
+     * - slots: 单词 -> 编号的开放寻址索引（存放编号+1，0 为空，直接缓冲区），
+     *   哈希值与 String.hashCode 一致，查找时直接与字节比较，不创建对象
+     * 每个数组是一个独立的缓冲区，单个数组不能超过 2GB（约 5 亿条边）
+     */
+    static final class OffHeapStore {
+        final int size;
+        final int edges;
+        final IntBuffer dictOffsets;
+        final ByteBuffer wordBytes;
+        final IntBuffer outOffsets;
+        final IntBuffer outTargets;
+        final IntBuffer outWeights;
+        final IntBuffer inOffsets;
+        final IntBuffer inSources;
+        final IntBuffer inWeights;
+        private final IntBuffer slots;
+        private final int mask;
+
+        /**
+         * @param csr 依次为 outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights
+         */
+        OffHeapStore(IntBuffer dictOffsets, ByteBuffer wordBytes, IntBuffer[] csr) {
+            this(dictOffsets, wordBytes, csr, buildIndex(dictOffsets.capacity() - 1, id -> {
+                int h = 0;
+                for (int k = dictOffsets.get(id), end = dictOffsets.get(id + 1); k < end; k++) {
+                    h = 31 * h + (wordBytes.get(k) & 0xff);
+                }
+                return h;
+            }));
+        }
+
+        /**
+         * @param slots 已建好的单词索引（如快照中保存的），长度为 indexCapacity(单词数)
+         */
+        OffHeapStore(IntBuffer dictOffsets, ByteBuffer wordBytes, IntBuffer[] csr, IntBuffer slots) {
+            this.size = dictOffsets.capacity() - 1;
+            this.edges = csr[1].capacity();
+            this.dictOffsets = dictOffsets;
+            this.wordBytes = wordBytes;
+            this.outOffsets = csr[0];
+            this.outTargets = csr[1];
+            this.outWeights = csr[2];
+            this.inOffsets = csr[3];
+            this.inSources = csr[4];
+            this.inWeights = csr[5];
+            this.slots = slots;
+            this.mask = slots.capacity() - 1;
+        }
+
+        /** size 个单词的索引表长度（2的幂，负载不超过一半） */
+        static int indexCapacity(int size) {
+            return Integer.highestOneBit(Math.max(2, size) * 2 - 1) * 2;
+        }
+
+        /**
+         * 建立单词索引
+         * @param hashOf 编号 -> 单词的 String.hashCode
+         */
+        static IntBuffer buildIndex(int size, IntUnaryOperator hashOf) {
+            int capacity = indexCapacity(size);
+            IntBuffer slots = allocateInts(capacity);
+            int mask = capacity - 1;
+            for (int id = 0; id < size; id++) {
+                int i = mix(hashOf.applyAsInt(id)) & mask;
+                while (slots.get(i) != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots.put(i, id + 1);
+            }
+            return slots;
+        }
+
+        /**
+         * 把堆上的编译图复制到直接缓冲区
+         */
+        static OffHeapStore copyOf(CompiledGraph graph) {
+            int n = graph.size();
+            IntBuffer dictOffsets = allocateInts(n + 1);
+            long blobBytes = 0;
+            for (int i = 0; i < n; i++) {
+                blobBytes += graph.word(i).length();
+                if (blobBytes > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("字典超过 2GB，无法放入一个缓冲区");
+                }
+                dictOffsets.put(i + 1, (int) blobBytes);
+            }
+            ByteBuffer wordBytes = ByteBuffer.allocateDirect((int) blobBytes);
+            for (int i = 0; i < n; i++) {
+                wordBytes.put(graph.word(i).getBytes(StandardCharsets.ISO_8859_1));
+            }
+            wordBytes.clear();
+            IntBuffer[] csr = graph.csr();
+            for (int i = 0; i < csr.length; i++) {
+                IntBuffer copy = allocateInts(csr[i].remaining());
+                copy.put(csr[i]);
+                csr[i] = copy.clear();
+            }
+            return new OffHeapStore(dictOffsets, wordBytes, csr);
+        }
+
+        /** 单词对应的编号，不存在时返回 -1 */
+        int id(String word) {
+            int len = word.length();
+            for (int i = mix(word.hashCode()) & mask; ; i = (i + 1) & mask) {
+                int slot = slots.get(i);
+                if (slot == 0) {
+                    return -1;
+                }
+                int start = dictOffsets.get(slot - 1);
+                if (dictOffsets.get(slot) - start == len && matches(word, start)) {
+                    return slot - 1;
+                }
+            }
+        }
+
+        /** 解码编号对应的单词 */
+        String word(int id) {
+            int start = dictOffsets.get(id);
+            byte[] bytes = new byte[dictOffsets.get(id + 1) - start];
+            wordBytes.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        private boolean matches(String word, int start) {
+            for (int k = 0; k < word.length(); k++) {
+                if (word.charAt(k) != (wordBytes.get(start + k) & 0xff)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** 有序区间 [from, to) 中是否包含 key */
+        static boolean contains(IntBuffer sorted, int from, int to, int key) {
+            int lo = from;
+            int hi = to - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int value = sorted.get(mid);
+                if (value < key) {
+                    lo = mid + 1;
+                } else if (value > key) {
+                    hi = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** 分配 count 个 int 的直接缓冲区（本机字节序，初始全为 0） */
+        static IntBuffer allocateInts(int count) {
+            return ByteBuffer.allocateDirect(Math.multiplyExact(count, Integer.BYTES)).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+
+        /** 分配 count 个 double 的直接缓冲区（本机字节序，初始全为 0） */
+        static DoubleBuffer allocateDoubles(int count) {
+            return ByteBuffer.allocateDirect(Math.multiplyExact(count, Double.BYTES)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    // ---------------------- 功能2：展示有向图 ----------------------
+
+    /**
+     * 打印有向图结构（邻接表形式）
+     */
+    public static void showDirectedGraph() {
+        CompiledGraph g = compiledGraph();
+        StringBuilder line = new StringBuilder();
+        for (int u = 0; u < g.size(); u++) {
+            if (g.outDegree(u) == 0) continue;
+            line.setLength(0);
+            line.append(g.word(u)).append(" -> ");
+            // 格式：目标节点(出现次数)
+            for (int i = g.outBegin(u); i < g.outEnd(u); i++) {
+                line.append(g.word(g.outTarget(i))).append('(').append(g.outWeight(i)).append(") ");
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * 内部类 GraphExporter，把图以 DOT / GraphML / 边列表格式流式写入 WritableByteChannel
+     * 输出经 64KB 缓冲区直接按字节写出（单词只含小写ASCII字母），不在内存中拼接整个文档。
+     * 可按最小边权、或按度数 / PageRank 取前 N 个节点过滤，使大图的输出仍可渲染。
+     * 实例只保存过滤设置，缓冲区和通道在每次导出时单独创建，因此可以并发导出
+     */
+    static final class GraphExporter {
+        enum Format { DOT, GRAPHML, EDGE_LIST }
+
+        enum Ranking { DEGREE, PAGERANK }
+
+        /** 只输出权重不小于该值的边 */
+        int minWeight = 1;
+        /** 大于0时只输出排名前 topN 的节点之间的边 */
+        int topN = 0;
+        /** topN 的排名依据 */
+        Ranking ranking = Ranking.DEGREE;
+
+        /**
+         * 文件名的扩展名（小写，不含点），没有扩展名时返回空串；目录名中的点不计
+         */
+        static String extensionOf(Path path) {
+            Path name = path.getFileName();
+            String lower = name == null ? "" : name.toString().toLowerCase();
+            int dot = lower.lastIndexOf('.');
+            return dot < 0 ? "" : lower.substring(dot + 1);
+        }
+
+        /**
+         * 按扩展名推断格式：.graphml 为 GraphML，.txt / .tsv / .edges 为边列表，其余为 DOT
+         */
+        static Format formatOf(Path path) {
+            switch (extensionOf(path)) {
+                case "graphml":
+                    return Format.GRAPHML;
+                case "txt":
+                case "tsv":
+                case "edges":
+                    return Format.EDGE_LIST;
+                default:
+                    return Format.DOT;
+            }
+        }
+
+        /**
+         * 导出到文件
+         */
+        void export(CompiledGraph graph, Format format, Path file) throws IOException {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                export(graph, format, out);
+            }
+        }
+
+        /**
+         * 导出到通道（不关闭通道）
+         */
+        void export(CompiledGraph graph, Format format, WritableByteChannel out) throws IOException {
+            boolean[] selected = selectNodes(graph);
+            Output output = new Output(out);
+            switch (format) {
+                case DOT:
+                    output.put("digraph G {\n");
+                    break;
+                case GRAPHML:
+                    output.put("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                            + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+                            + "  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"int\"/>\n"
+                            + "  <graph id=\"G\" edgedefault=\"directed\">\n");
+                    for (int v = 0; v < graph.size(); v++) {
+                        if (selected == null || selected[v]) {
+                            output.put("    <node id=\"").put(graph.word(v)).put("\"/>\n");
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            for (int u = 0; u < graph.size(); u++) {
+                if (selected != null && !selected[u]) {
+                    continue;
+                }
+                for (int i = graph.outBegin(u), end = graph.outEnd(u); i < end; i++) {
+                    int v = graph.outTarget(i);
+                    int weight = graph.outWeight(i);
+                    if (weight < minWeight || (selected != null && !selected[v])) {
+                        continue;
+                    }
+                    writeEdge(output, format, graph.word(u), graph.word(v), weight);
+                }
+            }
+            switch (format) {
+                case DOT:
+                    output.put("}");
+                    break;
+                case GRAPHML:
+                    output.put("  </graph>\n</graphml>\n");
+                    break;
+                default:
+                    break;
+            }
+            output.flush();
+        }
+
+        private static void writeEdge(Output output, Format format, String source, String target, int weight) throws IOException {
+            switch (format) {
+                case DOT:
+                    // 添加边及权重标签
+                    output.put("    \"").put(source).put("\" -> \"").put(target).put("\" [label=\"").put(weight).put("\"];\n");
+                    break;
+                case GRAPHML:
+                    output.put("    <edge source=\"").put(source).put("\" target=\"").put(target)
+                            .put("\"><data key=\"weight\">").put(weight).put("</data></edge>\n");
+                    break;
+                default:
+                    output.put(source).put(" ").put(target).put(" ").put(weight).put("\n");
+                    break;
+            }
+        }
+
+        /**
+         * 按 topN / ranking 选出要输出的节点，不过滤时返回 null
+         */
+        private boolean[] selectNodes(CompiledGraph graph) {
+            if (topN <= 0 || topN >= graph.size()) {
+                return null;
+            }
+            int[] top = ranking == Ranking.PAGERANK
+                    ? graph.pageRank().topK(topN)
+                    : PageRank.topK(IntStream.range(0, graph.size()), v -> graph.outDegree(v) + graph.inDegree(v), topN);
+            boolean[] selected = new boolean[graph.size()];
+            for (int v : top) {
+                selected[v] = true;
+            }
+            return selected;
+        }
+
+        /** 一次导出的输出状态：64KB 直接缓冲区和目标通道 */
+        private static final class Output {
+            private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            private final WritableByteChannel channel;
+
+            Output(WritableByteChannel channel) {
+                this.channel = channel;
+            }
+
+            Output put(String text) throws IOException {
+                for (int i = 0, n = text.length(); i < n; i++) {
+                    if (!buffer.hasRemaining()) {
+                        flush();
+                    }
+                    char c = text.charAt(i);
+                    buffer.put((byte) (c < 0x80 ? c : '?'));
+                }
+                return this;
+            }
+
+            Output put(int value) throws IOException {
+                return put(Integer.toString(value));
+            }
+
+            void flush() throws IOException {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+    }
+
+    /** 图片 / 导出文件的输出路径（命令行 --image=路径） */
+    static String imagePath = "graph.png";
+    /** 导出时使用的过滤设置（命令行 --export-min-weight=W、--export-top=N、--export-rank=degree|pagerank） */
+    static GraphExporter exporter = new GraphExporter();
+
+    /**
+     * 将有向图保存为图片文件（需系统安装Graphviz），输出路径为 imagePath
+     */
+    public static void showDirectedGraph1() throws IOException, InterruptedException {
+        showDirectedGraph1(imagePath);
+    }
+
+    /**
+     * 将有向图保存到 outputPath：扩展名为 .dot / .graphml / .txt 等导出格式时直接写文件；
+     * 其他扩展名（如 .png、.svg）视为图片格式，DOT 内容直接写入 Graphviz 的标准输入，不生成临时文件
+     * @param outputPath 输出路径（如 "graph.png"）
+     */
+    public static void showDirectedGraph1(String outputPath) throws IOException, InterruptedException {
+        CompiledGraph g = compiledGraph();
+        Path file = Paths.get(outputPath);
+        String extension = GraphExporter.extensionOf(file);
+        if (extension.isEmpty()) {
+            extension = "png";
+        }
+        if (extension.equals("dot") || extension.equals("gv") || GraphExporter.formatOf(file) != GraphExporter.Format.DOT) {
+            exporter.export(g, GraphExporter.formatOf(file), file);
+            System.out.println("Graph saved to: " + outputPath);
+            return;
+        }
+
+        // 调用系统命令生成图片，DOT 内容通过管道流式写入
+        ProcessBuilder processBuilder = new ProcessBuilder("dot", "-T" + extension, "-o", outputPath)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+        try (WritableByteChannel stdin = Channels.newChannel(process.getOutputStream())) {
+            exporter.export(g, GraphExporter.Format.DOT, stdin);
+        }
+        int exitCode = process.waitFor();
+
+        if (exitCode != 0) {
+            throw new IOException("Graphviz生成图片失败，请检查是否安装并配置PATH。");
+        }else{
+            System.out.println("Graph saved to: " + outputPath);
+        }
+    }
+
+    // ---------------------- 查询结果缓存 ----------------------
+
+    /**
+     * 内部类 ResultCache，有界的并发查询结果缓存（分段LRU）：
+     * - 新结果先进入试用区；在试用区中再次命中后晋升到保护区，保护区超出容量的最久未用项降回试用区，
+     *   淘汰只发生在试用区（试用区为空时才淘汰保护区），因此一次性的查询不会把热点结果挤出去
+     * - 容量按权重计算（字符串按长度），按键的哈希分成若干段，每段独立加锁
+     * - 键包含查询种类、规范化（小写）后的参数以及图的编译代号；出现更新的编译代号时整个缓存清空，
+     *   旧图上的查询直接计算、不再写入缓存
+     * 结果在锁外计算，并发的相同未命中可能各自计算一次
+     */
+    static final class ResultCache {
+        /** 默认容量（权重总和，约等于缓存的字符数） */
+        static final long DEFAULT_CAPACITY = 1L << 24;
+        private static final int SEGMENTS = 16;
+        /** 保护区占每段容量的比例 */
+        private static final double PROTECTED_RATIO = 0.8;
+
+        private final long capacity;
+        private final Segment[] segments = new Segment[SEGMENTS];
+        private final AtomicLong generation = new AtomicLong();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        ResultCache(long capacity) {
+            this.capacity = capacity;
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment(capacity / SEGMENTS);
+            }
+        }
+
+        /**
+         * 返回 graph 上种类为 kind、参数为 args 的查询结果，未缓存时调用 compute 计算并放入
+         * @param weigher 结果的权重（容量占用），为负数或超过单段容量的结果不缓存
+         */
+        <V> V get(CompiledGraph graph, String kind, List<?> args, ToIntFunction<V> weigher, Supplier<V> compute) {
+            if (capacity <= 0 || !sameGeneration(graph)) {
+                return compute.get();
+            }
+            List<Object> key = List.of(kind, graph.generation, args);
+            Segment segment = segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+            @SuppressWarnings("unchecked")
+            V hit = (V) segment.get(key);
+            if (hit != null) {
+                hits.increment();
+                return hit;
+            }
+            misses.increment();
+            V value = compute.get();
+            int weight = weigher.applyAsInt(value);
+            if (weight >= 0 && graph.generation == generation.get()) {
+                evictions.add(segment.put(key, value, weight));
+            }
+            return value;
+        }
+
+        /** 排名结果的权重：每项按16个字符计 */
+        static int weighRanking(List<?> ranking) {
+            return ranking.size() * 16;
+        }
+
+        /** 节点编号数组的权重：每个编号4字节，按2个字符计 */
+        static int weighIds(int[] ids) {
+            return ids.length * 2;
+        }
+
+        /** 最短路径树的权重：dist / prev 两个数组 */
+        static int weighTree(ShortestPathTree tree) {
+            return weighIds(tree.dist) + weighIds(tree.prev);
+        }
+
+        /** 清空缓存（计数器保留） */
+        void invalidate() {
+            for (Segment segment : segments) {
+                segment.clear();
+            }
+        }
+
+        long hits() {
+            return hits.sum();
+        }
+
+        long misses() {
+            return misses.sum();
+        }
+
+        long evictions() {
+            return evictions.sum();
+        }
+
+        /** 当前缓存的结果个数 */
+        int size() {
+            int size = 0;
+            for (Segment segment : segments) {
+                size += segment.size();
+            }
+            return size;
+        }
+
+        /** 当前缓存结果的权重总和 */
+        long weight() {
+            long weight = 0;
+            for (Segment segment : segments) {
+                weight += segment.weight();
+            }
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            long lookups = hits() + misses();
+            return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d entries=%d weight=%d/%d",
+                    hits(), misses(), lookups == 0 ? 0.0 : (double) hits() / lookups, evictions(), size(), weight(), capacity);
+        }
+
+        /**
+         * 遇到更新的编译代号时清空缓存；旧编译代号的查询不使用缓存
+         */
+        private boolean sameGeneration(CompiledGraph graph) {
+            long current = generation.get();
+            while (graph.generation > current) {
+                if (generation.compareAndSet(current, graph.generation)) {
+                    invalidate();
+                    return true;
+                }
+                current = generation.get();
+            }
+            return graph.generation == current;
+        }
+
+        private static final class Entry {
+            final Object value;
+            final int weight;
+
+            Entry(Object value, int weight) {
+                this.value = value;
+                this.weight = weight;
+            }
+        }
+
+        private static final class Segment {
+            private final long capacity;
+            private final long protectedCapacity;
+            private final LinkedHashMap<Object, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+            private final LinkedHashMap<Object, Entry> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+            private long probationWeight;
+            private long protectedWeight;
+
+            Segment(long capacity) {
+                this.capacity = capacity;
+                this.protectedCapacity = (long) (capacity * PROTECTED_RATIO);
+            }
+
+            synchronized Object get(Object key) {
+                Entry entry = protectedArea.get(key);
+                if (entry != null) {
+                    return entry.value;
+                }
+                entry = probation.remove(key);
+                if (entry == null) {
+                    return null;
+                }
+                // 第二次命中：晋升到保护区，保护区超出容量时把最久未用的项降回试用区
+                probationWeight -= entry.weight;
+                protectedArea.put(key, entry);
+                protectedWeight += entry.weight;
+                Iterator<Map.Entry<Object, Entry>> it = protectedArea.entrySet().iterator();
+                while (protectedWeight > protectedCapacity && it.hasNext()) {
+                    Map.Entry<Object, Entry> eldest = it.next();
+                    it.remove();
+                    protectedWeight -= eldest.getValue().weight;
+                    probation.put(eldest.getKey(), eldest.getValue());
+                    probationWeight += eldest.getValue().weight;
+                }
+                return entry.value;
+            }
+
+            /**
+             * 放入试用区并淘汰到不超过容量
+             * @return 淘汰的项数
+             */
+            synchronized int put(Object key, Object value, int weight) {
+                if (weight > capacity || protectedArea.containsKey(key)) {
+                    return 0;
+                }
+                Entry old = probation.put(key, new Entry(value, weight));
+                probationWeight += weight - (old == null ? 0 : old.weight);
+                int evicted = 0;
+                while (probationWeight + protectedWeight > capacity) {
+                    LinkedHashMap<Object, Entry> area = probation.isEmpty() ? protectedArea : probation;
+                    Iterator<Entry> it = area.values().iterator();
+                    Entry eldest = it.next();
+                    it.remove();
+                    if (area == probation) {
+                        probationWeight -= eldest.weight;
+                    } else {
+                        protectedWeight -= eldest.weight;
+                    }
+                    evicted++;
+                }
+                return evicted;
+            }
+
+            synchronized void clear() {
+                probation.clear();
+                protectedArea.clear();
+                probationWeight = 0;
+                protectedWeight = 0;
+            }
+
+            synchronized int size() {
+                return probation.size() + protectedArea.size();
+            }
+
+            synchronized long weight() {
+                return probationWeight + protectedWeight;
+            }
+        }
+    }
+
+    /**
+     * 最短路径、多跳桥接词、PageRank排名等查询共用的结果缓存，容量为0时不缓存；
+     * 单跳桥接词只由 BridgeIndex 缓存（生成新文本也使用它，追加文本后还能保留不受影响的项）
+     */
+    static ResultCache results = new ResultCache(ResultCache.DEFAULT_CAPACITY);
+
+    /** 多跳桥接词查询的结果条数、时间和路径数限制 */
+    static BridgeChains chains = new BridgeChains();
+
+    // ---------------------- 功能3：查询桥接词 ----------------------
+
+    /**
+     * 内部类 BridgeIndex，桥接词索引
+     * 桥接词 = word1 的出边目标 ∩ word2 的入边来源；两者在 CompiledGraph 中都是按编号升序的数组，
+     * 用归并（长度悬殊时改用二分查找）求交集。扫描代价较大的结果（高频词之间）放入按访问顺序淘汰的LRU缓存，
+     * 缓存总大小受 budget（桥接词编号个数）限制；代价小的查询直接计算，不占缓存
+     */
+    static final class BridgeIndex {
+        /** 默认缓存预算：最多保存的桥接词编号总数 */
+        static final int DEFAULT_BUDGET = 1 << 20;
+        /** 出度 + 入度不超过该值的查询直接计算 */
+        static final int CACHE_THRESHOLD = 64;
+        /** 每个缓存项的固定开销（折算为编号个数） */
+        private static final int ENTRY_OVERHEAD = 16;
+
+        private final CompiledGraph graph;
+        private final long budget;
+        private final LinkedHashMap<Long, int[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+        private long used;
+
+        BridgeIndex(CompiledGraph graph, long budget) {
+            this.graph = graph;
+            this.budget = budget;
+        }
+
+        /**
+         * 查询从 from 到 to 的桥接词编号（升序）；返回的数组可能被缓存共享，调用方不得修改
+         */
+        int[] bridges(int from, int to) {
+            if (graph.outDegree(from) + graph.inDegree(to) <= CACHE_THRESHOLD) {
+                return intersect(from, to);
+            }
+            long key = pairKey(from, to);
+            synchronized (this) {
+                int[] hit = cache.get(key);
+                if (hit != null) {
+                    return hit;
+                }
+            }
+            int[] result = intersect(from, to);
+            put(key, result);
+            return result;
+        }
+
+        /**
+         * 预先物化度数最高的 hubs 个节点两两之间的桥接词，直到填满缓存预算为止
+         */
+        void materializeHubs(int hubs) {
+            Integer[] order = new Integer[graph.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(
+                    graph.outDegree(b) + graph.inDegree(b), graph.outDegree(a) + graph.inDegree(a)));
+            int top = Math.min(hubs, order.length);
+            for (int i = 0; i < top; i++) {
+                for (int j = 0; j < top; j++) {
+                    int[] result = intersect(order[i], order[j]);
+                    if (!put(pairKey(order[i], order[j]), result)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 为追加文本后重新编译的图创建索引，保留不受新边影响的缓存项。
+         * 新边 u -> v 只会给 (u, *) 增加桥接词 v、给 (*, v) 增加桥接词 u；仅权重变化不影响桥接词
+         */
+        BridgeIndex carryOver(CompiledGraph graph, GraphDelta delta) {
+            Set<Integer> sources = new HashSet<>();
+            Set<Integer> targets = new HashSet<>();
+            delta.newEdges.forEach((source, nodes) -> {
+                sources.add(graph.id(source));
+                nodes.forEach(target -> targets.add(graph.id(target)));
+            });
+            BridgeIndex index = new BridgeIndex(graph, budget);
+            synchronized (this) {
+                cache.forEach((key, bridges) -> {
+                    if (!sources.contains((int) (key >>> 32)) && !targets.contains((int) (long) key)) {
+                        index.put(key, bridges);
+                    }
+                });
+            }
+            return index;
+        }
+
+        /** 当前缓存的结果个数 */
+        synchronized int cachedPairs() {
+            return cache.size();
+        }
+
+        /**
+         * 放入缓存并按LRU淘汰，单个结果超过预算时不缓存
+         * @return 是否在没有淘汰其他项的情况下放入
+         */
+        private synchronized boolean put(long key, int[] result) {
+            long cost = result.length + ENTRY_OVERHEAD;
+            if (cost > budget) {
+                return false;
+            }
+            int[] old = cache.put(key, result);
+            used += cost - (old == null ? 0 : old.length + ENTRY_OVERHEAD);
+            boolean evicted = false;
+            Iterator<int[]> it = cache.values().iterator();
+            while (used > budget && it.hasNext()) {
+                used -= it.next().length + ENTRY_OVERHEAD;
+                it.remove();
+                evicted = true;
+            }
+            return !evicted;
+        }
+
+        private static long pairKey(int from, int to) {
+            return ((long) from << 32) | (to & 0xffffffffL);
+        }
+
+        /**
+         * 有序数组求交集：from 的出边目标 与 to 的入边来源
+         */
+        private int[] intersect(int from, int to) {
+            int a = graph.outBegin(from);
+            int aEnd = graph.outEnd(from);
+            int b = graph.inBegin(to);
+            int bEnd = graph.inEnd(to);
+            int[] result = new int[Math.min(aEnd - a, bEnd - b)];
+            int n = 0;
+            if ((aEnd - a) * 16L < bEnd - b) {
+                // 出边远少于入边：对入边二分查找
+                for (; a < aEnd; a++) {
+                    if (graph.hasInSource(b, bEnd, graph.outTarget(a))) {
+                        result[n++] = graph.outTarget(a);
+                    }
+                }
+            } else if ((bEnd - b) * 16L < aEnd - a) {
+                for (; b < bEnd; b++) {
+                    if (graph.hasOutTarget(a, aEnd, graph.inSource(b))) {
+                        result[n++] = graph.inSource(b);
+                    }
+                }
+            } else {
+                while (a < aEnd && b < bEnd) {
+                    int x = graph.outTarget(a);
+                    int y = graph.inSource(b);
+                    if (x < y) {
+                        a++;
+                    } else if (x > y) {
+                        b++;
+                    } else {
+                        result[n++] = x;
+                        a++;
+                        b++;
+                    }
+                }
+            }
+            return n == result.length ? result : Arrays.copyOf(result, n);
+        }
+    }
+
+    /**
+     * 查找从word1到word2的桥接词（即满足 word1 -> bridge -> word2 的单词）
+     * @return 格式化结果字符串
+     */
+    public static String queryBridgeWords(String word1, String word2) {
+        return queryBridgeWords(compiledGraph(), word1, word2);
+    }
+
+    static String queryBridgeWords(CompiledGraph g, String word1, String word2) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        String from = word1.toLowerCase();
+        String to = word2.toLowerCase();
+        String result = bridgeWords(g, from, to); // 交集结果由桥接词索引缓存，格式化不再另外缓存
+        if (Metrics.ENABLED) {
+            Metrics.BRIDGE.recordSince(start);
+        }
+        return result;
+    }
+
+    private static String bridgeWords(CompiledGraph g, String word1, String word2) {
+        int from = g.id(word1);
+        int to = g.id(word2);
+
+        // 检查节点是否存在
+        if (from < 0 || to < 0) {
+            return "No " + word1 + " or " + word2 + " in the graph!";
+        }
+
+        // word1 的出边目标与 word2 的入边来源的交集即为桥接词（由桥接词索引给出）
+        List<String> bridgeList = new ArrayList<>();
+        for (int bridge : g.bridgeIndex().bridges(from, to)) {
+            bridgeList.add(g.word(bridge));
+        }
+        return formatBridges(word1, word2, bridgeList);
+    }
+
+    /**
+     * 桥接词查询结果的格式化
+     */
+    static String formatBridges(String word1, String word2, List<String> bridgeList) {
+        if (bridgeList.isEmpty()) {
+            return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
+        } else {
+            //StringBuilder result=new StringBuilder();
+            //StringBuilder result = new StringBuilder("The bridge words from " + word1 + " to " + word2 + " are: ");
+
+            StringBuilder result = new StringBuilder();
+            if (bridgeList.size() == 1) {
+                // 单桥接词：is + "word"
+                result.append("The bridge words from \"")
+                        .append(word1)
+                        .append("\" to \"")
+                        .append(word2)
+                        .append("\" is: \"")
+                        .append(bridgeList.get(0))
+                        .append("\".");
+            } else {
+                // 多桥接词：are + "word1", "word2", and "word3"
+                result.append("The bridge words from \"")
+                        .append(word1)
+                        .append("\" to \"")
+                        .append(word2)
+                        .append("\" are: ");
+                
+                for (int i = 0; i < bridgeList.size(); i++) {
+                    // 所有单词用引号包裹
+                    result.append("\"").append(bridgeList.get(i)).append("\"");
+                    
+                    // 处理逗号和and
+                    if (i == bridgeList.size() - 1) {
+                        result.append(".");  // 最后以句号结尾
+                    } else if (i == bridgeList.size() - 2) {
+                        result.append(", and ");  // 倒数第二个单词后加", and"
+                    } else {
+                        result.append(", ");  // 其他情况加逗号
+                    }
+                }
+            }
+            return result.toString();     
+        }
+    }
+
+    /**
+     * 内部类 BridgeChains，多跳桥接词：word1 -> b1 -> ... -> bj -> word2（1 <= j <= maxBridges）的全部简单路径
+     * （桥接词互不相同，也不等于 word1 / word2），按路径上边权之和从大到小排序。
+     * 长度为 L 的路径在第 L/2 步处分成两半，双向相遇搜索：
+     * - 从 word1 沿出边、从 word2 沿入边逐层扩展，位图 forward[d] / backward[d] 为恰好 d 步可达的节点
+     * - 中点集合 = forward[L/2] ∩ backward[L-L/2]，再由中点向两端逐层收缩，只留下位于某条半路径上的节点
+     * - 两侧只在收缩后的位图内枚举半路径，正向半路径按中点分组，反向半路径逐条与之拼接
+     * 高度数单词之间的路径数随长度指数增长：只保留权重最大的 limit 条（小顶堆）；超过时间上限或检查的路径数
+     * 超过 pathBudget 时提前停止，结果标记为不完整
+     */
+    static final class BridgeChains {
+        /** 桥接词个数的上限（路径最多 MAX_BRIDGES + 1 条边） */
+        static final int MAX_BRIDGES = 8;
+        static final int DEFAULT_MAX_BRIDGES = 3;
+        static final int DEFAULT_LIMIT = 20;
+        static final long DEFAULT_TIMEOUT_MILLIS = 250;
+        static final long DEFAULT_PATH_BUDGET = 1 << 22;
+        /** 每扫描这么多条边（或检查这么多条路径）读一次时钟 */
+        private static final int CLOCK_INTERVAL = 1024;
+        /** 堆顶为最差的链：权重小者更差，权重相同时编号序列大者更差 */
+        private static final Comparator<Chain> WORST_FIRST =
+                Comparator.<Chain>comparingLong(c -> c.weight).thenComparing((a, b) -> Arrays.compare(b.bridges, a.bridges));
+
+        /** 返回的链条数上限 */
+        int limit = DEFAULT_LIMIT;
+        /** 单次查询的时间上限（毫秒），不大于0时不限时 */
+        long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        /** 单次查询最多检查的路径数（半路径与拼接出的候选链合计） */
+        long pathBudget = DEFAULT_PATH_BUDGET;
+
+        /** 一条链：依次经过的桥接词编号和边权之和 */
+        static final class Chain {
+            final int[] bridges;
+            final long weight;
+
+            Chain(int[] bridges, long weight) {
+                this.bridges = bridges;
+                this.weight = weight;
+            }
+        }
+
+        /** 查询结果：按权重降序排列的链；complete 为 false 表示因时间或路径数限制提前停止 */
+        static final class Result {
+            final List<Chain> chains;
+            final boolean complete;
+
+            Result(List<Chain> chains, boolean complete) {
+                this.chains = chains;
+                this.complete = complete;
+            }
+        }
+
+        /**
+         * 查询从 from 到 to、最多经过 maxBridges 个桥接词的链
+         */
+        Result find(CompiledGraph g, int from, int to, int maxBridges) {
+            checkBridges(maxBridges);
+            return new Search(g, from, to).run(maxBridges + 1);
+        }
+
+        static void checkBridges(int maxBridges) {
+            if (maxBridges < 1 || maxBridges > MAX_BRIDGES) {
+                throw new IllegalArgumentException("bridge count must be between 1 and " + MAX_BRIDGES);
+            }
+        }
+
+        /** 单次查询的状态 */
+        private final class Search {
+            private final CompiledGraph g;
+            private final int from;
+            private final int to;
+            private final long deadline;
+            private final PriorityQueue<Chain> best = new PriorityQueue<>(WORST_FIRST);
+            private long examined;
+            private int steps;
+            private boolean stopped;
+
+            Search(CompiledGraph g, int from, int to) {
+                this.g = g;
+                this.from = from;
+                this.to = to;
+                this.deadline = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1_000_000 : Long.MAX_VALUE;
+            }
+
+            Result run(int maxLength) {
+                BitSet[] forward = layers(from, maxLength / 2, true);
+                BitSet[] backward = layers(to, maxLength - maxLength / 2, false);
+                for (int length = 2; length <= maxLength && !stopped; length++) {
+                    int half = length / 2;
+                    BitSet[] head = shrink(forward, half, backward[length - half], true);
+                    if (head == null) {
+                        continue;
+                    }
+                    BitSet[] tail = shrink(backward, length - half, head[half], false);
+                    join(head, tail);
+                }
+                List<Chain> chains = new ArrayList<>(best);
+                chains.sort(WORST_FIRST.reversed());
+                return new Result(chains, !stopped);
+            }
+
+            /**
+             * 从 start 沿出边（out 为 true）或入边扩展 depth 层，layers[d] 为恰好 d 步可达的节点；
+             * 两个端点不能作为桥接词，不进入 d >= 1 的层
+             */
+            private BitSet[] layers(int start, int depth, boolean out) {
+                BitSet[] layers = new BitSet[depth + 1];
+                layers[0] = new BitSet();
+                layers[0].set(start);
+                for (int d = 1; d <= depth; d++) {
+                    layers[d] = neighbors(layers[d - 1], out);
+                    layers[d].clear(from);
+                    layers[d].clear(to);
+                }
+                return layers;
+            }
+
+            /**
+             * 只保留能在剩余步数内走到中点集合的节点：kept[depth] = layers[depth] ∩ meet，
+             * kept[d] = layers[d] ∩ (kept[d+1] 的前驱)；反向层取后继。没有中点时返回 null
+             */
+            private BitSet[] shrink(BitSet[] layers, int depth, BitSet meet, boolean out) {
+                BitSet[] kept = new BitSet[depth + 1];
+                kept[depth] = (BitSet) layers[depth].clone();
+                kept[depth].and(meet);
+                if (kept[depth].isEmpty()) {
+                    return null;
+                }
+                for (int d = depth - 1; d >= 1; d--) {
+                    kept[d] = neighbors(kept[d + 1], !out);
+                    kept[d].and(layers[d]);
+                }
+                return kept;
+            }
+
+            /** 集合中全部节点的后继（out 为 true）或前驱 */
+            private BitSet neighbors(BitSet nodes, boolean out) {
+                BitSet next = new BitSet(g.size());
+                for (int u = nodes.nextSetBit(0); u >= 0 && !stopped; u = nodes.nextSetBit(u + 1)) {
+                    if (out) {
+                        for (int i = g.outBegin(u), end = g.outEnd(u); i < end; i++) {
+                            next.set(g.outTarget(i));
+                        }
+                        clock(1 + g.outDegree(u));
+                    } else {
+                        for (int i = g.inBegin(u), end = g.inEnd(u); i < end; i++) {
+                            next.set(g.inSource(i));
+                        }
+                        clock(1 + g.inDegree(u));
+                    }
+                }
+                return next;
+            }
+
+            /**
+             * 枚举 word1 一侧的半路径并按中点分组，再枚举 word2 一侧的半路径，与同一中点的每条正向半路径拼接
+             */
+            private void join(BitSet[] head, BitSet[] tail) {
+                Halves halves = new Halves(head.length - 1);
+                extend(from, 0, 0, head, true, new int[head.length - 1], halves::add);
+                int rest = tail.length - 1;
+                extend(to, 0, 0, tail, false, new int[rest], (path, weight) -> {
+                    for (int i = halves.first(path[rest - 1]); i >= 0; i = halves.next[i]) {
+                        if (!tick()) {
+                            return;
+                        }
+                        if (halves.disjoint(i, path, rest - 1)) {
+                            offer(halves, i, path, rest - 1, halves.weights[i] + weight);
+                        }
+                    }
+                });
+            }
+
+            /**
+             * 深度优先扩展半路径：path[d-1] 为第 d 步的节点，只走 kept[d] 中且不在当前路径上的节点
+             */
+            private void extend(int u, int depth, long weight, BitSet[] kept, boolean out, int[] path, HalfPath sink) {
+                if (depth == kept.length - 1) {
+                    if (tick()) {
+                        sink.accept(path, weight);
+                    }
+                    return;
+                }
+                BitSet next = kept[depth + 1];
+                int begin = out ? g.outBegin(u) : g.inBegin(u);
+                int end = out ? g.outEnd(u) : g.inEnd(u);
+                clock(1 + end - begin);
+                for (int i = begin; i < end && !stopped; i++) {
+                    int v = out ? g.outTarget(i) : g.inSource(i);
+                    if (next.get(v) && indexOf(path, depth, v) < 0) {
+                        path[depth] = v;
+                        extend(v, depth + 1, weight + (out ? g.outWeight(i) : g.inWeight(i)), kept, out, path, sink);
+                    }
+                }
+            }
+
+            /** 放入小顶堆；堆满时只构造可能胜过堆顶的链 */
+            private void offer(Halves first, int i, int[] second, int secondLength, long weight) {
+                if (limit <= 0 || best.size() == limit && weight < best.peek().weight) {
+                    return;
+                }
+                int[] bridges = Arrays.copyOfRange(first.nodes, i * first.length, (i + 1) * first.length + secondLength);
+                for (int j = 0; j < secondLength; j++) {
+                    bridges[first.length + j] = second[secondLength - 1 - j];
+                }
+                Chain chain = new Chain(bridges, weight);
+                if (best.size() < limit) {
+                    best.add(chain);
+                } else if (WORST_FIRST.compare(chain, best.peek()) > 0) {
+                    best.poll();
+                    best.add(chain);
+                }
+            }
+
+            /** 计入一条路径，超出路径数预算时停止 */
+            private boolean tick() {
+                if (++examined > pathBudget) {
+                    stopped = true;
+                }
+                clock(1);
+                return !stopped;
+            }
+
+            /** 记入 work 个单位的工作量，累计满 CLOCK_INTERVAL 时检查是否超时 */
+            private void clock(int work) {
+                steps += work;
+                if (steps >= CLOCK_INTERVAL) {
+                    steps = 0;
+                    if (System.nanoTime() > deadline) {
+                        stopped = true;
+                    }
+                }
+            }
+        }
+
+        /** 接收一条半路径（数组在回调后会被复用） */
+        private interface HalfPath {
+            void accept(int[] path, long weight);
+        }
+
+        /**
+         * 正向半路径表，按中点分组。半路径可能有数百万条，存放在原始类型数组中（第 i 条的节点为
+         * nodes[i*length .. (i+1)*length)），同一中点的半路径用 next 串成链表，不产生大量存活的小对象拖长GC停顿
+         */
+        private static final class Halves {
+            final int length;
+            int[] nodes;
+            long[] weights = new long[16];
+            int[] next = new int[16];
+            private final LongIntMap groups = new LongIntMap(); // 中点 -> 分组编号
+            private int[] heads = new int[16];
+            private int size;
+
+            Halves(int length) {
+                this.length = length;
+                this.nodes = new int[16 * length];
+            }
+
+            void add(int[] path, long weight) {
+                if (size == next.length) {
+                    nodes = Arrays.copyOf(nodes, 2 * size * length);
+                    weights = Arrays.copyOf(weights, 2 * size);
+                    next = Arrays.copyOf(next, 2 * size);
+                }
+                int groupCount = groups.size();
+                int group = groups.putIfAbsent(path[length - 1], groupCount);
+                if (group == groupCount) {
+                    if (group == heads.length) {
+                        heads = Arrays.copyOf(heads, 2 * group);
+                    }
+                    heads[group] = -1;
+                }
+                System.arraycopy(path, 0, nodes, size * length, length);
+                weights[size] = weight;
+                next[size] = heads[group];
+                heads[group] = size++;
+            }
+
+            /** 以 middle 为中点的第一条半路径，没有时返回 -1 */
+            int first(int middle) {
+                int group = groups.get(middle, -1);
+                return group < 0 ? -1 : heads[group];
+            }
+
+            /** 第 i 条半路径（中点除外）与 path 的前 pathLength 个节点没有重复 */
+            boolean disjoint(int i, int[] path, int pathLength) {
+                for (int j = i * length, end = j + length - 1; j < end; j++) {
+                    if (indexOf(path, pathLength, nodes[j]) >= 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        private static int indexOf(int[] path, int length, int v) {
+            for (int i = 0; i < length; i++) {
+                if (path[i] == v) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 查找从word1到word2、最多经过 maxBridges 个桥接词的链（如 word1 -> a -> b -> word2），按边权之和降序
+     * @return 格式化结果字符串，每行一条链
+     */
+    public static String queryBridgeChains(String word1, String word2, int maxBridges) {
+        return queryBridgeChains(compiledGraph(), word1, word2, maxBridges);
+    }
+
+    static String queryBridgeChains(CompiledGraph g, String word1, String word2, int maxBridges) {
+        BridgeChains.checkBridges(maxBridges);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        String from = word1.toLowerCase();
+        String to = word2.toLowerCase();
+        // 被时间或路径预算截断的结果与当时的负载有关，不缓存
+        String result = results.get(g, "chains", List.of(from, to, maxBridges, chains.limit, chains.timeoutMillis, chains.pathBudget),
+                r -> r.endsWith(CHAINS_INCOMPLETE) ? -1 : r.length(), () -> bridgeChains(g, from, to, maxBridges));
+        if (Metrics.ENABLED) {
+            Metrics.BRIDGE_CHAINS.recordSince(start);
+        }
+        return result;
+    }
+
+    /** 搜索未完成时附加在结果末尾的说明 */
+    private static final String CHAINS_INCOMPLETE = "\n(search stopped at the time or path limit; showing the best chains found so far)";
+
+    private static String bridgeChains(CompiledGraph g, String word1, String word2, int maxBridges) {
+        int from = g.id(word1);
+        int to = g.id(word2);
+        if (from < 0 || to < 0) {
+            return "No " + word1 + " or " + word2 + " in the graph!";
+        }
+        BridgeChains.Result found = chains.find(g, from, to, maxBridges);
+        StringBuilder result = new StringBuilder();
+        if (found.chains.isEmpty()) {
+            result.append("No bridge chains from \"").append(word1).append("\" to \"").append(word2)
+                    .append("\" with at most ").append(maxBridges).append(" bridge words!");
+        } else {
+            result.append("The bridge chains from \"").append(word1).append("\" to \"").append(word2)
+                    .append("\" with at most ").append(maxBridges).append(" bridge words are:");
+            for (BridgeChains.Chain chain : found.chains) {
+                result.append('\n').append(word1);
+                for (int bridge : chain.bridges) {
+                    result.append(" -> ").append(g.word(bridge));
+                }
+                result.append(" -> ").append(word2).append(" (weight ").append(chain.weight).append(')');
+            }
+        }
+        if (!found.complete) {
+            result.append(CHAINS_INCOMPLETE);
+        }
+        return result.toString();
+    }
+
+    // ---------------------- 功能4：生成新文本 ----------------------
+
+    /** 单次生成中本地缓存的单词对个数上限，超过后清空重来 */
+    static final int PAIR_CACHE_LIMIT = 4096;
+
+    /**
+     * 在输入文本的相邻单词间插入随机桥接词
+     * @return 生成的新文本
+     */
+    public static String generateNewText(String inputText) {
+        return generateNewText(compiledGraph(), inputText, ThreadLocalRandom.current());
+    }
+
+    static String generateNewText(CompiledGraph g, String inputText, RandomGenerator rand) {
+        StringWriter out = new StringWriter();
+        try {
+            generateNewText(g, new StringReader(inputText), out, rand);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringReader/StringWriter 不会抛出
+        }
+        return out.toString();
+    }
+
+    /**
+     * 流式生成新文本：从 in 逐块读取、分词，边读边把结果写入 out（不关闭 out）
+     * @param rand 随机数生成器，传入固定种子的生成器即可复现结果
+     */
+    public static void generateNewText(Reader in, Writer out, RandomGenerator rand) throws IOException {
+        generateNewText(compiledGraph(), in, out, rand);
+    }
+
+    /**
+     * 并行为多篇互相独立的文档生成新文本，所有文档共享同一个只读图；
+     * 第 i 篇文档使用由 (seed, i) 派生的随机数，结果与线程调度无关
+     */
+    public static List<String> generateNewTexts(List<String> documents, long seed) {
+        CompiledGraph g = compiledGraph();
+        return IntStream.range(0, documents.size()).parallel()
+                .mapToObj(i -> {
+                    StringWriter out = new StringWriter();
+                    try {
+                        generateNewText(g, new StringReader(documents.get(i)), out, new SplittableRandom(seed ^ (i * 0x9E3779B97F4A7C15L)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return out.toString();
+                })
+                .toList();
+    }
+
+    /**
+     * 生成新文本的核心逻辑：分词规则与构图一致（非字母为分隔符、转小写），
+     * 读缓冲区和单词缓冲区在整篇文本中复用，重复出现的单词对直接使用本地缓存的桥接词
+     */
+    static void generateNewText(CompiledGraph g, Reader in, Writer out, RandomGenerator rand) throws IOException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        BufferedWriter writer = new BufferedWriter(out);
+        BridgeIndex index = g.bridgeIndex();
+        Map<Long, int[]> pairCache = new HashMap<>();
+        char[] buf = new char[8192];
+        char[] word = new char[32];
+        int len = 0;
+        int previous = -1;      // 上一个单词的编号（不在图中时为 -1）
+        boolean started = false;
+
+        for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+            for (int i = 0; i < n; i++) {
+                char c = buf[i];
+                if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                    if (len == word.length) {
+                        word = Arrays.copyOf(word, len * 2);
+                    }
+                    word[len++] = Character.toLowerCase(c);
+                } else if (len > 0) {
+                    previous = emitWord(g, index, pairCache, writer, rand, word, len, previous, started);
+                    started = true;
+                    len = 0;
+                }
+            }
+        }
+        if (len > 0) {
+            emitWord(g, index, pairCache, writer, rand, word, len, previous, started);
+        }
+        writer.flush();
+        if (Metrics.ENABLED) {
+            Metrics.NEW_TEXT.recordSince(start);
+        }
+    }
+
+    /**
+     * 输出一个单词，若与上一个单词之间存在桥接词则先随机输出一个桥接词
+     * @return 当前单词的编号
+     */
+    private static int emitWord(CompiledGraph g, BridgeIndex index, Map<Long, int[]> pairCache, Writer writer,
+                                RandomGenerator rand, char[] word, int len, int previous, boolean started) throws IOException {
+        String current = new String(word, 0, len);
+        int id = g.id(current);
+        if (previous >= 0 && id >= 0) {
+            long key = ((long) previous << 32) | id;
+            int[] bridges = pairCache.get(key);
+            if (bridges == null) {
+                if (pairCache.size() >= PAIR_CACHE_LIMIT) {
+                    pairCache.clear();
+                }
+                bridges = index.bridges(previous, id);
+                pairCache.put(key, bridges);
+            }
+            if (bridges.length > 0) {
+                writer.write(' ');
+                writer.write(g.word(bridges[rand.nextInt(bridges.length)]));
+            }
+        }
+        if (started) {
+            writer.write(' ');
+        }
+        writer.write(current);
+        return id;
+    }
+
+    // ---------------------- 功能5：计算最短路径（Dijkstra算法） ----------------------
+
+    /**
+     * 内部类 IndexedHeap，按节点编号索引的二叉最小堆（键为外部 int 数组中的距离）
+     * pos[v] 记录节点 v 在堆中的位置（不在堆中为 -1），因此 contains / 降键都是 O(1) / O(log n)
+     */
+    static final class IndexedHeap {
+        private final int[] heap;
+        private final int[] pos;
+        private int[] keys;
+        private int size;
+
+        IndexedHeap(int capacity) {
+            heap = new int[capacity];
+            pos = new int[capacity];
+            Arrays.fill(pos, -1);
+        }
+
+        /** 使用 keys 作为排序键，并清空堆 */
+        void reset(int[] keys) {
+            for (int i = 0; i < size; i++) {
+                pos[heap[i]] = -1;
+            }
+            size = 0;
+            this.keys = keys;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /** 堆顶节点的键，堆为空时返回 Integer.MAX_VALUE */
+        int peekKey() {
+            return size == 0 ? Integer.MAX_VALUE : keys[heap[0]];
+        }
+
+        /** 插入节点，或在其键变小后调整位置 */
+        void upsert(int v) {
+            int i = pos[v];
+            if (i < 0) {
+                i = size++;
+                heap[i] = v;
+                pos[v] = i;
+            }
+            siftUp(i);
+        }
+
+        /** 弹出键最小的节点 */
+        int poll() {
+            int top = heap[0];
+            pos[top] = -1;
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                pos[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            int key = keys[v];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                int p = heap[parent];
+                if (keys[p] <= key) {
+                    break;
+                }
+                heap[i] = p;
+                pos[p] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            pos[v] = i;
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            int key = keys[v];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int c = heap[child];
+                int right = child + 1;
+                if (right < size && keys[heap[right]] < keys[c]) {
+                    child = right;
+                    c = heap[child];
+                }
+                if (key <= keys[c]) {
+                    break;
+                }
+                heap[i] = c;
+                pos[c] = i;
+                i = child;
+            }
+            heap[i] = v;
+            pos[v] = i;
+        }
+    }
+
+    /**
+     * 点对点最短路径的搜索方式
+     * - FULL: 完整运行单源Dijkstra后再取目标
+     * - EARLY_EXIT: 目标出堆（距离确定）后立即停止
+     * - BIDIRECTIONAL: 从源点沿出边、从目标沿入边同时搜索，两侧相遇且满足终止条件后停止
+     * - LANDMARKS: 使用预处理的地标距离做下界的A*搜索（ALT），图上没有地标时退化为 BIDIRECTIONAL
+     * 图上有地标时，除 FULL 外的各种方式都会先用地标下界判断不可达，直接返回
+     */
+    enum SearchMode { FULL, EARLY_EXIT, BIDIRECTIONAL, LANDMARKS }
+
+    /** calcShortestPath 在给定两个单词时使用的搜索方式 */
+    static SearchMode searchMode = SearchMode.BIDIRECTIONAL;
+
+    /**
+     * 内部类 ShortestPaths，基于编号的Dijkstra引擎（边权为出现次数）
+     * - dist[v]: 源点到 v 的最短距离，不可达为 INF
+     * - prev[v]: 最短路径上 v 的前驱，源点及不可达节点为 -1
+     * 实例可重复使用：每次搜索只重置上一次访问过的节点，因此点对点查询的开销与搜索范围成正比，而与图大小无关。
+     * 实例不是线程安全的，通过 CompiledGraph.borrowShortestPaths() 借出，用完后 release 归还
+     */
+    static final class ShortestPaths {
+        static final int INF = Integer.MAX_VALUE;
+        final CompiledGraph graph;
+        final int[] dist;
+        final int[] prev;
+        private final IndexedHeap heap;
+        // 反向搜索（双向模式）：distBack[v] 为 v 到目标的距离，next[v] 为 v 在最短路径上的后继
+        private int[] distBack;
+        private int[] next;
+        private IndexedHeap heapBack;
+        // A*搜索：堆优先级（距离 + 下界）、各节点已计算的下界、本次查询的活跃地标及挑选时的排序空间
+        private static final int ACTIVE_LANDMARKS = 4;
+        private int[] priority;
+        private int[] potential;
+        private int[] active;
+        private long[] landmarkScores = new long[0];
+        // 上次搜索访问过的节点，用于下次搜索前局部重置
+        private int[] touched;
+        private int touchedCount;
+        // 双向搜索的相遇点，单向搜索时为 -1
+        private int meet = -1;
+        // 上次搜索出堆（确定距离）的节点数
+        int settled;
+
+        ShortestPaths(CompiledGraph graph) {
+            this.graph = graph;
+            this.dist = new int[graph.size()];
+            this.prev = new int[graph.size()];
+            this.heap = new IndexedHeap(graph.size());
+            this.touched = new int[Math.min(graph.size(), 1024)];
+            Arrays.fill(dist, INF);
+            Arrays.fill(prev, -1);
+        }
+
+        /**
+         * 计算从 source 到所有节点的最短路径
+         */
+        void run(int source) {
+            search(source, -1);
+        }
+
+        /**
+         * 按 mode 计算从 source 到 target 的最短距离，不可达时返回 INF；之后可用 path(target) 取路径
+         */
+        int distance(int source, int target, SearchMode mode) {
+            Landmarks landmarks = graph.landmarks();
+            if (mode == SearchMode.FULL) {
+                search(source, -1);
+                return dist[target];
+            }
+            if (landmarks != null && landmarks.lowerBound(source, target) == INF) {
+                reset();  // 地标已证明不可达，无需搜索
+                return INF;
+            }
+            switch (mode) {
+                case EARLY_EXIT:
+                    search(source, target);
+                    return dist[target];
+                case LANDMARKS:
+                    return landmarks != null ? alt(source, target, landmarks) : bidirectional(source, target);
+                default:
+                    return bidirectional(source, target);
+            }
+        }
+
+        /**
+         * 计算 root 到所有节点（reverse 为 true 时为所有节点到 root）的最短距离，返回新数组
+         */
+        static int[] allDistances(CompiledGraph graph, int root, boolean reverse) {
+            int[] dist = new int[graph.size()];
+            Arrays.fill(dist, INF);
+            IndexedHeap heap = new IndexedHeap(graph.size());
+            heap.reset(dist);
+            dist[root] = 0;
+            heap.upsert(root);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                int begin = reverse ? graph.inBegin(u) : graph.outBegin(u);
+                int end = reverse ? graph.inEnd(u) : graph.outEnd(u);
+                for (int i = begin; i < end; i++) {
+                    int v = reverse ? graph.inSource(i) : graph.outTarget(i);
+                    int nd = dist[u] + (reverse ? graph.inWeight(i) : graph.outWeight(i));
+                    if (nd >= 0 && nd < dist[v]) {
+                        dist[v] = nd;
+                        heap.upsert(v);
+                    }
+                }
+            }
+            return dist;
+        }
+
+        /**
+         * A*搜索：优先级 = 已知距离 + 地标下界；下界满足三角不等式（一致），目标出堆即为最短距离
+         */
+        private int alt(int source, int target, Landmarks landmarks) {
+            if (priority == null) {
+                priority = new int[graph.size()];
+                potential = new int[graph.size()];
+                active = new int[ACTIVE_LANDMARKS];
+            }
+            reset();
+            heap.reset(priority);
+            int h = landmarks.lowerBound(source, target);
+            if (h == INF) {
+                return INF;
+            }
+            if (landmarkScores.length < landmarks.nodes.length) {
+                landmarkScores = new long[landmarks.nodes.length];
+            }
+            int count = landmarks.selectActive(source, target, active, ACTIVE_LANDMARKS, landmarkScores);
+            visit(source, 0, -1);
+            potential[source] = h;
+            priority[source] = h;
+            heap.upsert(source);
+
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                settled++;
+                if (u == target) {
+                    return dist[u];
+                }
+                int du = dist[u];
+                for (int i = graph.outBegin(u), end = graph.outEnd(u); i < end; i++) {
+                    int v = graph.outTarget(i);
+                    int nd = du + graph.outWeight(i);
+                    if (nd >= 0 && nd < dist[v]) {
+                        // 每个节点的下界只在首次访问时计算一次
+                        int hv = dist[v] == INF ? landmarks.lowerBound(v, target, active, count) : potential[v];
+                        if (hv == INF) {
+                            continue;  // v 不可能到达目标
+                        }
+                        visit(v, nd, u);
+                        potential[v] = hv;
+                        priority[v] = (int) Math.min((long) nd + hv, INF - 1);
+                        heap.upsert(v);
+                    }
+                }
+            }
+            return INF;
+        }
+
+        /**
+         * 单向Dijkstra；target >= 0 时在 target 出堆后停止
+         */
+        private void search(int source, int target) {
+            reset();
+            heap.reset(dist);
+            visit(source, 0, -1);
+            heap.upsert(source);
+
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                settled++;
+                if (u == target) {
+                    break;
+                }
+                int du = dist[u];
+                for (int i = graph.outBegin(u), end = graph.outEnd(u); i < end; i++) {
+                    int v = graph.outTarget(i);
+                    int nd = du + graph.outWeight(i);
+                    if (nd >= 0 && nd < dist[v]) {  // nd < 0 表示溢出
+                        visit(v, nd, u);
+                        heap.upsert(v);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 双向Dijkstra：每次扩展堆顶较小的一侧，记录经过相遇点的最短距离 mu，
+         * 当两侧堆顶之和不小于 mu 时 mu 即为最短距离
+         */
+        private int bidirectional(int source, int target) {
+            if (distBack == null) {
+                distBack = new int[graph.size()];
+                next = new int[graph.size()];
+                heapBack = new IndexedHeap(graph.size());
+                Arrays.fill(distBack, INF);
+                Arrays.fill(next, -1);
+            }
+            reset();
+            heap.reset(dist);
+            heapBack.reset(distBack);
+            visit(source, 0, -1);
+            heap.upsert(source);
+            visitBack(target, 0, -1);
+            heapBack.upsert(target);
+
+            int mu = source == target ? 0 : INF;
+            meet = source == target ? source : -1;
+            while (!heap.isEmpty() && !heapBack.isEmpty()
+                    && (long) heap.peekKey() + heapBack.peekKey() < mu) {
+                if (heap.peekKey() <= heapBack.peekKey()) {
+                    int u = heap.poll();
+                    settled++;
+                    int du = dist[u];
+                    for (int i = graph.outBegin(u), end = graph.outEnd(u); i < end; i++) {
+                        int v = graph.outTarget(i);
+                        int nd = du + graph.outWeight(i);
+                        if (nd >= 0 && nd < dist[v]) {
+                            visit(v, nd, u);
+                            heap.upsert(v);
+                        }
+                        if (distBack[v] != INF && (long) dist[v] + distBack[v] < mu) {
+                            mu = dist[v] + distBack[v];
+                            meet = v;
+                        }
+                    }
+                } else {
+                    int u = heapBack.poll();
+                    settled++;
+                    int du = distBack[u];
+                    for (int i = graph.inBegin(u), end = graph.inEnd(u); i < end; i++) {
+                        int v = graph.inSource(i);
+                        int nd = du + graph.inWeight(i);
+                        if (nd >= 0 && nd < distBack[v]) {
+                            visitBack(v, nd, u);
+                            heapBack.upsert(v);
+                        }
+                        if (dist[v] != INF && (long) dist[v] + distBack[v] < mu) {
+                            mu = dist[v] + distBack[v];
+                            meet = v;
+                        }
+                    }
+                }
+            }
+            if (mu == INF) {
+                meet = -1;
+            }
+            return mu;
+        }
+
+        private void visit(int v, int d, int from) {
+            if (dist[v] == INF && (distBack == null || distBack[v] == INF)) {
+                touch(v);
+            }
+            dist[v] = d;
+            prev[v] = from;
+        }
+
+        private void visitBack(int v, int d, int to) {
+            if (distBack[v] == INF && dist[v] == INF) {
+                touch(v);
+            }
+            distBack[v] = d;
+            next[v] = to;
+        }
+
+        private void touch(int v) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, Math.min(graph.size(), touchedCount * 2));
+            }
+            touched[touchedCount++] = v;
+        }
+
+        /** 只把上次搜索访问过的节点恢复为初始状态 */
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                dist[v] = INF;
+                prev[v] = -1;
+                if (distBack != null) {
+                    distBack[v] = INF;
+                    next[v] = -1;
+                }
+            }
+            touchedCount = 0;
+            settled = 0;
+            meet = -1;
+        }
+
+        /**
+         * 还原到 target 的路径（需 target 可达）；双向搜索后由前驱链和后继链在相遇点拼接
+         */
+        List<String> path(int target) {
+            List<String> path = new ArrayList<>();
+            int last = meet >= 0 ? meet : target;
+            for (int v = last; v >= 0; v = prev[v]) {
+                path.add(graph.word(v));
+            }
+            Collections.reverse(path);
+            if (meet >= 0) {
+                for (int v = next[meet]; v >= 0; v = next[v]) {
+                    path.add(graph.word(v));
+                }
+            }
+            return path;
+        }
+    }
+
+    /**
+     * 内部类 Landmarks，ALT（A* + Landmarks + Triangle inequality）预处理结果
+     * - nodes: 选出的 K 个地标
+     * - from[k][v]: 地标 k 到 v 的最短距离；to[k][v]: v 到地标 k 的最短距离（不可达为 INF）
+     * 由三角不等式，d(v,t) >= d(L,t) - d(L,v) 且 d(v,t) >= d(v,L) - d(t,L)，取所有地标中的最大值作为下界
+     */
+    static final class Landmarks {
+        private static final int MAGIC = 0x4C4D4B31; // "LMK1"
+        private static final int INF = ShortestPaths.INF;
+
+        final int[] nodes;
+        final int[][] from;
+        final int[][] to;
+        private final long fingerprint;
+
+        private Landmarks(int[] nodes, int[][] from, int[][] to, long fingerprint) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * 地标选择策略
+         * - DEGREE: 取出度 + 入度最高的 K 个节点，K 次正反向Dijkstra全部并行
+         * - FARTHEST: 从度最高的节点出发，贪心地选与已有地标（正反向距离之和）最远的节点；
+         *   每轮按当前距离一次选出与并行度相同个数的地标，这一批的正反向Dijkstra并行计算
+         *   （与逐个选择相比，44k 节点的语料上 A* 出堆节点数约多 1%）
+         */
+        enum Strategy { DEGREE, FARTHEST }
+
+        /**
+         * 选出 k 个地标并计算正反向距离数组
+         */
+        static Landmarks compute(CompiledGraph graph, int k, Strategy strategy) {
+            k = Math.min(k, graph.size());
+            int[] nodes = new int[k];
+            int[][] from = new int[k][];
+            int[][] to = new int[k][];
+            if (k == 0) {
+                return new Landmarks(nodes, from, to, graph.fingerprint());
+            }
+
+            Integer[] byDegree = new Integer[graph.size()];
+            for (int i = 0; i < byDegree.length; i++) {
+                byDegree[i] = i;
+            }
+            Arrays.sort(byDegree, (a, b) -> Integer.compare(
+                    graph.outDegree(b) + graph.inDegree(b), graph.outDegree(a) + graph.inDegree(a)));
+
+            if (strategy == Strategy.DEGREE) {
+                for (int i = 0; i < k; i++) {
+                    nodes[i] = byDegree[i];
+                }
+                IntStream.range(0, 2 * k).parallel().forEach(j -> {
+                    int i = j >> 1;
+                    if ((j & 1) == 0) {
+                        from[i] = ShortestPaths.allDistances(graph, nodes[i], false);
+                    } else {
+                        to[i] = ShortestPaths.allDistances(graph, nodes[i], true);
+                    }
+                });
+            } else {
+                // 到已选地标的最小“距离”（正向 + 反向，不可达的一侧按0计），已选为地标的节点记为 -1，不会再被选中
+                long[] nearest = new long[graph.size()];
+                Arrays.fill(nearest, Long.MAX_VALUE);
+                int batch = ForkJoinPool.getCommonPoolParallelism();
+                nodes[0] = byDegree[0];
+                nearest[nodes[0]] = -1;
+                int chosen = 1;
+                for (int done = 0; done < k; ) {
+                    int lo = done;
+                    IntStream.range(2 * lo, 2 * chosen).parallel().forEach(j -> {
+                        int i = j >> 1;
+                        if ((j & 1) == 0) {
+                            from[i] = ShortestPaths.allDistances(graph, nodes[i], false);
+                        } else {
+                            to[i] = ShortestPaths.allDistances(graph, nodes[i], true);
+                        }
+                    });
+                    for (int i = lo; i < chosen; i++) {
+                        for (int v = 0; v < graph.size(); v++) {
+                            long f = from[i][v] == INF ? 0 : from[i][v];
+                            long b = to[i][v] == INF ? 0 : to[i][v];
+                            nearest[v] = Math.min(nearest[v], f + b);
+                        }
+                    }
+                    done = chosen;
+                    int want = Math.min(k, chosen + batch);
+                    for (; chosen < want; chosen++) {
+                        int next = -1;
+                        long best = -1;
+                        for (int v = 0; v < graph.size(); v++) {
+                            if (nearest[v] > best) {
+                                best = nearest[v];
+                                next = v;
+                            }
+                        }
+                        nodes[chosen] = next;
+                        nearest[next] = -1;
+                    }
+                }
+            }
+            return new Landmarks(nodes, from, to, graph.fingerprint());
+        }
+
+        /**
+         * v 到 t 最短距离的下界；能确定 v 无法到达 t 时返回 INF
+         */
+        int lowerBound(int v, int t) {
+            return lowerBound(v, t, null, nodes.length);
+        }
+
+        /**
+         * 只使用 active 中前 count 个地标计算下界（active 为 null 时使用前 count 个地标）
+         */
+        int lowerBound(int v, int t, int[] active, int count) {
+            int best = 0;
+            for (int j = 0; j < count; j++) {
+                int bound = lowerBound(v, t, active == null ? j : active[j]);
+                if (bound == INF) {
+                    return INF;
+                }
+                best = Math.max(best, bound);
+            }
+            return best;
+        }
+
+        /**
+         * 为一次 s -> t 查询挑选下界最紧的 count 个地标（活跃地标），写入 active 并返回实际个数；
+         * 同一节点只选一次。scores 为调用方复用的临时数组，长度不小于地标个数
+         */
+        int selectActive(int s, int t, int[] active, int count, long[] scores) {
+            for (int k = 0; k < nodes.length; k++) {
+                int bound = lowerBound(s, t, k);
+                scores[k] = ((long) bound << 32) | k;
+            }
+            Arrays.sort(scores, 0, nodes.length);
+            int selected = 0;
+            for (int j = nodes.length - 1; j >= 0 && selected < count; j--) {
+                int k = (int) scores[j];
+                if (!isActive(k, active, selected)) {
+                    active[selected++] = k;
+                }
+            }
+            return selected;
+        }
+
+        private boolean isActive(int k, int[] active, int selected) {
+            for (int j = 0; j < selected; j++) {
+                if (nodes[active[j]] == nodes[k]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** 只用第 k 个地标计算 v 到 t 的下界 */
+        private int lowerBound(int v, int t, int k) {
+            int best = 0;
+            int[] f = from[k];
+            if (f[v] != INF) {
+                if (f[t] == INF) {
+                    return INF;  // 地标能到 v 却到不了 t，则 v 也到不了 t
+                }
+                best = f[t] - f[v];
+            }
+            int[] b = to[k];
+            if (b[t] != INF) {
+                if (b[v] == INF) {
+                    return INF;  // t 能到地标而 v 不能，则 v 到不了 t
+                }
+                best = Math.max(best, b[v] - b[t]);
+            }
+            return best;
+        }
+
+        /**
+         * 保存到文件（附带图的指纹，加载时校验）
+         */
+        void save(Path file) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeLong(fingerprint);
+                out.writeInt(nodes.length);
+                out.writeInt(nodes.length == 0 ? 0 : from[0].length);
+                for (int k = 0; k < nodes.length; k++) {
+                    out.writeInt(nodes[k]);
+                    for (int d : from[k]) {
+                        out.writeInt(d);
+                    }
+                    for (int d : to[k]) {
+                        out.writeInt(d);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 从文件加载，文件不是由 graph 生成时抛出 IOException
+         */
+        static Landmarks load(Path file, CompiledGraph graph) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("不是地标文件: " + file);
+                }
+                long fingerprint = in.readLong();
+                if (fingerprint != graph.fingerprint()) {
+                    throw new IOException("地标文件与当前图不匹配: " + file);
+                }
+                int k = in.readInt();
+                int n = in.readInt();
+                int[] nodes = new int[k];
+                int[][] from = new int[k][n];
+                int[][] to = new int[k][n];
+                for (int i = 0; i < k; i++) {
+                    nodes[i] = in.readInt();
+                    for (int v = 0; v < n; v++) {
+                        from[i][v] = in.readInt();
+                    }
+                    for (int v = 0; v < n; v++) {
+                        to[i][v] = in.readInt();
+                    }
+                }
+                return new Landmarks(nodes, from, to, fingerprint);
+            }
+        }
+
+        /**
+         * 加载地标文件；文件不存在或与图不匹配时重新计算并保存
+         */
+        static Landmarks loadOrCompute(Path file, CompiledGraph graph, int k) throws IOException {
+            if (Files.exists(file)) {
+                try {
+                    Landmarks landmarks = load(file, graph);
+                    if (landmarks.nodes.length == Math.min(k, graph.size())) {
+                        return landmarks;
+                    }
+                } catch (IOException e) {
+                    System.err.println("重新计算地标: " + e.getMessage());
+                }
+            }
+            Landmarks landmarks = compute(graph, k, Strategy.FARTHEST);
+            landmarks.save(file);
+            return landmarks;
+        }
+    }
+
+    /**
+     * 内部类 ShortestPathTree，单源最短路径树的紧凑表示（dist / prev 两个数组），
+     * 路径在写出时才从 prev 还原，不为每个目标单独保存路径
+     */
+    static final class ShortestPathTree {
+        final CompiledGraph graph;
+        final int source;
+        final int[] dist;
+        final int[] prev;
+
+        private ShortestPathTree(CompiledGraph graph, int source, int[] dist, int[] prev) {
+            this.graph = graph;
+            this.source = source;
+            this.dist = dist;
+            this.prev = prev;
+        }
+
+        /**
+         * 借用图的最短路径引擎计算以 source 为根的最短路径树
+         */
+        static ShortestPathTree of(CompiledGraph graph, int source) {
+            ShortestPaths sp = graph.borrowShortestPaths();
+            try {
+                sp.run(source);
+                return new ShortestPathTree(graph, source, sp.dist.clone(), sp.prev.clone());
+            } finally {
+                graph.release(sp);
+            }
+        }
+
+        /**
+         * 多源批量：在 parallelism 个线程的 ForkJoinPool 上并发计算每个源点到所有节点的距离，
+         * 结果第 i 行对应 sources[i]（不可达为 ShortestPaths.INF），可用于构建全点对距离表
+         */
+        static int[][] distanceTable(CompiledGraph graph, int[] sources, int parallelism) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                return pool.submit(() -> IntStream.range(0, sources.length).parallel()
+                        .mapToObj(i -> {
+                            ShortestPaths sp = graph.borrowShortestPaths();
+                            try {
+                                sp.run(sources[i]);
+                                return sp.dist.clone();
+                            } finally {
+                                graph.release(sp);
+                            }
+                        })
+                        .toArray(int[][]::new)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("批量最短路径计算被中断", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("批量最短路径计算失败", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * 按 calcShortestPath 单词模式的格式写出到所有有出边节点（源点除外）的路径
+         * @param name 输出中使用的源单词
+         */
+        void writeTo(String name, Writer out) throws IOException {
+            Writer writer = new BufferedWriter(out);
+            int[] stack = new int[16];
+            writer.write("Shortest paths from '" + name + "':\n");
+            for (int v = 0; v < graph.size(); v++) {
+                if (v == source || graph.outDegree(v) == 0) continue;  // 跳过自身和没有出边的节点
+
+                writer.write("  To '");
+                writer.write(graph.word(v));
+                if (dist[v] == ShortestPaths.INF) {
+                    writer.write("': No path!\n");
+                    continue;
+                }
+                writer.write("': ");
+                stack = writePath(v, writer, stack);
+                writer.write(" (Length: " + dist[v] + ")\n");
+            }
+            writer.flush();
+        }
+
+        /**
+         * 写出从源点到 target 的路径（单词以 " → " 连接），stack 为可复用的临时数组，返回可能扩容后的数组
+         */
+        int[] writePath(int target, Writer out, int[] stack) throws IOException {
+            int depth = 0;
+            for (int v = target; v >= 0; v = prev[v]) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = v;
+            }
+            for (int i = depth - 1; i >= 0; i--) {
+                out.write(graph.word(stack[i]));
+                if (i > 0) {
+                    out.write(" → ");
+                }
+            }
+            return stack;
+        }
+    }
+
+    /**
+     * 使用Dijkstra算法计算两节点间最短路径（权重为出现次数，越小优先级越高）
+     * @return 路径描述字符串或错误信息
+     */
+    public static String calcShortestPath(String word1, String word2) {
+        return calcShortestPath(compiledGraph(), word1, word2);
+    }
+
+    static String calcShortestPath(CompiledGraph g, String word1, String word2) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        String result = shortestPath(g, word1, word2, searchMode);
+        if (Metrics.ENABLED) {
+            Metrics.SHORTEST_PATH.recordSince(start);
+        }
+        return result;
+    }
+
+    /**
+     * 缓存中只保存与大小写无关的结果（按小写单词作键），输出时再套用调用方输入的大小写：
+     * - 两个单词：路径长度及路径上的节点编号（不可达为空数组）；相同长度的路径可能随搜索方式不同，键中包含搜索方式
+     * - 单个单词：最短路径树，权重按 dist / prev 两个数组的大小计算，文本在每次查询时重新写出
+     */
+    private static String shortestPath(CompiledGraph g, String word1, String word2, SearchMode mode) {
+        String sourceWord = word1.toLowerCase();
+        int source = g.id(sourceWord);
+        String target = (word2 == null || word2.isEmpty()) ? null : word2.toLowerCase();
+
+        // 检查源节点是否存在
+        if (source < 0) {
+            return "Error: Source word '" + word1 + "' not found!";
+        }
+
+        // ---------------------- 结果生成逻辑 ----------------------
+        if (target != null) {  // 处理两个单词的路径查询
+            int t = g.id(target);
+            if (t < 0) {
+                return "Error: Target word '" + word2 + "' not found!";
+            }
+            int[] path = results.get(g, "path", List.of(sourceWord, target, mode), ResultCache::weighIds,
+                    () -> pathIds(g, source, t, mode));
+            if (path.length == 0) {
+                return "No path from '" + word1 + "' to '" + word2 + "'!";
+            }
+            List<String> words = new ArrayList<>(path.length - 1);
+            for (int i = 1; i < path.length; i++) {
+                words.add(g.word(path[i]));
+            }
+            return formatSinglePath(word1, word2, words, path[0]);
+        }
+
+        // 处理单个单词的全图路径查询（按编号顺序列出所有有出边的节点）
+        ShortestPathTree tree = results.get(g, "tree", List.of(sourceWord), ResultCache::weighTree,
+                () -> ShortestPathTree.of(g, source));
+        StringWriter out = new StringWriter();
+        try {
+            tree.writeTo(word1, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter 不会抛出
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * 点对点最短路径：下标0为路径长度，其后依次为从 source 到 t 的节点编号；不可达时返回空数组
+     */
+    private static int[] pathIds(CompiledGraph g, int source, int t, SearchMode mode) {
+        ShortestPaths sp = g.borrowShortestPaths();
+        try {
+            int length = sp.distance(source, t, mode);
+            if (Metrics.ENABLED) {
+                Metrics.DIJKSTRA_SETTLED.record(sp.settled);
+            }
+            if (length == ShortestPaths.INF) {
+                return new int[0];
+            }
+            List<String> path = sp.path(t);
+            int[] ids = new int[path.size() + 1];
+            ids[0] = length;
+            for (int i = 0; i < path.size(); i++) {
+                ids[i + 1] = g.id(path.get(i));
+            }
+            return ids;
+        } finally {
+            g.release(sp);
+        }
+    }
+
+    /**
+     * 单源全目标最短路径：把从 word 出发到所有有出边节点的路径逐行写入 out，不在内存中拼接整个结果
+     * @return 源单词不存在时返回 false
+     */
+    public static boolean calcShortestPaths(String word, Writer out) throws IOException {
+        CompiledGraph g = compiledGraph();
+        int source = g.id(word.toLowerCase());
+        if (source < 0) {
+            return false;
+        }
+        ShortestPathTree.of(g, source).writeTo(word, out);
+        return true;
+    }
+
+    /**
+     * 格式化单个路径输出
+     */
+    private static String formatSinglePath(String source, String target, List<String> path, int length) {
+        return String.format("Shortest path from '%s' to '%s': %s (Length: %d)",
+                source, target, String.join(" → ", path), length);
+    }
+
+    // ---------------------- 功能6：计算PageRank ----------------------
+
+    /**
+     * 内部类 PageRank，基于 double[] 与入边CSR的PageRank引擎
+     * - 每个节点把 PR 值平均分给它的不同出边目标（与原实现相同，不考虑边权），重复出现的边只计一次
+     * - 悬挂节点（没有出边，如文本最后一个词）的 PR 值按跳转分布重新分配，保证总和为1
+     * - 迭代直到相邻两轮的L1距离小于 TOLERANCE 或达到 MAX_ITERATIONS；节点数较多时各轮在多核上并行
+     */
+    static final class PageRank {
+        static final double DAMPING = 0.85;
+        static final double TOLERANCE = 1e-10;
+        static final int MAX_ITERATIONS = 100;
+        /** 节点数不少于该值时并行迭代 */
+        static final int PARALLEL_THRESHOLD = 10_000;
+
+        final double[] ranks;
+        final int iterations;
+        final double residual;
+
+        private PageRank(double[] ranks, int iterations, double residual) {
+            this.ranks = ranks;
+            this.iterations = iterations;
+            this.residual = residual;
+        }
+
+        /**
+         * 计算PageRank
+         * @param initial  初始向量（会复制并归一化），为 null 时按入度 + 1（拉普拉斯平滑）初始化
+         * @param teleport 随机跳转分布（和为1），为 null 时为均匀分布
+         */
+        static PageRank compute(CompiledGraph graph, double[] initial, double[] teleport) {
+            int n = graph.size();
+            double[] pr = new double[n];
+            if (n == 0) {
+                return new PageRank(pr, 0, 0);
+            }
+            if (initial != null) {
+                System.arraycopy(initial, 0, pr, 0, n);
+            } else {
+                // 高级模式：基于入度 + 1（拉普拉斯平滑）分配初始PR值
+                for (int v = 0; v < n; v++) {
+                    pr[v] = graph.inDegree(v) + 1.0;
+                }
+            }
+            double total = Arrays.stream(pr).sum();
+            for (int v = 0; v < n; v++) {
+                pr[v] = total > 0 ? pr[v] / total : 1.0 / n;
+            }
+
+            double[] next = new double[n];
+            double[] contrib = new double[n];
+            double uniform = 1.0 / n;
+            int iterations = 0;
+            double residual = Double.MAX_VALUE;
+            while (iterations < MAX_ITERATIONS && residual >= TOLERANCE) {
+                final double[] current = pr;
+                final double[] updated = next;
+                // 每个节点分给每条出边的份额，悬挂节点的PR值汇总后按跳转分布分配
+                double dangling = range(n).mapToDouble(u -> {
+                    int degree = graph.outDegree(u);
+                    if (degree == 0) {
+                        contrib[u] = 0;
+                        return current[u];
+                    }
+                    contrib[u] = current[u] / degree;
+                    return 0;
+                }).sum();
+                double jump = 1 - DAMPING + DAMPING * dangling;
+                residual = range(n).mapToDouble(v -> {
+                    double sum = 0;
+                    for (int i = graph.inBegin(v), end = graph.inEnd(v); i < end; i++) {
+                        sum += contrib[graph.inSource(i)];
+                    }
+                    updated[v] = jump * (teleport == null ? uniform : teleport[v]) + DAMPING * sum;
+                    return Math.abs(updated[v] - current[v]);
+                }).sum();
+                next = current;
+                pr = updated;
+                iterations++;
+            }
+            if (Metrics.ENABLED) {
+                Metrics.PAGERANK_ITERATIONS.record(iterations);
+            }
+            return new PageRank(pr, iterations, residual);
+        }
+
+        /**
+         * 个性化PageRank（幂迭代）：随机跳转只落在种子节点上（均匀分布）
+         */
+        static PageRank personalized(CompiledGraph graph, int[] seeds) {
+            double[] teleport = seedDistribution(graph.size(), seeds);
+            return compute(graph, teleport, teleport);
+        }
+
+        /**
+         * 近似个性化PageRank（前向局部推送）：只访问种子附近残差足够大的节点，不遍历整张图。
+         * 每次把节点 u 残差的 (1-DAMPING) 计入估计值，其余按出边均分给邻居（悬挂节点退回给种子）；
+         * 直到所有节点的残差都小于 epsilon × max(出度, 1)
+         */
+        static Estimate push(CompiledGraph graph, int[] seeds, double epsilon) {
+            int n = graph.size();
+            double[] estimate = new double[n];
+            double[] residual = new double[n];
+            // touched 记录第一次收到残差的节点；queue 为环形队列，节点在队列中时不会再次入队，所以容量 n 足够
+            int[] touched = new int[Math.min(n, 16)];
+            int touchedCount = 0;
+            int[] queue = new int[n];
+            int head = 0;
+            int size = 0;
+            double share = 1.0 / seeds.length;
+            for (int s : seeds) {
+                if (residual[s] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = s;
+                    queue[(head + size++) % n] = s;
+                }
+                residual[s] += share;
+            }
+
+            while (size > 0) {
+                int u = queue[head];
+                head = (head + 1) % n;
+                size--;
+                double r = residual[u];
+                int degree = graph.outDegree(u);
+                if (r < epsilon * Math.max(degree, 1)) {
+                    continue;
+                }
+                residual[u] = 0;
+                estimate[u] += (1 - DAMPING) * r;
+                double mass = DAMPING * r;
+                int targets = degree == 0 ? seeds.length : degree;
+                double amount = degree == 0 ? mass * share : mass / degree;
+                for (int j = 0; j < targets; j++) {
+                    int v = degree == 0 ? seeds[j] : graph.outTarget(graph.outBegin(u) + j);
+                    double before = residual[v];
+                    double after = before + amount;
+                    residual[v] = after;
+                    if (before == 0 && estimate[v] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = v;
+                    }
+                    double threshold = epsilon * Math.max(graph.outDegree(v), 1);
+                    // 残差刚越过阈值时入队，避免重复入队
+                    if (before < threshold && after >= threshold) {
+                        queue[(head + size++) % n] = v;
+                    }
+                }
+            }
+            return new Estimate(estimate, Arrays.copyOf(touched, touchedCount));
+        }
+
+        /**
+         * 局部推送的结果
+         * - values[v]: 节点 v 的估计PR值，未被推送到的节点为0
+         * - touched: 收到过残差的节点（按首次到达的顺序），只有这些节点的估计值可能大于0
+         */
+        static final class Estimate {
+            final double[] values;
+            final int[] touched;
+
+            private Estimate(double[] values, int[] touched) {
+                this.values = values;
+                this.touched = touched;
+            }
+
+            /** 估计值最高的 k 个节点（降序），只扫描 touched */
+            int[] topK(int k) {
+                return PageRank.topK(Arrays.stream(touched), v -> values[v], k);
+            }
+        }
+
+        /**
+         * 用大小为 k 的最小堆从 candidates 中选出得分最高的 k 个，按得分降序返回，不对全部候选排序。
+         * 堆用 int[] 存节点、double[] 存对应得分，不装箱
+         */
+        static int[] topK(IntStream candidates, IntToDoubleFunction score, int k) {
+            if (k <= 0) {
+                return new int[0];
+            }
+            int[] heap = new int[k];
+            double[] scores = new double[k];
+            int[] size = {0};
+            candidates.forEach(v -> {
+                double sv = score.applyAsDouble(v);
+                if (size[0] < k) {
+                    // 上浮
+                    int i = size[0]++;
+                    while (i > 0) {
+                        int parent = (i - 1) >>> 1;
+                        if (scores[parent] <= sv) {
+                            break;
+                        }
+                        heap[i] = heap[parent];
+                        scores[i] = scores[parent];
+                        i = parent;
+                    }
+                    heap[i] = v;
+                    scores[i] = sv;
+                } else if (sv > scores[0]) {
+                    siftDown(heap, scores, k, v, sv);
+                }
+            });
+            int n = size[0];
+            int[] top = new int[n];
+            for (int i = n - 1; i >= 0; i--) {
+                top[i] = heap[0];
+                if (i > 0) {
+                    siftDown(heap, scores, i, heap[i], scores[i]);
+                }
+            }
+            return top;
+        }
+
+        /** 用 (v, sv) 替换堆顶并下沉，堆大小为 size */
+        private static void siftDown(int[] heap, double[] scores, int size, int v, double sv) {
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && scores[right] < scores[child]) {
+                    child = right;
+                }
+                if (sv <= scores[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            heap[i] = v;
+            scores[i] = sv;
+        }
+
+        /** PR值最高的 k 个节点（降序） */
+        int[] topK(int k) {
+            return topK(IntStream.range(0, ranks.length), v -> ranks[v], k);
+        }
+
+        private static double[] seedDistribution(int n, int[] seeds) {
+            double[] teleport = new double[n];
+            for (int s : seeds) {
+                teleport[s] += 1.0 / seeds.length;
+            }
+            return teleport;
+        }
+
+        private static IntStream range(int n) {
+            IntStream range = IntStream.range(0, n);
+            return n >= PARALLEL_THRESHOLD ? range.parallel() : range;
+        }
+    }
+
+    /**
+     * 计算指定单词的PageRank值；整张图的PR向量只在首次查询时计算一次（迭代至收敛），之后直接查表
+     * @param word 目标单词
+     * @return PageRank值，未找到时返回0.0
+     */
+    public static double calcPageRank(String word) {
+        return calcPageRank(compiledGraph(), word);
+    }
+
+    static double calcPageRank(CompiledGraph g, String word) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int id = g.id(word.toLowerCase());
+        double rank = id < 0 ? 0.0 : g.pageRank().ranks[id];
+        if (Metrics.ENABLED) {
+            Metrics.PAGE_RANK.recordSince(start);
+        }
+        return rank;
+    }
+
+    /**
+     * PageRank最高的 k 个单词（降序）
+     * @return 单词及其PR值
+     */
+    public static List<Map.Entry<String, Double>> topPageRank(int k) {
+        return topPageRank(compiledGraph(), k);
+    }
+
+    static List<Map.Entry<String, Double>> topPageRank(CompiledGraph g, int k) {
+        // 返回副本，调用方可以修改
+        return new ArrayList<>(results.get(g, "top", List.of(k), ResultCache::weighRanking, () -> {
+            PageRank pageRank = g.pageRank();
+            return rankedWords(g, pageRank.topK(k), v -> pageRank.ranks[v]);
+        }));
+    }
+
+    /**
+     * 以 seeds 为种子的个性化PageRank，返回得分最高的 k 个单词（降序）；图中不存在的种子被忽略
+     * @param epsilon 大于0时使用前向局部推送近似计算（只访问种子附近），否则在整张图上幂迭代
+     */
+    public static List<Map.Entry<String, Double>> personalizedPageRank(Collection<String> seeds, int k, double epsilon) {
+        CompiledGraph g = compiledGraph();
+        int[] ids = seeds.stream().mapToInt(w -> g.id(w.toLowerCase())).filter(id -> id >= 0).distinct().sorted().toArray();
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        // 种子集合与顺序无关，按排序后的编号缓存；返回副本，调用方可以修改
+        List<Object> key = List.of(k, epsilon, Arrays.stream(ids).boxed().toList());
+        return new ArrayList<>(results.get(g, "ppr", key, ResultCache::weighRanking, () -> personalized(g, ids, k, epsilon)));
+    }
+
+    private static List<Map.Entry<String, Double>> personalized(CompiledGraph g, int[] ids, int k, double epsilon) {
+        if (epsilon > 0) {
+            PageRank.Estimate estimate = PageRank.push(g, ids, epsilon);
+            return rankedWords(g, estimate.topK(k), v -> estimate.values[v]);
+        }
+        PageRank pageRank = PageRank.personalized(g, ids);
+        return rankedWords(g, pageRank.topK(k), v -> pageRank.ranks[v]);
+    }
+
+    private static List<Map.Entry<String, Double>> rankedWords(CompiledGraph g, int[] ids, IntToDoubleFunction score) {
+        List<Map.Entry<String, Double>> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(Map.entry(g.word(id), score.applyAsDouble(id)));
+        }
+        return result;
+    }
+
+
+    // ---------------------- 功能7：随机游走 ----------------------
+
+    /**
+     * 内部类 LongHashSet，开放寻址的 long 集合（键必须非负），用于记录游走中访问过的边 (src << 32 | dst)
+     */
+    static final class LongHashSet {
+        private static final long EMPTY = -1;
+        private long[] keys = new long[64];
+        private int size;
+
+        LongHashSet() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /** 加入键，已存在时返回 false */
+        boolean add(long key) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    size++;
+                    return true;
+                }
+                if (keys[i] == key) {
+                    return false;
+                }
+            }
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(keys, EMPTY);
+                size = 0;
+            }
+        }
+
+        private void grow() {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (long key : old) {
+                if (key != EMPTY) {
+                    add(key);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * 内部类 RandomWalker，按边权（出现次数）加权的随机游走引擎
+     * 每个节点的出边预先构建别名表（Vose 方法），prob / alias 与出边CSR下标一一对应，
+     * 因此每一步只需一次随机数和一次比较，O(1) 且不分配内存
+     */
+    static final class RandomWalker {
+        final CompiledGraph graph;
+        // 与边数成正比，图在堆外时同样分配在堆外
+        private final DoubleBuffer prob;
+        private final IntBuffer alias;
+        // 有出边的节点，作为随机起点
+        private final int[] starts;
+
+        RandomWalker(CompiledGraph graph) {
+            this.graph = graph;
+            int edges = graph.edgeCount();
+            prob = graph.isOffHeap() ? OffHeapStore.allocateDoubles(edges) : DoubleBuffer.wrap(new double[edges]);
+            alias = graph.isOffHeap() ? OffHeapStore.allocateInts(edges) : IntBuffer.wrap(new int[edges]);
+            int[] small = new int[16];
+            int[] large = new int[16];
+            double[] scaled = new double[16];
+            int startCount = 0;
+            int[] startList = new int[graph.size()];
+            for (int u = 0; u < graph.size(); u++) {
+                int begin = graph.outBegin(u);
+                int degree = graph.outDegree(u);
+                if (degree == 0) {
+                    continue;
+                }
+                startList[startCount++] = u;
+                if (degree > scaled.length) {
+                    small = new int[degree];
+                    large = new int[degree];
+                    scaled = new double[degree];
+                }
+                long total = 0;
+                for (int i = 0; i < degree; i++) {
+                    total += graph.outWeight(begin + i);
+                }
+                int ns = 0;
+                int nl = 0;
+                for (int i = 0; i < degree; i++) {
+                    scaled[i] = (double) graph.outWeight(begin + i) * degree / total;
+                    if (scaled[i] < 1.0) {
+                        small[ns++] = i;
+                    } else {
+                        large[nl++] = i;
+                    }
+                }
+                while (ns > 0 && nl > 0) {
+                    int s = small[--ns];
+                    int l = large[--nl];
+                    prob.put(begin + s, scaled[s]);
+                    alias.put(begin + s, l);
+                    scaled[l] -= 1.0 - scaled[s];
+                    if (scaled[l] < 1.0) {
+                        small[ns++] = l;
+                    } else {
+                        large[nl++] = l;
+                    }
+                }
+                while (nl > 0) {
+                    prob.put(begin + large[--nl], 1.0);
+                }
+                while (ns > 0) {
+                    prob.put(begin + small[--ns], 1.0);  // 浮点误差剩余的项
+                }
+            }
+            starts = Arrays.copyOf(startList, startCount);
+        }
+
+        /**
+         * 按边权随机选择 u 的一条出边，返回其在CSR中的下标（u 必须有出边）
+         */
+        int step(int u, RandomGenerator rand) {
+            int begin = graph.outBegin(u);
+            int i = begin + rand.nextInt(graph.outDegree(u));
+            return rand.nextDouble() < prob.get(i) ? i : begin + alias.get(i);
+        }
+
+        /** 随机选一个有出边的节点，图中没有边时返回 -1 */
+        int randomStart(RandomGenerator rand) {
+            return starts.length == 0 ? -1 : starts[rand.nextInt(starts.length)];
+        }
+
+        /**
+         * 从 start 出发游走，直到遇到重复边、无出边或达到 maxLength 个节点
+         * @param out     输出缓冲区，空间不足时扩容
+         * @param visited 访问过的边，调用前会被清空
+         * @param length  长度为1的数组，用于返回写入 out 的节点个数
+         * @return 可能扩容后的输出缓冲区
+         */
+        int[] walk(int start, int maxLength, RandomGenerator rand, LongHashSet visited, int[] out, int[] length) {
+            visited.clear();
+            int n = 0;
+            int current = start;
+            out[n++] = current;
+            while (n < maxLength && graph.outDegree(current) > 0) {
+                int next = graph.outTarget(step(current, rand));
+                if (!visited.add(((long) current << 32) | next)) {
+                    break; // 遇到重复边时终止
+                }
+                if (n == out.length) {
+                    out = Arrays.copyOf(out, n * 2);
+                }
+                out[n++] = next;
+                current = next;
+            }
+            length[0] = n;
+            if (Metrics.ENABLED) {
+                Metrics.WALK_LENGTH.record(n);
+            }
+            return out;
+        }
+
+        /**
+         * 并行批量游走：第 i 条游走使用由 (seed, i) 派生的随机数，结果可复现且与线程调度无关
+         * @param count     游走条数
+         * @param maxLength 每条游走的最大节点数，至少为1（起点本身）
+         */
+        WalkBatch walks(int count, int maxLength, long seed) {
+            if (count < 0 || maxLength < 1) {
+                throw new IllegalArgumentException("count must be >= 0 and maxLength >= 1");
+            }
+            // 每个工作线程复用自己的边集合和输出缓冲区
+            ThreadLocal<LongHashSet> visited = ThreadLocal.withInitial(LongHashSet::new);
+            ThreadLocal<int[][]> buffers = ThreadLocal.withInitial(() -> new int[][]{new int[Math.max(1, Math.min(maxLength, 64))], new int[1]});
+            int[][] paths = IntStream.range(0, count).parallel().mapToObj(i -> {
+                SplittableRandom rand = new SplittableRandom(seed ^ (i * 0x9E3779B97F4A7C15L));
+                int start = randomStart(rand);
+                if (start < 0) {
+                    return new int[0];
+                }
+                int[][] buffer = buffers.get();
+                buffer[0] = walk(start, maxLength, rand, visited.get(), buffer[0], buffer[1]);
+                return Arrays.copyOf(buffer[0], buffer[1][0]);
+            }).toArray(int[][]::new);
+
+            int[] offsets = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                offsets[i + 1] = offsets[i] + paths[i].length;
+            }
+            int[] nodes = new int[offsets[count]];
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(paths[i], 0, nodes, offsets[i], paths[i].length);
+            }
+            return new WalkBatch(offsets, nodes);
+        }
+    }
+
+    /**
+     * 内部类 WalkBatch，批量游走的紧凑输出：第 i 条游走为 nodes[offsets[i] .. offsets[i+1])
+     */
+    static final class WalkBatch {
+        final int[] offsets;
+        final int[] nodes;
+
+        WalkBatch(int[] offsets, int[] nodes) {
+            this.offsets = offsets;
+            this.nodes = nodes;
+        }
+
+        int count() {
+            return offsets.length - 1;
+        }
+
+        int[] walk(int i) {
+            return Arrays.copyOfRange(nodes, offsets[i], offsets[i + 1]);
+        }
+    }
+
+    /**
+     * 随机游走：从随机节点出发，每次按边权（出现次数）随机选择出边，直到重复边或无法继续
+     * @return 游走路径的字符串（空格分隔）
+     */
+    public static String randomWalk() {
+        return randomWalk(ThreadLocalRandom.current());
+    }
+
+    /**
+     * 使用指定随机数生成器的随机游走，传入固定种子的生成器即可复现结果
+     */
+    public static String randomWalk(RandomGenerator rand) {
+        return randomWalk(compiledGraph(), rand);
+    }
+
+    static String randomWalk(CompiledGraph g, RandomGenerator rand) {
+        long startNanos = Metrics.ENABLED ? System.nanoTime() : 0;
+        RandomWalker walker = g.randomWalker();
+        int start = walker.randomStart(rand); // 随机起点
+        if (start < 0) return "";
+
+        int[] length = new int[1];
+        int[] path = walker.walk(start, Integer.MAX_VALUE, rand, new LongHashSet(), new int[64], length);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < length[0]; i++) {
+            if (i > 0) {
+                result.append(' ');
+            }
+            result.append(g.word(path[i]));
+        }
+        if (Metrics.ENABLED) {
+            Metrics.RANDOM_WALK.recordSince(startNanos);
+        }
+        return result.toString();
+    }
+
+    // ---------------------- 高阶模式：k 阶单词模型 ----------------------
+
+    /**
+     * 内部类 NGramModel，k 阶单词模型：节点是最近 k-1 个单词组成的状态，边是“状态 -> 下一个单词”，权重为出现次数，
+     * 桥接词、生成新文本和随机游走据此利用 k-1 个单词的上下文，而不只是前一个单词
+     * - 单词编号与 bigrams（同一遍扫描得到的普通单词图）一致；状态的 k-1 个单词编号各占 21 位打包为一个 long
+     *   （最早的单词在高位），因此 2 <= k <= 4、词汇量不超过 2^21
+     * - states 为按升序排列的打包状态，状态编号即其下标：查找上下文时二分查找，不另建哈希表，每个状态只占 8 字节
+     * - 转移按状态排成CSR，每行按下一个单词的编号升序：nextWords 为下一个单词，nextStates 为转移后的状态，
+     *   cumulative 为行内的累计权重（按权重随机选择时二分查找）
+     * - 上下文不足 k-1 个单词或该上下文从未出现时退回到 bigrams
+     */
+    static final class NGramModel {
+        static final int MIN_ORDER = 2;
+        static final int MAX_ORDER = 4;
+        static final int WORD_BITS = 21;
+        static final long WORD_MASK = (1L << WORD_BITS) - 1;
+
+        final int order;
+        final CompiledGraph bigrams;
+        final long[] states;
+        final int[] offsets;
+        final int[] nextWords;
+        final int[] nextStates;
+        final int[] cumulative;
+        // 有转移的状态，作为随机游走的起点
+        private final int[] starts;
+
+        private NGramModel(int order, CompiledGraph bigrams, long[] states,
+                           int[] offsets, int[] nextWords, int[] nextStates, int[] cumulative) {
+            this.order = order;
+            this.bigrams = bigrams;
+            this.states = states;
+            this.offsets = offsets;
+            this.nextWords = nextWords;
+            this.nextStates = nextStates;
+            this.cumulative = cumulative;
+            this.starts = IntStream.range(0, states.length).filter(this::hasTransitions).toArray();
+        }
+
+        int stateCount() {
+            return states.length;
+        }
+
+        int transitionCount() {
+            return nextWords.length;
+        }
+
+        /** 模型本身（不含 bigrams）占用的字节数 */
+        long bytes() {
+            return 8L * states.length + 4L * (offsets.length + 3L * nextWords.length + starts.length);
+        }
+
+        boolean hasTransitions(int s) {
+            return offsets[s + 1] > offsets[s];
+        }
+
+        /**
+         * ids[end-k+2 .. end] 这 k-1 个单词组成的状态，上下文不足、含不在图中的单词或从未出现时返回 -1
+         */
+        int state(int[] ids, int end) {
+            int from = end - (order - 1) + 1;
+            if (from < 0) {
+                return -1;
+            }
+            long key = 0;
+            for (int i = from; i <= end; i++) {
+                if (ids[i] < 0) {
+                    return -1;
+                }
+                key = (key << WORD_BITS) | ids[i];
+            }
+            int s = Arrays.binarySearch(states, key);
+            return s >= 0 ? s : -1;
+        }
+
+        /** 状态 s 的第 j 个单词（0 为最早的） */
+        int stateWord(int s, int j) {
+            return (int) ((states[s] >>> (WORD_BITS * (order - 2 - j))) & WORD_MASK);
+        }
+
+        /** 状态 s 之后接 word 的转移下标，不存在时返回 -1 */
+        int transition(int s, int word) {
+            int i = Arrays.binarySearch(nextWords, offsets[s], offsets[s + 1], word);
+            return i >= 0 ? i : -1;
+        }
+
+        /** 满足 状态 s -> bridge -> word 的所有 bridge（按编号升序） */
+        int[] bridges(int s, int word) {
+            int[] result = new int[offsets[s + 1] - offsets[s]];
+            int n = 0;
+            for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                if (transition(nextStates[i], word) >= 0) {
+                    result[n++] = nextWords[i];
+                }
+            }
+            return Arrays.copyOf(result, n);
+        }
+
+        /** 按权重随机选择状态 s 的一个转移，返回其下标（s 必须有转移） */
+        int step(int s, RandomGenerator rand) {
+            int begin = offsets[s];
+            int end = offsets[s + 1];
+            int r = rand.nextInt(cumulative[end - 1]) + 1;
+            int i = Arrays.binarySearch(cumulative, begin, end, r);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        /** 随机选一个有转移的状态，没有时返回 -1 */
+        int randomStart(RandomGenerator rand) {
+            return starts.length == 0 ? -1 : starts[rand.nextInt(starts.length)];
+        }
+    }
+
+    /**
+     * 内部类 NGramBuilder，k 阶单词模型的构图器：单词经 GraphBuilder 编号（同时得到普通单词图），
+     * 滑动窗口保存最近 k-1 个单词编号打包成的 long，每个单词累计一次“状态 -> 单词”的转移（LongIntMap，不装箱）；
+     * 构建期间状态按出现顺序编号，freeze 时重新按打包值排序编号
+     * 与 GraphBuilder 一样，freeze 之后可以继续 add 再重新 freeze
+     */
+    static final class NGramBuilder implements WordSink {
+        private final int order;
+        private final long contextMask;
+        private final GraphBuilder words = new GraphBuilder();
+        private final LongIntMap stateIds = new LongIntMap();
+        private final LongIntMap transitions = new LongIntMap();
+        private long[] states = new long[1024];
+        private int stateCount;
+        private long context;
+        private int filled;
+
+        NGramBuilder(int order) {
+            if (order < NGramModel.MIN_ORDER || order > NGramModel.MAX_ORDER) {
+                throw new IllegalArgumentException("order must be between " + NGramModel.MIN_ORDER + " and "
+                        + NGramModel.MAX_ORDER + ": " + order);
+            }
+            this.order = order;
+            this.contextMask = (1L << (NGramModel.WORD_BITS * (order - 1))) - 1;
+        }
+
+        /**
+         * 读取并分词一个文件（与之前的文件不连边）
+         */
+        NGramBuilder add(String filePath) throws IOException {
+            words.add(filePath, this);
+            filled = 0;
+            return this;
+        }
+
+        @Override
+        public void word(char[] chars, int len) {
+            int id = words.next(chars, len);
+            if (id > NGramModel.WORD_MASK) {
+                throw new IllegalStateException("vocabulary exceeds " + (NGramModel.WORD_MASK + 1) + " words");
+            }
+            if (filled == order - 1) {
+                transitions.increment(((long) stateId(context) << 32) | id);
+            } else {
+                filled++;
+            }
+            context = shift(context, id);
+        }
+
+        /**
+         * 生成只读的模型
+         */
+        NGramModel freeze() {
+            // 只在文件末尾出现过的上下文还没有编号，先为所有转移的目标状态分配编号
+            long[] table = transitions.table;
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != LongIntMap.EMPTY) {
+                    stateId(shift(states[(int) (table[i] >>> 32)], (int) table[i]));
+                }
+            }
+
+            // 状态按打包值排序，rank 为构建期编号 -> 最终编号
+            int n = stateCount;
+            long[] keys = Arrays.copyOf(states, n);
+            Arrays.sort(keys);
+            int[] rank = new int[n];
+            for (int s = 0; s < n; s++) {
+                rank[stateIds.get(keys[s], -1)] = s;
+            }
+
+            // 按状态计数得到行偏移，(单词编号 << 32 | 次数) 放入所在行后排序，每行即按单词编号升序
+            int m = transitions.size();
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != LongIntMap.EMPTY) {
+                    offsets[rank[(int) (table[i] >>> 32)] + 1]++;
+                }
+            }
+            for (int s = 0; s < n; s++) {
+                offsets[s + 1] += offsets[s];
+            }
+            int[] fill = Arrays.copyOf(offsets, n);
+            long[] packed = new long[m];
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != LongIntMap.EMPTY) {
+                    packed[fill[rank[(int) (table[i] >>> 32)]]++] = (table[i] << 32) | table[i + 1];
+                }
+            }
+            int[] nextWords = new int[m];
+            int[] nextStates = new int[m];
+            int[] cumulative = new int[m];
+            for (int s = 0; s < n; s++) {
+                Arrays.sort(packed, offsets[s], offsets[s + 1]);
+                int total = 0;
+                for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                    nextWords[i] = (int) (packed[i] >>> 32);
+                    total += (int) packed[i];
+                    cumulative[i] = total;
+                    nextStates[i] = Arrays.binarySearch(keys, shift(keys[s], nextWords[i]));
+                }
+            }
+            return new NGramModel(order, words.freeze(), keys, offsets, nextWords, nextStates, cumulative);
+        }
+
+        private long shift(long key, int word) {
+            return ((key << NGramModel.WORD_BITS) | word) & contextMask;
+        }
+
+        private int stateId(long key) {
+            int id = stateIds.putIfAbsent(key, stateCount);
+            if (id == stateCount) {
+                if (stateCount == states.length) {
+                    states = Arrays.copyOf(states, stateCount * 2);
+                }
+                states[stateCount++] = key;
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 构建 k 阶单词模型
+     * @param pattern 文件、目录或 glob 通配符（多个文件之间不连边）
+     * @param order   阶数 k（2 到 4）
+     */
+    public static NGramModel buildNGram(String pattern, int order) throws IOException {
+        NGramBuilder builder = new NGramBuilder(order);
+        for (Path file : CorpusBuilder.resolve(pattern)) {
+            builder.add(file.toString());
+        }
+        return builder.freeze();
+    }
+
+    /**
+     * k 阶桥接词：words 的最后一个单词为目标，其余为上下文（只用最后 k-1 个），
+     * 即满足 上下文 -> bridge -> 目标 的单词；上下文不足 k-1 个单词或从未出现时退回到普通的桥接词查询
+     */
+    static String queryBridgeWords(NGramModel model, List<String> words) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        CompiledGraph g = model.bigrams;
+        int[] ids = new int[words.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = g.id(words.get(i).toLowerCase());
+        }
+        int last = ids.length - 1;
+        int s = last >= 1 && ids[last] >= 0 ? model.state(ids, last - 1) : -1;
+        String result;
+        if (s < 0) {
+            result = bridgeWords(g, words.get(last - 1).toLowerCase(), words.get(last).toLowerCase());
+        } else {
+            List<String> bridgeList = new ArrayList<>();
+            for (int bridge : model.bridges(s, ids[last])) {
+                bridgeList.add(g.word(bridge));
+            }
+            String context = String.join(" ", words.subList(last - (model.order - 1), last)).toLowerCase();
+            result = formatBridges(context, g.word(ids[last]), bridgeList);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.BRIDGE.recordSince(start);
+        }
+        return result;
+    }
+
+    /**
+     * 按 k 阶模型生成新文本：每对相邻单词之间，以已输出的最后 k-1 个单词（含已插入的桥接词）为上下文选择桥接词，
+     * 上下文不足或从未出现时退回到普通桥接词；分词规则与构图一致
+     */
+    static String generateNewText(NGramModel model, String inputText, RandomGenerator rand) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        CompiledGraph g = model.bigrams;
+        List<String> input = new ArrayList<>();
+        WordScanner scanner = new WordScanner((char[] chars, int len) -> input.add(new String(chars, 0, len)));
+        char[] text = inputText.toCharArray();
+        scanner.feed(text, 0, text.length);
+        scanner.finish();
+
+        StringBuilder out = new StringBuilder();
+        int[] ids = new int[input.size() * 2]; // 已输出单词的编号（不在图中时为 -1）
+        int n = 0;
+        for (String word : input) {
+            int id = g.id(word);
+            if (n > 0 && id >= 0 && ids[n - 1] >= 0) {
+                int s = model.state(ids, n - 1);
+                int[] bridges = s >= 0 ? model.bridges(s, id) : g.bridgeIndex().bridges(ids[n - 1], id);
+                if (bridges.length > 0) {
+                    int bridge = bridges[rand.nextInt(bridges.length)];
+                    out.append(' ').append(g.word(bridge));
+                    ids[n++] = bridge;
+                }
+            }
+            if (n > 0) {
+                out.append(' ');
+            }
+            out.append(word);
+            ids[n++] = id;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.NEW_TEXT.recordSince(start);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 按 k 阶模型随机游走：从随机状态出发（先输出它的 k-1 个单词），按转移次数加权选择下一个单词，
+     * 直到重复的转移（状态, 单词）或无法继续
+     */
+    static String randomWalk(NGramModel model, RandomGenerator rand) {
+        long startNanos = Metrics.ENABLED ? System.nanoTime() : 0;
+        int s = model.randomStart(rand);
+        if (s < 0) {
+            return "";
+        }
+        CompiledGraph g = model.bigrams;
+        StringBuilder result = new StringBuilder();
+        for (int j = 0; j < model.order - 1; j++) {
+            if (j > 0) {
+                result.append(' ');
+            }
+            result.append(g.word(model.stateWord(s, j)));
+        }
+        int length = model.order - 1;
+        LongHashSet visited = new LongHashSet();
+        while (model.hasTransitions(s)) {
+            int i = model.step(s, rand);
+            if (!visited.add(((long) s << 32) | model.nextWords[i])) {
+                break; // 遇到重复转移时终止
+            }
+            result.append(' ').append(g.word(model.nextWords[i]));
+            length++;
+            s = model.nextStates[i];
+        }
+        if (Metrics.ENABLED) {
+            Metrics.WALK_LENGTH.record(length);
+            Metrics.RANDOM_WALK.recordSince(startNanos);
+        }
+        return result.toString();
+    }
+
+    // ---------------------- 图分析 ----------------------
+
+    /**
+     * 内部类 GraphAnalytics，整图分析（均为线性时间）：
+     * - 强连通分量：迭代式 Tarjan（显式调用栈，链很长的图也不会栈溢出）。分量按完成顺序编号，
+     *   即凝聚图的逆拓扑序：分量之间的边总是从编号大的指向编号小的
+     * - 凝聚图（DAG）：把跨分量的边编码为 (源分量 << 32 | 目标分量)，并行排序去重后存为CSR；
+     *   按编号顺序一次动态规划得到最长的分量链
+     * - 出度 / 入度 / 边权的分布，按2的幂分桶（桶 b 为 [2^(b-1), 2^b)，桶0只含0），并行统计
+     * - 可达性：从 samples 个随机单词出发在凝聚图上并行BFS，估计随机单词对之间存在路径的比例
+     * Tarjan 本身是顺序算法，在后台线程运行，同时在其余线程上统计分布
+     */
+    static final class GraphAnalytics {
+        static final int DEFAULT_SAMPLES = 32;
+        /** 抽样源点的固定种子，同一张图的报告可以复现 */
+        static final long DEFAULT_SEED = 1;
+        /** 分布的桶数：度数和权重都是 int */
+        static final int BUCKETS = 33;
+
+        final CompiledGraph graph;
+        /** 节点所属的强连通分量 */
+        final int[] component;
+        final int[] componentSize;
+        final int components;
+        /** 凝聚图的出边CSR（目标分量升序） */
+        final int[] dagOffsets;
+        final int[] dagTargets;
+        /** 凝聚图最长路径上的分量数 */
+        final int longestChain;
+        /** 出度、入度和边权的分布 */
+        final long[] outDegrees;
+        final long[] inDegrees;
+        final long[] weights;
+        final long totalWeight;
+        final int maxOutDegree;
+        final int maxInDegree;
+        final int maxWeight;
+        /** 各抽样源点可达（不含自身）的单词比例 */
+        final double[] reachable;
+        /** 各阶段耗时（毫秒）：强连通分量、分布、凝聚图、可达性抽样 */
+        final double[] millis = new double[4];
+
+        private GraphAnalytics(CompiledGraph graph, int samples, long seed) {
+            this.graph = graph;
+            int n = graph.size();
+            long start = System.nanoTime();
+            CompletableFuture<int[]> scc = CompletableFuture.supplyAsync(() -> {
+                int[] result = tarjan(graph);
+                millis[0] = (System.nanoTime() - start) / 1e6;
+                return result;
+            });
+
+            long[][] stats = range(n).collect(() -> new long[4][BUCKETS], (h, u) -> {
+                h[0][bucket(graph.outDegree(u))]++;
+                h[1][bucket(graph.inDegree(u))]++;
+                for (int i = graph.outBegin(u), end = graph.outEnd(u); i < end; i++) {
+                    int w = graph.outWeight(i);
+                    h[2][bucket(w)]++;
+                    h[3][2] += w;
+                    h[3][3] = Math.max(h[3][3], w);
+                }
+                h[3][0] = Math.max(h[3][0], graph.outDegree(u));
+                h[3][1] = Math.max(h[3][1], graph.inDegree(u));
+            }, (a, b) -> {
+                for (int j = 0; j < BUCKETS; j++) {
+                    a[0][j] += b[0][j];
+                    a[1][j] += b[1][j];
+                    a[2][j] += b[2][j];
+                }
+                a[3][0] = Math.max(a[3][0], b[3][0]);
+                a[3][1] = Math.max(a[3][1], b[3][1]);
+                a[3][2] += b[3][2];
+                a[3][3] = Math.max(a[3][3], b[3][3]);
+            });
+            outDegrees = stats[0];
+            inDegrees = stats[1];
+            weights = stats[2];
+            maxOutDegree = (int) stats[3][0];
+            maxInDegree = (int) stats[3][1];
+            totalWeight = stats[3][2];
+            maxWeight = (int) stats[3][3];
+            millis[1] = (System.nanoTime() - start) / 1e6;
+
+            int[] result = scc.join();
+            components = result[n];
+            component = Arrays.copyOf(result, n);
+            componentSize = new int[components];
+            for (int c : component) {
+                componentSize[c]++;
+            }
+
+            long dagStart = System.nanoTime();
+            long[] keys = new long[graph.edgeCount()];
+            range(n).forEach(u -> {
+                for (int i = graph.outBegin(u), end = graph.outEnd(u); i < end; i++) {
+                    int v = graph.outTarget(i);
+                    keys[i] = component[u] == component[v] ? Long.MAX_VALUE : ((long) component[u] << 32) | component[v];
+                }
+            });
+            Arrays.parallelSort(keys);
+            dagOffsets = new int[components + 1];
+            int m = 0;
+            for (int i = 0; i < keys.length && keys[i] != Long.MAX_VALUE; i++) {
+                if (i == 0 || keys[i] != keys[i - 1]) {
+                    keys[m++] = keys[i];
+                    dagOffsets[(int) (keys[i] >>> 32) + 1]++;
+                }
+            }
+            dagTargets = new int[m];
+            for (int i = 0; i < m; i++) {
+                dagTargets[i] = (int) keys[i];
+            }
+            for (int c = 0; c < components; c++) {
+                dagOffsets[c + 1] += dagOffsets[c];
+            }
+            // 后继分量编号更小，按编号升序计算即可
+            int[] chain = new int[components];
+            int longest = 0;
+            for (int c = 0; c < components; c++) {
+                int best = 0;
+                for (int i = dagOffsets[c]; i < dagOffsets[c + 1]; i++) {
+                    best = Math.max(best, chain[dagTargets[i]]);
+                }
+                chain[c] = best + 1;
+                longest = Math.max(longest, chain[c]);
+            }
+            longestChain = longest;
+            millis[2] = (System.nanoTime() - dagStart) / 1e6;
+
+            long reachStart = System.nanoTime();
+            SplittableRandom rand = new SplittableRandom(seed);
+            int[] sources = IntStream.range(0, n == 0 ? 0 : samples).map(i -> rand.nextInt(n)).toArray();
+            reachable = IntStream.range(0, sources.length).parallel()
+                    .mapToDouble(i -> n > 1 ? (reach(component[sources[i]]).stream()
+                            .mapToLong(c -> componentSize[c]).sum() - 1) / (double) (n - 1) : 0)
+                    .toArray();
+            millis[3] = (System.nanoTime() - reachStart) / 1e6;
+        }
+
+        static GraphAnalytics compute(CompiledGraph graph, int samples, long seed) {
+            return new GraphAnalytics(graph, samples, seed);
+        }
+
+        /**
+         * 迭代式 Tarjan：返回长度 n+1 的数组，前 n 项为各节点的分量编号，最后一项为分量数
+         */
+        static int[] tarjan(CompiledGraph g) {
+            int n = g.size();
+            int[] result = new int[n + 1];
+            Arrays.fill(result, 0, n, -1);
+            int[] index = new int[n]; // 访问序号 + 1，0 表示未访问
+            int[] low = new int[n];
+            int[] stack = new int[n];
+            int[] callNode = new int[n];
+            int[] callEdge = new int[n];
+            int visited = 0;
+            int count = 0;
+            for (int root = 0; root < n; root++) {
+                if (index[root] != 0) {
+                    continue;
+                }
+                int sp = 0;
+                int depth = 0;
+                index[root] = low[root] = ++visited;
+                stack[sp++] = root;
+                callNode[depth] = root;
+                callEdge[depth++] = g.outBegin(root);
+                while (depth > 0) {
+                    int u = callNode[depth - 1];
+                    int i = callEdge[depth - 1];
+                    if (i < g.outEnd(u)) {
+                        callEdge[depth - 1] = i + 1;
+                        int v = g.outTarget(i);
+                        if (index[v] == 0) {
+                            index[v] = low[v] = ++visited;
+                            stack[sp++] = v;
+                            callNode[depth] = v;
+                            callEdge[depth++] = g.outBegin(v);
+                        } else if (result[v] < 0) {
+                            // 已访问但尚未归入分量：仍在栈上
+                            low[u] = Math.min(low[u], index[v]);
+                        }
+                    } else {
+                        depth--;
+                        if (low[u] == index[u]) {
+                            int w;
+                            do {
+                                w = stack[--sp];
+                                result[w] = count;
+                            } while (w != u);
+                            count++;
+                        }
+                        if (depth > 0) {
+                            int parent = callNode[depth - 1];
+                            low[parent] = Math.min(low[parent], low[u]);
+                        }
+                    }
+                }
+            }
+            result[n] = count;
+            return result;
+        }
+
+        /** 在凝聚图上从分量 c 出发可达的全部分量（含自身） */
+        BitSet reach(int c) {
+            BitSet seen = new BitSet(components);
+            int[] queue = new int[components];
+            int head = 0;
+            int tail = 0;
+            seen.set(c);
+            queue[tail++] = c;
+            while (head < tail) {
+                int x = queue[head++];
+                for (int i = dagOffsets[x]; i < dagOffsets[x + 1]; i++) {
+                    int y = dagTargets[i];
+                    if (!seen.get(y)) {
+                        seen.set(y);
+                        queue[tail++] = y;
+                    }
+                }
+            }
+            return seen;
+        }
+
+        /** 最大的强连通分量 */
+        int largestComponent() {
+            int largest = 0;
+            for (int c = 1; c < components; c++) {
+                if (componentSize[c] > componentSize[largest]) {
+                    largest = c;
+                }
+            }
+            return largest;
+        }
+
+        /**
+         * 说明 from 到 to 是否存在路径及原因（calcShortestPath 输出 "No path" 时用于排查）
+         */
+        String explain(int from, int to) {
+            String a = "'" + graph.word(from) + "'";
+            String b = "'" + graph.word(to) + "'";
+            int cf = component[from];
+            int ct = component[to];
+            if (from == to && componentSize[cf] == 1 && !graph.hasOutTarget(graph.outBegin(from), graph.outEnd(from), from)) {
+                return "No path: " + a + " is not on any cycle.";
+            }
+            if (cf == ct) {
+                return a + " and " + b + " are in the same strongly connected component (" + componentSize[cf]
+                        + " words): paths exist in both directions.";
+            }
+            if (cf > ct && reach(cf).get(ct)) {
+                return a + " reaches " + b + ", but not the other way round (they are in different strongly connected components).";
+            }
+            if (graph.outDegree(from) == 0) {
+                return "No path: " + a + " has no outgoing edges (it only appears at the end of the text).";
+            }
+            if (graph.inDegree(to) == 0) {
+                return "No path: " + b + " has no incoming edges (it only appears at the start of the text).";
+            }
+            BitSet reached = reach(cf);
+            long words = reached.stream().mapToLong(c -> componentSize[c]).sum();
+            return "No path: the " + words + " words reachable from " + a + " (" + reached.cardinality()
+                    + " strongly connected components) do not include " + b
+                    + (ct > cf && reach(ct).get(cf) ? "; " + b + " reaches " + a + " instead." : ".");
+        }
+
+        /** 全部分析结果的文本报告 */
+        String report() {
+            int n = graph.size();
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("graph: %d words, %d edges, total weight %d%n", n, graph.edgeCount(), totalWeight));
+            if (n == 0) {
+                return out.toString();
+            }
+            int largest = largestComponent();
+            long singletons = Arrays.stream(componentSize).filter(size -> size == 1).count();
+            out.append(String.format("strongly connected components: %d (largest %d words = %.1f%%, %d single words)%n",
+                    components, componentSize[largest], 100.0 * componentSize[largest] / n, singletons));
+            int sources = 0;
+            boolean[] hasIn = new boolean[components];
+            for (int target : dagTargets) {
+                hasIn[target] = true;
+            }
+            int sinks = 0;
+            for (int c = 0; c < components; c++) {
+                sources += hasIn[c] ? 0 : 1;
+                sinks += dagOffsets[c + 1] == dagOffsets[c] ? 1 : 0;
+            }
+            out.append(String.format("condensation DAG: %d components, %d edges, %d sources, %d sinks, longest chain %d components%n",
+                    components, dagTargets.length, sources, sinks, longestChain));
+            if (reachable.length > 0) {
+                out.append(String.format("reachability (%d sampled words): a word reaches %.1f%% of the others on average (min %.1f%%, max %.1f%%)%n",
+                        reachable.length, 100 * Arrays.stream(reachable).average().orElse(0),
+                        100 * Arrays.stream(reachable).min().orElse(0), 100 * Arrays.stream(reachable).max().orElse(0)));
+            }
+            out.append(String.format("dead ends (out-degree 0): %d, no incoming edges (in-degree 0): %d%n", outDegrees[0], inDegrees[0]));
+            out.append(String.format("max out-degree %d, max in-degree %d, max edge weight %d%n", maxOutDegree, maxInDegree, maxWeight));
+            out.append(String.format("%-16s %12s %12s %12s%n", "value", "out-degree", "in-degree", "edge weight"));
+            for (int b = 0; b < BUCKETS; b++) {
+                if (outDegrees[b] + inDegrees[b] + weights[b] > 0) {
+                    out.append(String.format("%-16s %12d %12d %12d%n", bucketLabel(b), outDegrees[b], inDegrees[b], weights[b]));
+                }
+            }
+            out.append(String.format("time: scc %.1f ms, distributions %.1f ms, condensation %.1f ms, reachability %.1f ms%n",
+                    millis[0], millis[1], millis[2], millis[3]));
+            return out.toString();
+        }
+
+        /** 值所在的桶：0 -> 0，[2^(b-1), 2^b) -> b */
+        static int bucket(int value) {
+            return 32 - Integer.numberOfLeadingZeros(value);
+        }
+
+        private static String bucketLabel(int b) {
+            if (b <= 1) {
+                return String.valueOf(b);
+            }
+            long low = 1L << (b - 1);
+            return low + "-" + (2 * low - 1);
+        }
+
+        private static IntStream range(int n) {
+            IntStream range = IntStream.range(0, n);
+            return n >= PageRank.PARALLEL_THRESHOLD ? range.parallel() : range;
+        }
+    }
+
+    /**
+     * 整图分析报告：强连通分量、凝聚图、度数与边权分布、可达性抽样（见 GraphAnalytics）
+     */
+    public static String analyzeGraph() {
+        return analyzeGraph(compiledGraph());
+    }
+
+    static String analyzeGraph(CompiledGraph g) {
+        return results.get(g, "analytics", List.of(), String::length, () -> g.analytics().report());
+    }
+
+    /**
+     * 说明从word1到word2是否存在路径，不存在时给出原因
+     */
+    public static String explainPath(String word1, String word2) {
+        return explainPath(compiledGraph(), word1, word2);
+    }
+
+    static String explainPath(CompiledGraph g, String word1, String word2) {
+        int from = g.id(word1.toLowerCase());
+        int to = g.id(word2.toLowerCase());
+        if (from < 0 || to < 0) {
+            return "No " + word1 + " or " + word2 + " in the graph!";
+        }
+        return g.analytics().explain(from, to);
+    }
+
+    // ---------------------- 服务模式 ----------------------
+
+    /**
+     * 内部类 QueryServer，基于 JDK 内置 HttpServer 的查询服务（纯文本、UTF-8）：
+     *   GET  /bridge?from=a&to=b      桥接词
+     *   GET  /chains?from=a&to=b[&k=3] 最多 k 个桥接词的链（见 BridgeChains）
+     *   GET  /newtext?text=...        生成新文本（也可用 POST 请求体传文本）
+     *   GET  /path?from=a[&to=b]      最短路径
+     *   GET  /pagerank?word=w | ?top=k
+     *   GET  /walk[?seed=s]           随机游走
+     *   GET  /analytics[?from=a&to=b] 整图分析报告；给出两个单词时说明两者之间是否有路径（见 GraphAnalytics）
+     *   GET  /cache                   结果缓存的命中/未命中/淘汰计数
+     *   GET  /metrics                 运行指标报告（见 Metrics）
+     *   POST /reload                  从启动时配置的来源重新构图后原子替换（结果缓存随之失效）；
+     *                                 客户端不能指定路径，没有配置来源时返回400
+     * 所有查询读取同一份不可变的 CompiledGraph；重新加载时在后台构建并预先计算缓存，
+     * 完成后通过 AtomicReference 一次性替换（写时复制），进行中的查询继续使用旧图，读者从不阻塞。
+     * 每个请求一个虚拟线程（JDK 21+，通过反射获取）；更早的 JDK 退回到缓存线程池。
+     * 响应头和响应体分两次写出，保持连接的请求在 Nagle 算法下每次多等一个延迟确认（约40ms），
+     * 应以 -Dsun.net.httpserver.nodelay=true 启动（--serve 模式由 main 在创建服务前设置）
+     */
+    static final class QueryServer {
+        private final AtomicReference<CompiledGraph> current;
+        private final HttpServer server;
+        private final ExecutorService executor;
+        private final Object reloadLock = new Object();
+        private final Loader source;
+
+        /** 重新加载时构建新图的方式（固定的来源） */
+        interface Loader {
+            CompiledGraph load() throws IOException;
+
+            /**
+             * 以与启动时相同的方式从 path 构图：多文件语料每次用一个设置与 corpus 相同的新 CorpusBuilder，
+             * 单个文件在 threads <= 1 时直接构建编译形式，否则并行构建后编译
+             */
+            static Loader of(String path, int threads, CorpusBuilder corpus) {
+                boolean multiFile = CorpusBuilder.isPattern(path) || Files.isDirectory(Paths.get(path));
+                return () -> multiFile
+                        ? CompiledGraph.compile(corpus.copy().build(path))
+                        : threads <= 1 ? buildCompiled(path) : CompiledGraph.compile(buildGraph(path, threads));
+            }
+        }
+
+        /**
+         * @param source 重新加载使用的来源，为 null 时不支持 /reload
+         */
+        QueryServer(CompiledGraph graph, InetSocketAddress address, Loader source) throws IOException {
+            this.current = new AtomicReference<>(warm(graph));
+            this.source = source;
+            this.server = HttpServer.create(address, 0);
+            this.executor = requestExecutor();
+            server.setExecutor(executor);
+            server.createContext("/bridge", exchange -> handle(exchange, (g, q) ->
+                    queryBridgeWords(g, required(q, "from"), required(q, "to"))));
+            server.createContext("/chains", exchange -> handle(exchange, (g, q) ->
+                    queryBridgeChains(g, required(q, "from"), required(q, "to"),
+                            Integer.parseInt(q.getOrDefault("k", String.valueOf(BridgeChains.DEFAULT_MAX_BRIDGES))))));
+            server.createContext("/newtext", exchange -> {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                handle(exchange, (g, q) -> generateNewText(g,
+                        body.isEmpty() ? required(q, "text") : body, randomOf(q)));
+            });
+            server.createContext("/path", exchange -> handle(exchange, (g, q) ->
+                    calcShortestPath(g, required(q, "from"), q.getOrDefault("to", ""))));
+            server.createContext("/pagerank", exchange -> handle(exchange, (g, q) -> {
+                if (q.containsKey("top")) {
+                    StringBuilder out = new StringBuilder();
+                    topPageRank(g, Integer.parseInt(q.get("top")))
+                            .forEach(e -> out.append(e.getKey()).append(' ').append(e.getValue()).append('\n'));
+                    return out.toString().trim();
+                }
+                return String.valueOf(calcPageRank(g, required(q, "word")));
+            }));
+            server.createContext("/walk", exchange -> handle(exchange, (g, q) -> randomWalk(g, randomOf(q))));
+            server.createContext("/analytics", exchange -> handle(exchange, (g, q) -> q.containsKey("from")
+                    ? explainPath(g, required(q, "from"), required(q, "to"))
+                    : analyzeGraph(g)));
+            server.createContext("/cache", exchange -> handle(exchange, (g, q) -> results.toString()));
+            server.createContext("/metrics", exchange -> handle(exchange, (g, q) -> Metrics.report()));
+            server.createContext("/reload", exchange -> handle(exchange, (g, q) -> {
+                if (!exchange.getRequestMethod().equals("POST")) {
+                    throw new IllegalArgumentException("use POST");
+                }
+                CompiledGraph next = reload();
+                return "Reloaded: " + next.size() + " words, " + next.edgeCount() + " edges";
+            }));
+        }
+
+        /** 实际监听的地址（端口为0时由系统分配） */
+        InetSocketAddress address() {
+            return server.getAddress();
+        }
+
+        /** 当前提供查询的图 */
+        CompiledGraph graph() {
+            return current.get();
+        }
+
+        void start() {
+            server.start();
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdown();
+        }
+
+        /**
+         * 从配置的来源重新构图并原子替换；同一时间只进行一次重新加载，查询不受影响
+         */
+        CompiledGraph reload() throws IOException {
+            if (source == null) {
+                throw new IllegalArgumentException("reload is not configured");
+            }
+            synchronized (reloadLock) {
+                CompiledGraph next = source.load();
+                // 保持当前的存储方式（堆内 / 堆外）
+                next = warm(current.get().isOffHeap() ? next.toOffHeap() : next);
+                current.set(next);
+                return next;
+            }
+        }
+
+        /**
+         * 直接替换为已编译的图
+         */
+        void replace(CompiledGraph next) {
+            current.set(warm(next));
+        }
+
+        /** 替换前预先计算惰性缓存，避免第一批查询在同步方法上排队 */
+        private static CompiledGraph warm(CompiledGraph graph) {
+            graph.pageRank();
+            graph.randomWalker();
+            graph.bridgeIndex();
+            return graph;
+        }
+
+        private interface Query {
+            String answer(CompiledGraph graph, Map<String, String> params) throws IOException;
+        }
+
+        private void handle(HttpExchange exchange, Query query) throws IOException {
+            int status = 200;
+            String response;
+            try {
+                // 每个请求开始时读取一次当前图，整个请求都使用这一份
+                response = query.answer(current.get(), parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                response = "Bad request: " + e.getMessage();
+            } catch (IOException | RuntimeException e) {
+                status = 500;
+                response = "Error: " + e.getMessage();
+            }
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        private static Map<String, String> parseQuery(String raw) {
+            Map<String, String> params = new HashMap<>();
+            if (raw == null || raw.isEmpty()) {
+                return params;
+            }
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+            return params;
+        }
+
+        private static String required(Map<String, String> params, String name) {
+            String value = params.get(name);
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("missing parameter '" + name + "'");
+            }
+            return value;
+        }
+
+        private static RandomGenerator randomOf(Map<String, String> params) {
+            String seed = params.get("seed");
+            return seed == null ? ThreadLocalRandom.current() : new SplittableRandom(Long.parseLong(seed));
+        }
+
+        private static ExecutorService requestExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(task -> {
+                    Thread thread = new Thread(task, "query-server");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    // ---------------------- 主程序入口 ----------------------
+
+    /** 命令行用法，参数无效时输出到标准错误（各参数的说明见 main） */
+    static final String USAGE = String.join("\n",
+            "Usage: java Lab1 [file | directory | pattern] [options]",
+            "  --threads=N  --io-threads=N  --cross-document  --order=2..4  --off-heap  --snapshot=FILE",
+            "  --search=full|early_exit|bidirectional|landmarks  --landmarks=K  --landmarks-file=FILE",
+            "  --image=FILE  --export-min-weight=W  --export-top=N  --export-rank=degree|pagerank",
+            "  --chain-limit=N  --chain-timeout=MS  --chain-budget=N",
+            "  --serve=PORT  --cache=CAPACITY  --metrics-interval=SECONDS");
+
+    /**
+     * 解析 --name=value 参数的值；值无效时（格式错误、超出范围、未知的选项）抛出 IllegalArgumentException，
+     * 异常信息指明参数名和值，由 main 输出并附上用法说明
+     */
+    static <T> T flag(String arg, Function<String, T> parse) {
+        int eq = arg.indexOf('=');
+        String value = arg.substring(eq + 1);
+        try {
+            return parse.apply(value);
+        } catch (IllegalArgumentException e) {
+            String reason = e instanceof NumberFormatException ? " (not a number)" : " (" + e.getMessage() + ")";
+            throw new IllegalArgumentException(arg.substring(0, eq) + " does not accept '" + value + "'" + reason, e);
+        }
+    }
+
+    private static <N extends Number> N atLeast(N value, long min) {
+        if (value.longValue() < min) {
+            throw new IllegalArgumentException("must be at least " + min);
+        }
+        return value;
+    }
+
+    private static <N extends Number> N atMost(N value, long max) {
+        if (value.longValue() > max) {
+            throw new IllegalArgumentException("must be at most " + max);
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E oneOf(Class<E> type, String value) {
+        for (E option : type.getEnumConstants()) {
+            if (option.name().equalsIgnoreCase(value)) {
+                return option;
+            }
+        }
+        throw new IllegalArgumentException("expected one of " + Arrays.toString(type.getEnumConstants()).toLowerCase());
+    }
+
+    public static void main(String[] args) {
+        Scanner scanner = new Scanner(System.in);
+        // 测试用固定路径（实际使用时取消下一行注释，并注释掉再下一行）
+        // System.out.print("Enter file path: ");
+        // String path = scanner.nextLine();
+        String path = "C:\\Users\\hyh\\Desktop\\Software\\Easy Test.txt"; // 测试路径
+        // 命令行参数：[文件路径] [--threads=N] [--search=full|early_exit|bidirectional|landmarks]
+        //            [--landmarks=K] [--landmarks-file=路径]，N>1 时并行构图，K>0 时预处理 K 个地标（有文件时随文件加载/保存），
+        //            配合 --search=landmarks 使用A*查询
+        //            [--image=路径] [--export-min-weight=W] [--export-top=N] [--export-rank=degree|pagerank]，功能1的输出设置
+        //            [--snapshot=路径]：快照未过期时直接映射加载（堆外，不拷贝），否则从文本构图并写出快照（含PageRank）
+        //            [--serve=端口]：以HTTP查询服务方式运行（见 QueryServer），不进入交互菜单
+        //            [--cache=容量]：查询结果缓存的容量（约为字符数），0 表示不缓存
+        //            [--metrics-interval=秒]：定期把运行指标写到标准错误（需以 -Dlab1.metrics=true 启动）
+        //            文件路径为目录或通配符（如 docs/**.txt）时从多个文件构图：[--io-threads=N] 同时读取的文件数，
+        //            [--cross-document] 文档之间连边；构建进度输出到标准错误
+        //            [--off-heap]：字典和邻接数组放在堆外（有快照时直接映射快照文件，否则复制到直接缓冲区），
+        //            堆占用不随图增大；修改图（功能7）后回到堆上的表示
+        //            [--order=k]：另外构建 k 阶单词模型（2<k<=4），桥接词（输入多于两个单词时前面的作为上下文）、
+        //            生成新文本和随机游走使用最近 k-1 个单词作为上下文
+        //            [--chain-limit=N] [--chain-timeout=毫秒] [--chain-budget=路径数]：多跳桥接词查询（功能9）的限制
+        int threads = 1;
+        int landmarkCount = 0;
+        String landmarkFile = null;
+        String snapshotFile = null;
+        int servePort = -1;
+        boolean offHeap = false;
+        int order = 2;
+        CorpusBuilder corpus = new CorpusBuilder();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    threads = flag(arg, v -> atLeast(Integer.parseInt(v), 1));
+                } else if (arg.startsWith("--landmarks=")) {
+                    landmarkCount = flag(arg, v -> atLeast(Integer.parseInt(v), 0));
+                } else if (arg.startsWith("--landmarks-file=")) {
+                    landmarkFile = flag(arg, v -> v);
+                } else if (arg.startsWith("--io-threads=")) {
+                    corpus.ioThreads = flag(arg, v -> atLeast(Integer.parseInt(v), 1));
+                } else if (arg.equals("--cross-document")) {
+                    corpus.crossDocument = true;
+                } else if (arg.startsWith("--metrics-interval=")) {
+                    Metrics.startReporter(flag(arg, v -> atLeast(Long.parseLong(v), 1)), System.err);
+                } else if (arg.startsWith("--cache=")) {
+                    results = new ResultCache(flag(arg, v -> atLeast(Long.parseLong(v), 0)));
+                } else if (arg.startsWith("--serve=")) {
+                    servePort = flag(arg, v -> atMost(atLeast(Integer.parseInt(v), 0), 65535));
+                } else if (arg.startsWith("--snapshot=")) {
+                    snapshotFile = flag(arg, v -> v);
+                } else if (arg.equals("--off-heap")) {
+                    offHeap = true;
+                } else if (arg.startsWith("--order=")) {
+                    order = flag(arg, v -> atMost(atLeast(Integer.parseInt(v), NGramModel.MIN_ORDER), NGramModel.MAX_ORDER));
+                } else if (arg.startsWith("--chain-limit=")) {
+                    chains.limit = flag(arg, v -> atLeast(Integer.parseInt(v), 1));
+                } else if (arg.startsWith("--chain-timeout=")) {
+                    chains.timeoutMillis = flag(arg, Long::parseLong);
+                } else if (arg.startsWith("--chain-budget=")) {
+                    chains.pathBudget = flag(arg, v -> atLeast(Long.parseLong(v), 1));
+                } else if (arg.startsWith("--image=")) {
+                    imagePath = flag(arg, v -> v);
+                } else if (arg.startsWith("--export-min-weight=")) {
+                    exporter.minWeight = flag(arg, v -> atLeast(Integer.parseInt(v), 1));
+                } else if (arg.startsWith("--export-top=")) {
+                    exporter.topN = flag(arg, v -> atLeast(Integer.parseInt(v), 0));
+                } else if (arg.startsWith("--export-rank=")) {
+                    exporter.ranking = flag(arg, v -> oneOf(GraphExporter.Ranking.class, v));
+                } else if (arg.startsWith("--search=")) {
+                    searchMode = flag(arg, v -> oneOf(SearchMode.class, v));
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("unknown option " + arg);
+                } else {
+                    path = arg;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid argument: " + e.getMessage());
+            System.err.println(USAGE);
+            return;
+        }
+
+        try {
+            boolean multiFile = CorpusBuilder.isPattern(path) || Files.isDirectory(Paths.get(path));
+            if (snapshotFile != null && !multiFile && GraphSnapshot.isFresh(Paths.get(snapshotFile), Paths.get(path))) {
+                // 快照与源文本一致：直接加载编译形式，需要修改图时再还原
+                graph = null;
+                compiled = GraphSnapshot.load(Paths.get(snapshotFile));
+            } else {
+                if (multiFile) {
+                    corpus.progress = System.err;
+                    graph = corpus.build(path);
+                } else if (threads <= 1) {
+                    // 单线程时直接构建编译形式，第一次修改图时再还原为 Graph
+                    graph = null;
+                    compiled = buildCompiled(path);
+                } else {
+                    graph = buildGraph(path, threads);
+                }
+                if (snapshotFile != null) {
+                    // 多文件语料无法判断是否过期，快照中不记录来源
+                    GraphSnapshot.write(compiledGraph(), Paths.get(snapshotFile), multiFile ? null : Paths.get(path), true);
+                }
+                if (offHeap) {
+                    // 丢弃堆上的表示：有快照时映射刚写出的文件，否则复制到直接缓冲区
+                    compiled = snapshotFile != null ? GraphSnapshot.load(Paths.get(snapshotFile)) : compiledGraph().toOffHeap();
+                    graph = null;
+                }
+            }
+            CompiledGraph g = compiledGraph(); // 构图后立即编译为只读形式
+            if (order > 2) {
+                ngramBuilder = new NGramBuilder(order);
+                for (Path file : CorpusBuilder.resolve(path)) {
+                    ngramBuilder.add(file.toString());
+                }
+                ngrams = ngramBuilder.freeze();
+                System.err.printf("order-%d model: %d states, %d transitions, %.1f MB%n", order,
+                        ngrams.stateCount(), ngrams.transitionCount(), ngrams.bytes() / 1048576.0);
+            } else {
+                ngramBuilder = null;
+                ngrams = null;
+            }
+            if (landmarkCount > 0) {
+                g.useLandmarks(landmarkFile == null
+                        ? Landmarks.compute(g, landmarkCount, Landmarks.Strategy.FARTHEST)
+                        : Landmarks.loadOrCompute(Paths.get(landmarkFile), g, landmarkCount));
+            }
+            if (servePort >= 0) {
+                if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                    System.setProperty("sun.net.httpserver.nodelay", "true"); // 见 QueryServer 的说明
+                }
+                QueryServer server = new QueryServer(g, new InetSocketAddress("127.0.0.1", servePort),
+                        QueryServer.Loader.of(path, threads, corpus));
+                server.start();
+                System.out.println("Serving on http://127.0.0.1:" + server.address().getPort() + "/");
+                return; // 服务线程持续运行
+            }
+            showDirectedGraph(); // 初始展示图结构
+
+            // 功能选择循环
+            while (true) {
+                System.out.println("\nChoose function:");
+                System.out.println("1. show graph in image");  // 新增选项
+                System.out.println("2. Query bridge words");
+                System.out.println("3. Generate new text");
+                System.out.println("4. Calculate shortest path");
+                System.out.println("5. Calculate PageRank");
+                System.out.println("6. Random walk");
+                System.out.println("7. Append text file");
+                System.out.println("8. Show metrics");
+                System.out.println("9. Query bridge chains");
+                System.out.println("10. Graph analytics");
+                System.out.println("0. Exit");
+                System.out.print("Input: ");
+
+                int choice = scanner.nextInt();
+                scanner.nextLine(); // 清除输入缓冲区的换行符
+
+                switch (choice) {
+                    case 1: // 保存图形到文件（新增功能）
+                        //System.out.print("Enter output image path (e.g., graph.png): ");
+                        try {
+                            showDirectedGraph1();
+                        } catch (IOException | InterruptedException e) {
+                            System.err.println("保存失败: " + e.getMessage());
+                        }
+                        break;
+                    case 2: // 查询桥接词
+                        System.out.print("Enter two words (separated by space): ");
+                        String[] words = scanner.nextLine().trim().split("\\s+");
+                        if (words.length < 2) {
+                            System.out.println("Invalid input!");
+                            break;
+                        }
+                        System.out.println(ngrams != null && words.length > 2
+                                ? queryBridgeWords(ngrams, Arrays.asList(words))
+                                : queryBridgeWords(words[0], words[1]));
+                        break;
+                    case 3: // 生成新文本
+                        System.out.print("Enter text: ");
+                        String input = scanner.nextLine();
+                        if (input.trim().isEmpty()) { // 空输入不生成文本（newtextTest 用例6）
+                            System.out.println("Invalid input!");
+                            break;
+                        }
+                        System.out.println("New text: " + (ngrams != null
+                                ? generateNewText(ngrams, input, ThreadLocalRandom.current())
+                                : generateNewText(input)));
+                        break;
+                    case 4: // 计算最短路径
+                        System.out.print("Enter one or two words (e.g. 'to and' or 'to'): ");
+                        String[] inputs = scanner.nextLine().split("\\s+", 2);  // 最多分割为两部分
+                    
+                        if (inputs.length == 0) {
+                            System.out.println("Invalid input!");
+                            break;
+                        }               
+                        String word2 = (inputs.length >= 2) ? inputs[1] : "";
+                        System.out.println(calcShortestPath(inputs[0], word2));
+                        break;
+                    case 5: // 计算PageRank
+                        System.out.print("Enter word: ");
+                        String word = scanner.nextLine();
+                        System.out.println("PageRank: " + calcPageRank(word));
+                        break;
+                    case 6: // 随机游走
+                        System.out.println("Random walk: " + (ngrams != null
+                                ? randomWalk(ngrams, ThreadLocalRandom.current())
+                                : randomWalk()));
+                        break;
+                    case 7: // 追加文本
+                        System.out.print("Enter file path: ");
+                        try {
+                            String file = scanner.nextLine().trim();
+                            GraphDelta delta = appendText(file);
+                            if (ngramBuilder != null) {
+                                ngrams = ngramBuilder.add(file).freeze();
+                            }
+                            System.out.println("Appended: " + delta.newNodes.size() + " new words, "
+                                    + delta.newEdgeCount() + " new edges, " + delta.changedEdgeCount() + " edges changed");
+                        } catch (IOException e) {
+                            System.out.println("Error reading file: " + e.getMessage());
+                        }
+                        break;
+                    case 8: // 运行指标
+                        System.out.print(Metrics.report());
+                        System.out.println();
+                        break;
+                    case 9: // 多跳桥接词
+                        System.out.print("Enter two words and the maximum number of bridge words (e.g. 'a b 3'): ");
+                        String[] chainInput = scanner.nextLine().trim().split("\\s+");
+                        if (chainInput.length < 2) {
+                            System.out.println("Invalid input!");
+                            break;
+                        }
+                        try {
+                            int maxBridges = chainInput.length > 2
+                                    ? Integer.parseInt(chainInput[2]) : BridgeChains.DEFAULT_MAX_BRIDGES;
+                            System.out.println(queryBridgeChains(chainInput[0], chainInput[1], maxBridges));
+                        } catch (IllegalArgumentException e) {
+                            System.out.println("Invalid input: " + e.getMessage());
+                        }
+                        break;
+                    case 10: // 整图分析
+                        System.out.print(analyzeGraph());
+                        System.out.print("Enter two words to explain whether a path exists (or press Enter to skip): ");
+                        String[] pair = scanner.nextLine().trim().split("\\s+");
+                        if (pair.length >= 2) {
+                            System.out.println(explainPath(pair[0], pair[1]));
+                        }
+                        break;
+                    case 0: // 退出
+                        return;
+                    default:
+                        System.out.println("Invalid choice!");
+                }
+            }
+        }catch(IOException e){
+            System.out.println("Error reading file: " + e.getMessage());
+            System.out.println("Error reading file111: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
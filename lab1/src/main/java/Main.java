@@ -0,0 +1,8 @@
+/**
+ * 程序入口，参数与 Lab1.main 相同
+ */
+public class Main {
+    public static void main(String[] args) {
+        Lab1.main(args);
+    }
+}
@@ -0,0 +1,179 @@
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class analyticsTest {
+    private static Lab1.CompiledGraph graph;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        graph = Lab1.buildCompiled(Paths.get(analyticsTest.class.getResource("/corpus-test.txt").toURI()).toString());
+    }
+
+    /** Kosaraju：先按出边求完成顺序，再按完成顺序的逆序沿入边划分分量 */
+    private static int[] kosaraju(Lab1.CompiledGraph g) {
+        int n = g.size();
+        int[] order = new int[n];
+        int finished = 0;
+        boolean[] seen = new boolean[n];
+        int[] node = new int[n];
+        int[] edge = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (seen[root]) {
+                continue;
+            }
+            int depth = 0;
+            seen[root] = true;
+            node[depth] = root;
+            edge[depth++] = g.outBegin(root);
+            while (depth > 0) {
+                int u = node[depth - 1];
+                if (edge[depth - 1] < g.outEnd(u)) {
+                    int v = g.outTarget(edge[depth - 1]++);
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        node[depth] = v;
+                        edge[depth++] = g.outBegin(v);
+                    }
+                } else {
+                    order[finished++] = u;
+                    depth--;
+                }
+            }
+        }
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int count = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int k = n - 1; k >= 0; k--) {
+            int root = order[k];
+            if (component[root] >= 0) {
+                continue;
+            }
+            component[root] = count;
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                for (int i = g.inBegin(v); i < g.inEnd(v); i++) {
+                    int u = g.inSource(i);
+                    if (component[u] < 0) {
+                        component[u] = count;
+                        queue.add(u);
+                    }
+                }
+            }
+            count++;
+        }
+        return component;
+    }
+
+    private static BitSet bfs(Lab1.CompiledGraph g, int from) {
+        BitSet reached = new BitSet(g.size());
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        reached.set(from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int i = g.outBegin(u); i < g.outEnd(u); i++) {
+                if (!reached.get(g.outTarget(i))) {
+                    reached.set(g.outTarget(i));
+                    queue.add(g.outTarget(i));
+                }
+            }
+        }
+        return reached;
+    }
+
+    /** 第 i 个只含字母的不同单词 */
+    private static String word(int i) {
+        StringBuilder s = new StringBuilder("w");
+        do {
+            s.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return s.toString();
+    }
+
+    private Lab1.CompiledGraph chainOf(int words, boolean closed) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(word(i)).append(' ');
+        }
+        if (closed) {
+            text.append(word(0));
+        }
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        return Lab1.buildCompiled(file.toString());
+    }
+
+    @Test  // 分量划分与 Kosaraju 相同；跨分量的边总是指向编号更小的分量（逆拓扑序）
+    public void testCase1_TarjanMatchesKosaraju() {
+        int n = graph.size();
+        int[] tarjan = Lab1.GraphAnalytics.tarjan(graph);
+        int[] expected = kosaraju(graph);
+        int count = Arrays.stream(expected).max().orElse(-1) + 1;
+        assertEquals(count, tarjan[n]);
+        int[] mapping = new int[count];
+        Arrays.fill(mapping, -1);
+        for (int v = 0; v < n; v++) {
+            assertTrue(tarjan[v] >= 0 && tarjan[v] < count);
+            if (mapping[expected[v]] < 0) {
+                mapping[expected[v]] = tarjan[v];
+            }
+            assertEquals(graph.word(v), mapping[expected[v]], tarjan[v]);
+        }
+        assertEquals(count, Arrays.stream(mapping).distinct().count());
+        for (int u = 0; u < n; u++) {
+            for (int i = graph.outBegin(u); i < graph.outEnd(u); i++) {
+                int v = graph.outTarget(i);
+                assertTrue(tarjan[u] >= tarjan[v]);
+            }
+        }
+    }
+
+    @Test  // 十万个单词的长链和长环：迭代实现不会栈溢出，凝聚图最长链正确
+    public void testCase2_DeepChain() throws IOException {
+        int words = 100_000;
+        Lab1.GraphAnalytics chain = Lab1.GraphAnalytics.compute(chainOf(words, false), 4, 1);
+        assertEquals(words, chain.components);
+        assertEquals(words, chain.longestChain);
+        Lab1.GraphAnalytics cycle = Lab1.GraphAnalytics.compute(chainOf(words, true), 4, 1);
+        assertEquals(1, cycle.components);
+        assertEquals(words, cycle.componentSize[0]);
+        assertEquals(1, cycle.longestChain);
+        for (double fraction : cycle.reachable) {
+            assertEquals(1.0, fraction, 0.0);
+        }
+    }
+
+    @Test  // 凝聚图上的可达性和 explain 的结论与直接 BFS 一致
+    public void testCase3_ReachMatchesBfs() {
+        Lab1.GraphAnalytics analytics = Lab1.GraphAnalytics.compute(graph, 8, 1);
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(graph.size());
+            int to = random.nextInt(graph.size());
+            if (from == to) {
+                continue;
+            }
+            boolean reachable = bfs(graph, from).get(to);
+            assertEquals(reachable, analytics.reach(analytics.component[from]).get(analytics.component[to]));
+            String explanation = analytics.explain(from, to);
+            assertEquals(explanation, !reachable, explanation.startsWith("No path"));
+        }
+        int largest = analytics.largestComponent();
+        assertEquals(Arrays.stream(analytics.componentSize).max().getAsInt(), analytics.componentSize[largest]);
+    }
+}
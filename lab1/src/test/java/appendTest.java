@@ -0,0 +1,132 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class appendTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Lab1.Graph graphOf(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        return Lab1.buildGraph(file.toString());
+    }
+
+    private static Lab1.Graph corpus() throws IOException, URISyntaxException {
+        return Lab1.buildGraph(Paths.get(appendTest.class.getResource("/corpus-test.txt").toURI()).toString());
+    }
+
+    /** 按 words 的顺序重新编号后的同一张图 */
+    private static Lab1.CompiledGraph relabel(Lab1.CompiledGraph g, String[] words) {
+        int n = words.length;
+        int[] newId = new int[n];
+        for (int i = 0; i < n; i++) {
+            newId[g.id(words[i])] = i;
+        }
+        int e = g.edgeCount();
+        int[] outOffsets = new int[n + 1];
+        int[] outTargets = new int[e];
+        int[] outWeights = new int[e];
+        int[] inOffsets = new int[n + 1];
+        int[] inSources = new int[e];
+        int[] inWeights = new int[e];
+        for (int u = 0; u < n; u++) {
+            int old = g.id(words[u]);
+            long[] out = new long[g.outDegree(old)];
+            for (int i = g.outBegin(old); i < g.outEnd(old); i++) {
+                out[i - g.outBegin(old)] = ((long) newId[g.outTarget(i)] << 32) | g.outWeight(i);
+            }
+            long[] in = new long[g.inDegree(old)];
+            for (int i = g.inBegin(old); i < g.inEnd(old); i++) {
+                in[i - g.inBegin(old)] = ((long) newId[g.inSource(i)] << 32) | g.inWeight(i);
+            }
+            Arrays.sort(out);
+            Arrays.sort(in);
+            outOffsets[u + 1] = outOffsets[u] + out.length;
+            inOffsets[u + 1] = inOffsets[u] + in.length;
+            for (int j = 0; j < out.length; j++) {
+                outTargets[outOffsets[u] + j] = (int) (out[j] >>> 32);
+                outWeights[outOffsets[u] + j] = (int) out[j];
+            }
+            for (int j = 0; j < in.length; j++) {
+                inSources[inOffsets[u] + j] = (int) (in[j] >>> 32);
+                inWeights[inOffsets[u] + j] = (int) in[j];
+            }
+        }
+        return Lab1.CompiledGraph.of(words, outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+    }
+
+    @Test  // 增量编译保留原有编号，除编号顺序外与从头编译完全相同；PageRank热启动后结果一致
+    public void testCase1_IncrementalMatchesScratch() throws IOException, URISyntaxException {
+        Lab1.Graph graph = corpus();
+        Lab1.CompiledGraph before = Lab1.CompiledGraph.compile(graph);
+        before.pageRank();
+        Lab1.GraphDelta delta = graph.append(graphOf("The quixotic zyzzyva looked at the dark sea, and the zyzzyva laughed."));
+        Lab1.CompiledGraph after = Lab1.CompiledGraph.compile(graph, before, delta);
+
+        for (int u = 0; u < before.size(); u++) {
+            assertEquals(before.word(u), after.word(u));
+        }
+        String[] words = new String[after.size()];
+        for (int u = 0; u < words.length; u++) {
+            words[u] = after.word(u);
+        }
+        Lab1.CompiledGraph scratch = Lab1.CompiledGraph.compile(graph);
+        compiledGraphTest.assertSameGraph(relabel(scratch, words), after);
+        for (String word : words) {
+            assertEquals(word, scratch.pageRank().ranks[scratch.id(word)], after.pageRank().ranks[after.id(word)], 1e-6);
+        }
+    }
+
+    @Test  // 追加结果记录新单词、新边和所有权重增量
+    public void testCase2_DeltaContents() throws IOException {
+        Lab1.Graph graph = graphOf("a b c");
+        Lab1.GraphDelta delta = graph.append(graphOf("b c d a b"));
+        assertEquals(Set.of("d"), delta.newNodes);
+        assertEquals(Map.of("c", Set.of("d"), "d", Set.of("a")), delta.newEdges);
+        assertEquals(Map.of("a", Map.of("b", 1), "b", Map.of("c", 1), "c", Map.of("d", 1), "d", Map.of("a", 1)),
+                delta.weightIncrements);
+        assertEquals(4, delta.changedEdgeCount());
+        assertEquals(2, delta.newEdgeCount());
+        assertEquals(Set.of("a", "b", "c", "d"), delta.changedNodes());
+        assertEquals(Map.of("b", 2), graph.adjacencyList.get("a"));
+
+        assertTrue(graph.append(graphOf("")).isEmpty());
+    }
+
+    @Test  // 只丢弃受新边影响的桥接词缓存；保留的结果与重新计算相同，受影响的结果包含新的桥接词
+    public void testCase3_BridgeCacheCarryOver() throws IOException, URISyntaxException {
+        Lab1.Graph graph = corpus();
+        Lab1.CompiledGraph before = Lab1.CompiledGraph.compile(graph);
+        int the = before.id("the");
+        int of = before.id("of");
+        assertTrue(graph.adjacencyList.get("of").containsKey("the"));
+        assertTrue(before.outDegree(the) + before.inDegree(of) > Lab1.BridgeIndex.CACHE_THRESHOLD);
+        assertTrue(before.outDegree(of) + before.inDegree(the) > Lab1.BridgeIndex.CACHE_THRESHOLD);
+        int[] affected = before.bridgeIndex().bridges(the, of);
+        int[] kept = before.bridgeIndex().bridges(of, the);
+        assertEquals(2, before.bridgeIndex().cachedPairs());
+
+        // the -> zyzzyva -> of 是新边；of -> the 只增加权重
+        Lab1.GraphDelta delta = graph.append(graphOf("the zyzzyva of the"));
+        Lab1.CompiledGraph after = Lab1.CompiledGraph.compile(graph, before, delta);
+        assertEquals(1, after.bridgeIndex().cachedPairs());
+        assertSame(kept, after.bridgeIndex().bridges(of, the));
+
+        Lab1.BridgeIndex fresh = new Lab1.BridgeIndex(after, Lab1.BridgeIndex.DEFAULT_BUDGET);
+        assertArrayEquals(fresh.bridges(of, the), kept);
+        int[] updated = after.bridgeIndex().bridges(the, of);
+        assertArrayEquals(fresh.bridges(the, of), updated);
+        int[] expected = Arrays.copyOf(affected, affected.length + 1);
+        expected[affected.length] = after.id("zyzzyva");
+        Arrays.sort(expected);
+        assertArrayEquals(expected, updated);
+    }
+}
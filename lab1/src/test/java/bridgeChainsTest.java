@@ -0,0 +1,148 @@
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class bridgeChainsTest {
+    private static Lab1.CompiledGraph small;
+    private static Lab1.CompiledGraph corpus;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void buildGraphs() throws IOException, URISyntaxException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "The scientist carefully analyzed the data, wrote a detailed report, and shared the report "
+                + "with the team, but the team requested more data, so the scientist analyzed it again.");
+        small = Lab1.buildCompiled(file.toString());
+        corpus = Lab1.buildCompiled(Paths.get(bridgeChainsTest.class.getResource("/corpus-test.txt").toURI()).toString());
+    }
+
+    /** 不限条数、时间和路径数的查询 */
+    private static Lab1.BridgeChains unlimited() {
+        Lab1.BridgeChains chains = new Lab1.BridgeChains();
+        chains.limit = Integer.MAX_VALUE;
+        chains.timeoutMillis = 0;
+        chains.pathBudget = Long.MAX_VALUE;
+        return chains;
+    }
+
+    /**
+     * 深度优先枚举所有从 from 到 to、中间经过 1..maxBridges 个互不相同的桥接词（不含两端）的链，
+     * 结果为 "桥接词编号列表:权重"
+     */
+    private static Set<String> bruteForce(Lab1.CompiledGraph g, int from, int to, int maxBridges) {
+        Set<String> found = new TreeSet<>();
+        dfs(g, from, from, to, maxBridges, new ArrayList<>(), 0, found);
+        return found;
+    }
+
+    private static void dfs(Lab1.CompiledGraph g, int from, int u, int to, int maxBridges,
+                            List<Integer> path, long weight, Set<String> found) {
+        for (int i = g.outBegin(u); i < g.outEnd(u); i++) {
+            int v = g.outTarget(i);
+            long w = weight + g.outWeight(i);
+            if (v == to && !path.isEmpty()) {
+                found.add(path + ":" + w);
+            }
+            if (path.size() < maxBridges && v != to && v != from && !path.contains(v)) {
+                path.add(v);
+                dfs(g, from, v, to, maxBridges, path, w, found);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    private static Set<String> asStrings(Lab1.BridgeChains.Result result) {
+        Set<String> found = new TreeSet<>();
+        for (Lab1.BridgeChains.Chain chain : result.chains) {
+            List<Integer> bridges = new ArrayList<>();
+            for (int b : chain.bridges) {
+                bridges.add(b);
+            }
+            found.add(bridges + ":" + chain.weight);
+        }
+        return found;
+    }
+
+    @Test  // 小图上所有单词对、1..4 个桥接词：与深度优先枚举的结果完全相同
+    public void testCase1_AllPairsMatchDfs() {
+        Lab1.BridgeChains chains = unlimited();
+        for (int k = 1; k <= 4; k++) {
+            for (int from = 0; from < small.size(); from++) {
+                for (int to = 0; to < small.size(); to++) {
+                    Lab1.BridgeChains.Result result = chains.find(small, from, to, k);
+                    assertTrue(result.complete);
+                    assertEquals(small.word(from) + " -> " + small.word(to) + " k=" + k,
+                            bruteForce(small, from, to, k), asStrings(result));
+                }
+            }
+        }
+    }
+
+    @Test  // 较大的图上随机单词对与深度优先枚举相同，且按权重降序
+    public void testCase2_RandomPairsMatchDfs() {
+        Lab1.BridgeChains chains = unlimited();
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(corpus.size());
+            int to = random.nextInt(corpus.size());
+            Lab1.BridgeChains.Result result = chains.find(corpus, from, to, 3);
+            assertEquals(corpus.word(from) + " -> " + corpus.word(to), bruteForce(corpus, from, to, 3), asStrings(result));
+            for (int j = 1; j < result.chains.size(); j++) {
+                assertTrue(result.chains.get(j - 1).weight >= result.chains.get(j).weight);
+            }
+        }
+    }
+
+    @Test  // 限制条数时返回的是完整结果中权重最高的前几条
+    public void testCase3_LimitKeepsHeaviest() {
+        int from = corpus.id("the");
+        int to = corpus.id("of");
+        List<Lab1.BridgeChains.Chain> all = unlimited().find(corpus, from, to, 2).chains;
+        Lab1.BridgeChains limited = unlimited();
+        limited.limit = 5;
+        List<Lab1.BridgeChains.Chain> top = limited.find(corpus, from, to, 2).chains;
+        assertEquals(Math.min(5, all.size()), top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(all.get(i).weight, top.get(i).weight);
+            assertArrayEquals(all.get(i).bridges, top.get(i).bridges);
+        }
+    }
+
+    @Test  // 超出路径数限制时标记为未完成，这样的结果不写入结果缓存
+    public void testCase4_IncompleteNotCached() {
+        Lab1.BridgeChains saved = Lab1.chains;
+        Lab1.ResultCache savedResults = Lab1.results;
+        try {
+            Lab1.chains = unlimited();
+            Lab1.chains.pathBudget = 1;
+            Lab1.results = new Lab1.ResultCache(1 << 20);
+            assertFalse(Lab1.chains.find(corpus, corpus.id("the"), corpus.id("of"), 3).complete);
+            String text = Lab1.queryBridgeChains(corpus, "the", "of", 3);
+            assertTrue(text, text.contains("search stopped"));
+            assertEquals(0, Lab1.results.size());
+
+            Lab1.chains.pathBudget = Long.MAX_VALUE;
+            Lab1.queryBridgeChains(corpus, "the", "of", 1);
+            assertEquals(1, Lab1.results.size());
+        } finally {
+            Lab1.chains = saved;
+            Lab1.results = savedResults;
+        }
+    }
+
+    @Test  // 桥接词个数超出范围时拒绝
+    public void testCase5_RejectsBadBridgeCount() {
+        assertThrows(IllegalArgumentException.class, () -> unlimited().find(small, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> unlimited().find(small, 0, 1, Lab1.BridgeChains.MAX_BRIDGES + 1));
+    }
+}
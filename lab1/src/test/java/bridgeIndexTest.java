@@ -0,0 +1,143 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.IntStream;
+import static org.junit.Assert.*;
+
+public class bridgeIndexTest {
+    private static Lab1.Graph words;
+    private static Lab1.CompiledGraph graph;
+    /** 按度数（出度 + 入度）降序排列的节点 */
+    private static int[] hubs;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        words = Lab1.buildGraph(Paths.get(bridgeIndexTest.class.getResource("/corpus-test.txt").toURI()).toString());
+        graph = Lab1.CompiledGraph.compile(words);
+        hubs = IntStream.range(0, graph.size()).boxed()
+                .sorted(Comparator.comparingInt(v -> -(graph.outDegree(v) + graph.inDegree(v))))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /** 直接在邻接表上按定义求桥接词 */
+    private static Set<String> expected(int from, int to) {
+        Set<String> result = new TreeSet<>();
+        String target = graph.word(to);
+        words.adjacencyList.getOrDefault(graph.word(from), Map.of()).keySet().forEach(w -> {
+            if (words.adjacencyList.getOrDefault(w, Map.of()).containsKey(target)) {
+                result.add(w);
+            }
+        });
+        return result;
+    }
+
+    private static void assertBridges(Lab1.BridgeIndex index, int from, int to) {
+        int[] bridges = index.bridges(from, to);
+        Set<String> actual = new TreeSet<>();
+        for (int i = 0; i < bridges.length; i++) {
+            assertTrue(i == 0 || bridges[i - 1] < bridges[i]);
+            actual.add(graph.word(bridges[i]));
+        }
+        assertEquals(graph.word(from) + " -> " + graph.word(to), expected(from, to), actual);
+    }
+
+    private static long cost(Lab1.BridgeIndex index, int from, int to) {
+        return index.bridges(from, to).length + 16;
+    }
+
+    private static boolean cached(int from, int to) {
+        return graph.outDegree(from) + graph.inDegree(to) > Lab1.BridgeIndex.CACHE_THRESHOLD;
+    }
+
+    @Test  // 度数较小的查询直接求交集、不进入缓存；度数较大的查询缓存后返回同一个数组
+    public void testCase1_DirectAndCachedPaths() {
+        Lab1.BridgeIndex index = new Lab1.BridgeIndex(graph, Lab1.BridgeIndex.DEFAULT_BUDGET);
+        int low = hubs[hubs.length - 1];
+        assertFalse(cached(low, low));
+        assertBridges(index, low, low);
+        assertNotSame(index.bridges(low, low), index.bridges(low, low));
+        assertEquals(0, index.cachedPairs());
+
+        int from = hubs[0];
+        int to = hubs[1];
+        assertTrue(cached(from, to));
+        assertBridges(index, from, to);
+        assertSame(index.bridges(from, to), index.bridges(from, to));
+        assertEquals(1, index.cachedPairs());
+
+        // 随机抽样与定义比较，覆盖二分查找和归并两种求交方式
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int u = random.nextInt(8) == 0 ? hubs[random.nextInt(10)] : random.nextInt(graph.size());
+            int v = random.nextInt(8) == 0 ? hubs[random.nextInt(10)] : random.nextInt(graph.size());
+            assertBridges(index, u, v);
+        }
+    }
+
+    @Test  // 超出预算时淘汰最久未用的结果，被淘汰的结果重新计算后仍然正确
+    public void testCase2_LruEviction() {
+        int[] a = {hubs[0], hubs[1]};
+        int[] b = {hubs[1], hubs[0]};
+        int[] c = {hubs[2], hubs[0]};
+        Lab1.BridgeIndex probe = new Lab1.BridgeIndex(graph, Lab1.BridgeIndex.DEFAULT_BUDGET);
+        long costA = cost(probe, a[0], a[1]);
+        long costB = cost(probe, b[0], b[1]);
+        long costC = cost(probe, c[0], c[1]);
+        // 可以同时放下 a、b 或 a、c，放不下全部三个
+        Lab1.BridgeIndex index = new Lab1.BridgeIndex(graph, Math.max(costA + costB, costA + costC));
+
+        int[] cachedA = index.bridges(a[0], a[1]);
+        int[] cachedB = index.bridges(b[0], b[1]);
+        assertEquals(2, index.cachedPairs());
+        assertSame(cachedA, index.bridges(a[0], a[1]));  // a 变为最近使用
+        index.bridges(c[0], c[1]);
+        assertEquals(2, index.cachedPairs());
+        assertSame(cachedA, index.bridges(a[0], a[1]));
+        int[] recomputed = index.bridges(b[0], b[1]);
+        assertNotSame(cachedB, recomputed);
+        assertArrayEquals(cachedB, recomputed);
+        assertBridges(index, c[0], c[1]);
+
+        // 单个结果超过预算时不缓存
+        Lab1.BridgeIndex tiny = new Lab1.BridgeIndex(graph, costA - 1);
+        assertBridges(tiny, a[0], a[1]);
+        assertEquals(0, tiny.cachedPairs());
+    }
+
+    @Test  // 很小的预算下反复查询大量热点点对，缓存项数受预算限制，结果始终正确
+    public void testCase3_SmallBudget() {
+        Lab1.BridgeIndex index = new Lab1.BridgeIndex(graph, 200);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 8; i++) {
+                for (int j = 0; j < 8; j++) {
+                    assertBridges(index, hubs[i], hubs[j]);
+                    assertTrue(index.cachedPairs() <= 200 / 16);
+                }
+            }
+        }
+        assertTrue(index.cachedPairs() > 0);
+    }
+
+    @Test  // 物化热点两两之间的桥接词，之后的查询直接命中；预算不足时在填满后停止
+    public void testCase4_MaterializeHubs() {
+        Lab1.BridgeIndex index = new Lab1.BridgeIndex(graph, Lab1.BridgeIndex.DEFAULT_BUDGET);
+        index.materializeHubs(5);
+        assertEquals(25, index.cachedPairs());
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertSame(index.bridges(hubs[i], hubs[j]), index.bridges(hubs[i], hubs[j]));
+                assertBridges(index, hubs[i], hubs[j]);
+            }
+        }
+        assertEquals(25, index.cachedPairs());
+
+        long budget = cost(index, hubs[0], hubs[0]) + cost(index, hubs[0], hubs[1]);
+        Lab1.BridgeIndex small = new Lab1.BridgeIndex(graph, budget);
+        small.materializeHubs(5);
+        assertTrue(small.cachedPairs() >= 1 && small.cachedPairs() <= 2);
+        assertBridges(small, hubs[0], hubs[1]);
+    }
+}
@@ -55,6 +55,25 @@ public class bridgeTest {
         };
         runTestMultiple(input, expectedOptions);
     }
+    @Test  // 只输入一个单词
+    public void testCase6_MissingSecondWord() throws IOException {
+        String input = "2\nthe\n0\n";
+        String expectedOutput = "Invalid input!";
+        runTest(input, expectedOutput);
+    }
+
+    /**
+     * 用例断言的桥接关系（如 the -> team -> but、but -> a/two -> team）并不都出现在仓库根目录的 Easy Test.txt 中，
+     * 测试使用自己的输入文件 src/test/resources/menu-test.txt：Easy Test.txt 的原文加上 "But a team and but two team."
+     */
+    private static String fixture() throws IOException {
+        try {
+            return Paths.get(bridgeTest.class.getResource("/menu-test.txt").toURI()).toString();
+        } catch (java.net.URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
     private void runTest(String input, String expectedOutput) throws IOException {
         InputStream originalIn = System.in;
         PrintStream originalOut = System.out;
@@ -66,7 +85,7 @@ public class bridgeTest {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             System.setOut(new PrintStream(out));
 
-            Main.main(new String[]{});
+            Main.main(new String[]{fixture()});
 
             String actualOutput = out.toString();
             assertTrue("Expected output not found: " + expectedOutput,
@@ -89,7 +108,7 @@ public class bridgeTest {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             System.setOut(new PrintStream(out));
 
-            Main.main(new String[]{});
+            Main.main(new String[]{fixture()});
 
             String actualOutput = out.toString();
             boolean found = false;
@@ -0,0 +1,84 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class compiledGraphTest {
+    private static Lab1.Graph graph;
+    private static Lab1.CompiledGraph compiled;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        graph = Lab1.buildGraph(Paths.get(compiledGraphTest.class.getResource("/corpus-test.txt").toURI()).toString());
+        compiled = Lab1.CompiledGraph.compile(graph);
+    }
+
+    @Test  // 编号与单词一一对应，不在图中的单词返回 -1
+    public void testCase1_Dictionary() {
+        for (int u = 0; u < compiled.size(); u++) {
+            assertEquals(u, compiled.id(compiled.word(u)));
+        }
+        assertEquals(-1, compiled.id("notaword"));
+    }
+
+    @Test  // 出边（目标和权重）与邻接表相同，且每行按编号升序
+    public void testCase2_OutEdgesMatchAdjacencyList() {
+        int edges = 0;
+        for (Map.Entry<String, Map<String, Integer>> entry : graph.adjacencyList.entrySet()) {
+            int u = compiled.id(entry.getKey());
+            Map<String, Integer> actual = new HashMap<>();
+            for (int i = compiled.outBegin(u); i < compiled.outEnd(u); i++) {
+                if (i > compiled.outBegin(u)) {
+                    assertTrue(compiled.outTarget(i - 1) < compiled.outTarget(i));
+                }
+                actual.put(compiled.word(compiled.outTarget(i)), compiled.outWeight(i));
+            }
+            assertEquals(entry.getValue(), actual);
+            edges += actual.size();
+        }
+        assertEquals(edges, compiled.edgeCount());
+    }
+
+    @Test  // 入边是出边的转置：来源集合与入边表相同，权重与对应出边相同
+    public void testCase3_InEdgesAreTranspose() {
+        for (int v = 0; v < compiled.size(); v++) {
+            Set<String> sources = new HashSet<>();
+            for (int i = compiled.inBegin(v); i < compiled.inEnd(v); i++) {
+                int u = compiled.inSource(i);
+                sources.add(compiled.word(u));
+                assertEquals(graph.adjacencyList.get(compiled.word(u)).get(compiled.word(v)).intValue(), compiled.inWeight(i));
+                boolean found = false;
+                for (int j = compiled.outBegin(u); j < compiled.outEnd(u); j++) {
+                    found |= compiled.outTarget(j) == v;
+                }
+                assertTrue(found);
+            }
+            assertEquals(new HashSet<>(graph.incomingEdges.getOrDefault(compiled.word(v), List.of())), sources);
+        }
+    }
+
+    /**
+     * 两个编译图的字典和出边 / 入边CSR完全相同（其他表示方式的测试共用）
+     */
+    static void assertSameGraph(Lab1.CompiledGraph expected, Lab1.CompiledGraph actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int u = 0; u < expected.size(); u++) {
+            assertEquals(expected.word(u), actual.word(u));
+            assertEquals(u, actual.id(expected.word(u)));
+            assertEquals(expected.outBegin(u), actual.outBegin(u));
+            assertEquals(expected.outEnd(u), actual.outEnd(u));
+            assertEquals(expected.inBegin(u), actual.inBegin(u));
+            assertEquals(expected.inEnd(u), actual.inEnd(u));
+        }
+        for (int i = 0; i < expected.edgeCount(); i++) {
+            assertEquals(expected.outTarget(i), actual.outTarget(i));
+            assertEquals(expected.outWeight(i), actual.outWeight(i));
+            assertEquals(expected.inSource(i), actual.inSource(i));
+            assertEquals(expected.inWeight(i), actual.inWeight(i));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import static org.junit.Assert.*;
+
+public class corpusBuilderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dir;
+
+    @Before
+    public void writeCorpus() throws IOException {
+        dir = folder.newFolder("docs").toPath();
+        Files.createDirectories(dir.resolve("sub"));
+        Files.writeString(dir.resolve("a.txt"), "the cat sat on the mat");
+        Files.writeString(dir.resolve("b.md"), "the dog sat");
+        Files.writeString(dir.resolve("empty.txt"), " 123, ... ");
+        Files.writeString(dir.resolve("sub/c.txt"), "a cat and the dog");
+    }
+
+    private Lab1.Graph graphOf(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        return Lab1.buildGraph(file.toString());
+    }
+
+    private static void assertSameEdges(Lab1.Graph expected, Lab1.Graph actual) {
+        assertEquals(expected.adjacencyList, actual.adjacencyList);
+        assertEquals(expected.incomingEdges.keySet(), actual.incomingEdges.keySet());
+        expected.incomingEdges.forEach((node, sources) ->
+                assertEquals(new HashSet<>(sources), new HashSet<>(actual.incomingEdges.get(node))));
+    }
+
+    private List<String> names(String pattern) throws IOException {
+        return Lab1.CorpusBuilder.resolve(pattern).stream()
+                .map(p -> dir.relativize(p).toString().replace('\\', '/')).collect(Collectors.toList());
+    }
+
+    @Test  // 目录递归包含所有普通文件，glob 只匹配对应的文件，结果按路径排序
+    public void testCase1_Resolve() throws IOException {
+        assertEquals(List.of("a.txt", "b.md", "empty.txt", "sub/c.txt"), names(dir.toString()));
+        assertEquals(List.of("a.txt", "empty.txt"), names(dir + "/*.txt"));
+        assertEquals(List.of("a.txt", "empty.txt", "sub/c.txt"), names(dir + "/**.txt"));
+        assertEquals(List.of("b.md"), names(dir + "/?.md"));
+        assertEquals(List.of(), names(dir + "/missing/*.txt"));
+        assertEquals(List.of("a.txt"), names(dir.resolve("a.txt").toString()));
+    }
+
+    @Test  // 文档之间不连边时与各文件分别构图后合并相同；没有单词的文件不影响结果
+    public void testCase2_SeparateDocuments() throws IOException {
+        Lab1.Graph expected = graphOf("the cat sat on the mat");
+        expected.merge(graphOf("the dog sat"));
+        expected.merge(graphOf("a cat and the dog"));
+        assertSameEdges(expected, Lab1.buildCorpus(dir.toString(), 2, false));
+    }
+
+    @Test  // 文档之间连边时与按路径顺序拼接后构图相同，跳过没有单词的文件
+    public void testCase3_CrossDocument() throws IOException {
+        Lab1.Graph expected = graphOf("the cat sat on the mat the dog sat a cat and the dog");
+        for (int threads : new int[]{1, 4}) {
+            assertSameEdges(expected, Lab1.buildCorpus(dir.toString(), threads, true));
+        }
+    }
+
+    @Test  // 只有没有单词的文件时得到空图
+    public void testCase4_NoWords() throws IOException {
+        Lab1.Graph graph = Lab1.buildCorpus(dir.resolve("empty.txt").toString(), 1, true);
+        assertTrue(graph.adjacencyList.isEmpty());
+        assertTrue(graph.incomingEdges.isEmpty());
+    }
+
+    @Test  // 同一个构建器重复构建（包括并发）得到相同的图，边权不会累加
+    public void testCase5_Reusable() throws Exception {
+        Lab1.CorpusBuilder builder = new Lab1.CorpusBuilder();
+        builder.crossDocument = true;
+        Map<String, Map<String, Integer>> first = builder.build(dir.toString()).adjacencyList;
+        assertEquals(first, builder.build(dir.toString()).adjacencyList);
+        List<Map<String, Map<String, Integer>>> parallel = List.of(1, 2, 3, 4).parallelStream().map(i -> {
+            try {
+                return builder.build(dir.toString()).adjacencyList;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }).collect(Collectors.toList());
+        parallel.forEach(graph -> assertEquals(first, graph));
+    }
+}
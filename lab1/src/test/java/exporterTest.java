@@ -0,0 +1,134 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.junit.Assert.*;
+
+public class exporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String DOT = "digraph G {\n"
+            + "    \"the\" -> \"cat\" [label=\"2\"];\n"
+            + "    \"the\" -> \"mat\" [label=\"1\"];\n"
+            + "    \"cat\" -> \"sat\" [label=\"1\"];\n"
+            + "    \"cat\" -> \"ran\" [label=\"1\"];\n"
+            + "    \"sat\" -> \"on\" [label=\"1\"];\n"
+            + "    \"on\" -> \"the\" [label=\"1\"];\n"
+            + "    \"mat\" -> \"the\" [label=\"1\"];\n"
+            + "}";
+
+    private static final String GRAPHML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+            + "  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"int\"/>\n"
+            + "  <graph id=\"G\" edgedefault=\"directed\">\n"
+            + "    <node id=\"the\"/>\n"
+            + "    <node id=\"cat\"/>\n"
+            + "    <node id=\"sat\"/>\n"
+            + "    <node id=\"on\"/>\n"
+            + "    <node id=\"mat\"/>\n"
+            + "    <node id=\"ran\"/>\n"
+            + "    <edge source=\"the\" target=\"cat\"><data key=\"weight\">2</data></edge>\n"
+            + "    <edge source=\"the\" target=\"mat\"><data key=\"weight\">1</data></edge>\n"
+            + "    <edge source=\"cat\" target=\"sat\"><data key=\"weight\">1</data></edge>\n"
+            + "    <edge source=\"cat\" target=\"ran\"><data key=\"weight\">1</data></edge>\n"
+            + "    <edge source=\"sat\" target=\"on\"><data key=\"weight\">1</data></edge>\n"
+            + "    <edge source=\"on\" target=\"the\"><data key=\"weight\">1</data></edge>\n"
+            + "    <edge source=\"mat\" target=\"the\"><data key=\"weight\">1</data></edge>\n"
+            + "  </graph>\n"
+            + "</graphml>\n";
+
+    private static final String EDGE_LIST = "the cat 2\n"
+            + "the mat 1\n"
+            + "cat sat 1\n"
+            + "cat ran 1\n"
+            + "sat on 1\n"
+            + "on the 1\n"
+            + "mat the 1\n";
+
+    private Path fixture;
+    private Lab1.CompiledGraph graph;
+
+    @Before
+    public void buildGraph() throws IOException {
+        fixture = folder.newFile("fixture-text").toPath();
+        Files.writeString(fixture, "The cat sat on the mat, the cat ran.");
+        graph = Lab1.buildCompiled(fixture.toString());
+    }
+
+    private String export(Lab1.GraphExporter exporter, Lab1.GraphExporter.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(graph, format, Channels.newChannel(out));
+        return out.toString();
+    }
+
+    @Test  // 三种格式的完整输出
+    public void testCase1_Formats() throws IOException {
+        Lab1.GraphExporter exporter = new Lab1.GraphExporter();
+        assertEquals(DOT, export(exporter, Lab1.GraphExporter.Format.DOT));
+        assertEquals(GRAPHML, export(exporter, Lab1.GraphExporter.Format.GRAPHML));
+        assertEquals(EDGE_LIST, export(exporter, Lab1.GraphExporter.Format.EDGE_LIST));
+    }
+
+    @Test  // 按最小权重过滤边；按度数或PageRank只保留前N个节点之间的边（GraphML 只列出保留的节点）
+    public void testCase2_Filters() throws IOException {
+        Lab1.GraphExporter exporter = new Lab1.GraphExporter();
+        exporter.minWeight = 2;
+        assertEquals("the cat 2\n", export(exporter, Lab1.GraphExporter.Format.EDGE_LIST));
+
+        exporter.minWeight = 1;
+        exporter.topN = 2;
+        assertEquals("the cat 2\n", export(exporter, Lab1.GraphExporter.Format.EDGE_LIST));
+        String graphml = export(exporter, Lab1.GraphExporter.Format.GRAPHML);
+        assertTrue(graphml, graphml.contains("    <node id=\"the\"/>\n    <node id=\"cat\"/>\n    <edge "));
+
+        // PageRank: the > cat = mat > on > sat = ran
+        exporter.topN = 4;
+        exporter.ranking = Lab1.GraphExporter.Ranking.PAGERANK;
+        assertEquals("the cat 2\nthe mat 1\non the 1\nmat the 1\n", export(exporter, Lab1.GraphExporter.Format.EDGE_LIST));
+
+        // topN 不小于节点数时不过滤
+        exporter.topN = graph.size();
+        assertEquals(EDGE_LIST, export(exporter, Lab1.GraphExporter.Format.EDGE_LIST));
+    }
+
+    @Test  // 按扩展名（不区分大小写）选择格式，目录名中的点不算扩展名
+    public void testCase3_FormatFromExtension() {
+        assertEquals(Lab1.GraphExporter.Format.GRAPHML, Lab1.GraphExporter.formatOf(Paths.get("out/graph.graphml")));
+        assertEquals(Lab1.GraphExporter.Format.GRAPHML, Lab1.GraphExporter.formatOf(Paths.get("GRAPH.GraphML")));
+        for (String name : new String[]{"g.txt", "g.tsv", "g.EDGES"}) {
+            assertEquals(name, Lab1.GraphExporter.Format.EDGE_LIST, Lab1.GraphExporter.formatOf(Paths.get(name)));
+        }
+        for (String name : new String[]{"g.dot", "g.gv", "g.png", "out.v1/graph"}) {
+            assertEquals(name, Lab1.GraphExporter.Format.DOT, Lab1.GraphExporter.formatOf(Paths.get(name)));
+        }
+        assertEquals("", Lab1.GraphExporter.extensionOf(Paths.get("out.v1/graph")));
+        assertEquals("svg", Lab1.GraphExporter.extensionOf(Paths.get("out/Graph.SVG")));
+    }
+
+    @Test  // 保存为导出格式的文件时按扩展名选择格式直接写文件，内容与导出当前图的结果相同
+    public void testCase4_SaveByExtension() throws Exception {
+        Lab1.graph = Lab1.buildGraph(fixture.toString());
+        graph = Lab1.compiledGraph();
+        Lab1.GraphExporter saved = Lab1.exporter;
+        Lab1.exporter = new Lab1.GraphExporter();
+        try {
+            Path dir = folder.newFolder("out.v1").toPath();
+            Lab1.showDirectedGraph1(dir.resolve("graph.dot").toString());
+            Lab1.showDirectedGraph1(dir.resolve("graph.graphml").toString());
+            Lab1.showDirectedGraph1(dir.resolve("graph.edges").toString());
+            assertEquals(export(Lab1.exporter, Lab1.GraphExporter.Format.DOT), Files.readString(dir.resolve("graph.dot")));
+            assertEquals(export(Lab1.exporter, Lab1.GraphExporter.Format.GRAPHML), Files.readString(dir.resolve("graph.graphml")));
+            assertEquals(export(Lab1.exporter, Lab1.GraphExporter.Format.EDGE_LIST), Files.readString(dir.resolve("graph.edges")));
+            assertEquals(EDGE_LIST.lines().sorted().toList(), Files.readString(dir.resolve("graph.edges")).lines().sorted().toList());
+        } finally {
+            Lab1.exporter = saved;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import static org.junit.Assert.*;
+
+public class graphBuilderTest {
+    private static String corpus;
+    private static String small;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void resolveFiles() throws IOException, URISyntaxException {
+        corpus = Paths.get(graphBuilderTest.class.getResource("/corpus-test.txt").toURI()).toString();
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "The scientist carefully analyzed the data, wrote a detailed report.");
+        small = file.toString();
+    }
+
+    @Test  // 直接构建的编译形式与 buildGraph 表示同一张图（编号顺序可以不同）
+    public void testCase1_SameGraphAsBuildGraph() throws IOException {
+        Lab1.Graph expected = Lab1.buildGraph(corpus);
+        Lab1.CompiledGraph built = Lab1.GraphBuilder.build(corpus);
+        Lab1.Graph actual = built.toGraph();
+        assertEquals(expected.adjacencyList, actual.adjacencyList);
+        assertEquals(expected.incomingEdges.keySet(), actual.incomingEdges.keySet());
+        expected.incomingEdges.forEach((node, sources) ->
+                assertEquals(new HashSet<>(sources), new HashSet<>(actual.incomingEdges.get(node))));
+        // 编号按首次出现的顺序分配
+        assertEquals("looking", built.word(0));
+        assertEquals("right", built.word(1));
+    }
+
+    @Test  // 依次加入的文件之间不连边：同一文件加入两次，边不变、权重加倍
+    public void testCase2_NoEdgeAcrossFiles() throws IOException {
+        Lab1.GraphBuilder builder = new Lab1.GraphBuilder().add(small).add(small);
+        Lab1.CompiledGraph once = Lab1.GraphBuilder.build(small);
+        Lab1.CompiledGraph twice = builder.freeze();
+        assertEquals(once.edgeCount(), twice.edgeCount());
+        for (int i = 0; i < once.edgeCount(); i++) {
+            assertEquals(2 * once.outWeight(i), twice.outWeight(i));
+        }
+    }
+
+    @Test  // freeze 之后还可以继续加入文件，之前冻结的结果不受影响
+    public void testCase3_FreezeThenContinue() throws IOException {
+        Lab1.GraphBuilder builder = new Lab1.GraphBuilder().add(small);
+        Lab1.CompiledGraph first = builder.freeze();
+        Lab1.CompiledGraph second = builder.add(corpus).freeze();
+        compiledGraphTest.assertSameGraph(Lab1.GraphBuilder.build(small), first);
+        assertTrue(second.size() > first.size());
+        for (int u = 0; u < first.size(); u++) {
+            assertEquals(first.word(u), second.word(u));
+        }
+    }
+}
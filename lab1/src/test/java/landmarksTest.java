@@ -0,0 +1,94 @@
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class landmarksTest {
+    private static String corpus;
+    private static Lab1.CompiledGraph graph;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        corpus = Paths.get(landmarksTest.class.getResource("/corpus-test.txt").toURI()).toString();
+        graph = Lab1.CompiledGraph.compile(Lab1.buildGraph(corpus));
+    }
+
+    private Lab1.CompiledGraph small() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "The scientist carefully analyzed the data, wrote a detailed report.");
+        return Lab1.CompiledGraph.compile(Lab1.buildGraph(file.toString()));
+    }
+
+    @Test  // 两种选择策略下A*的距离都与完整Dijkstra相同，路径有效
+    public void testCase1_AltAgreesWithFull() throws IOException {
+        Lab1.ShortestPaths full = new Lab1.ShortestPaths(graph);
+        for (Lab1.Landmarks.Strategy strategy : Lab1.Landmarks.Strategy.values()) {
+            Lab1.CompiledGraph g = Lab1.CompiledGraph.compile(Lab1.buildGraph(corpus));
+            g.useLandmarks(Lab1.Landmarks.compute(g, 8, strategy));
+            Lab1.ShortestPaths sp = new Lab1.ShortestPaths(g);
+            Random random = new Random(11);
+            for (int i = 0; i < 500; i++) {
+                int s = random.nextInt(g.size());
+                int t = random.nextInt(g.size());
+                int expected = full.distance(s, t, Lab1.SearchMode.FULL);
+                int actual = sp.distance(s, t, Lab1.SearchMode.LANDMARKS);
+                assertEquals(strategy + " " + s + " -> " + t, expected, actual);
+                if (actual != Lab1.ShortestPaths.INF) {
+                    shortestPathTest.assertPath(g, sp.path(t), s, t, actual);
+                }
+            }
+        }
+    }
+
+    @Test  // 下界不超过真实距离；能证明不可达时确实不可达
+    public void testCase2_LowerBoundIsAdmissible() {
+        Lab1.Landmarks landmarks = Lab1.Landmarks.compute(graph, 8, Lab1.Landmarks.Strategy.FARTHEST);
+        Lab1.ShortestPaths full = new Lab1.ShortestPaths(graph);
+        Random random = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            int s = random.nextInt(graph.size());
+            int t = random.nextInt(graph.size());
+            int bound = landmarks.lowerBound(s, t);
+            int distance = full.distance(s, t, Lab1.SearchMode.FULL);
+            if (bound == Lab1.ShortestPaths.INF) {
+                assertEquals(Lab1.ShortestPaths.INF, distance);
+            } else {
+                assertTrue(bound <= distance);
+            }
+        }
+    }
+
+    @Test  // 地标数量不少于节点数时也不会重复选同一个节点
+    public void testCase3_DistinctLandmarks() throws IOException {
+        Lab1.CompiledGraph small = small();
+        Lab1.Landmarks landmarks = Lab1.Landmarks.compute(small, small.size() + 5, Lab1.Landmarks.Strategy.FARTHEST);
+        assertEquals(small.size(), landmarks.nodes.length);
+        assertEquals(small.size(), Arrays.stream(landmarks.nodes).distinct().count());
+    }
+
+    @Test  // 保存后加载得到相同的地标和距离；不属于当前图的文件被拒绝
+    public void testCase4_SaveAndLoad() throws IOException {
+        Lab1.Landmarks landmarks = Lab1.Landmarks.compute(graph, 4, Lab1.Landmarks.Strategy.DEGREE);
+        Path file = folder.getRoot().toPath().resolve("graph.lmk");
+        landmarks.save(file);
+        Lab1.Landmarks loaded = Lab1.Landmarks.load(file, graph);
+        assertArrayEquals(landmarks.nodes, loaded.nodes);
+        for (int k = 0; k < landmarks.nodes.length; k++) {
+            assertArrayEquals(landmarks.from[k], loaded.from[k]);
+            assertArrayEquals(landmarks.to[k], loaded.to[k]);
+        }
+        Lab1.CompiledGraph other = small();
+        assertThrows(IOException.class, () -> Lab1.Landmarks.load(file, other));
+    }
+}
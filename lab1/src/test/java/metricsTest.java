@@ -0,0 +1,90 @@
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class metricsTest {
+    /** 桶的总数：32个线性桶 + 58个二次幂区间各16个桶 */
+    private static final int BUCKETS = 32 + 58 * 16;
+
+    @Test  // 小于32的值各占一个桶；每个桶的下界映射回该桶，桶宽不超过下界的 1/16
+    public void testCase1_BucketBoundaries() {
+        for (int v = 0; v < 32; v++) {
+            assertEquals(v, Lab1.Histogram.bucket(v));
+            assertEquals(v, Lab1.Histogram.lowerBound(v));
+        }
+        assertEquals(32, Lab1.Histogram.bucket(32));
+        assertEquals(47, Lab1.Histogram.bucket(63));
+        assertEquals(48, Lab1.Histogram.bucket(64));
+        assertEquals(BUCKETS - 1, Lab1.Histogram.bucket(Long.MAX_VALUE));
+        for (int b = 0; b < BUCKETS; b++) {
+            long low = Lab1.Histogram.lowerBound(b);
+            assertEquals(b, Lab1.Histogram.bucket(low));
+            if (b > 0) {
+                assertEquals(b - 1, Lab1.Histogram.bucket(low - 1));
+            }
+            if (b >= 32 && b + 1 < BUCKETS) {
+                long width = Lab1.Histogram.lowerBound(b + 1) - low;
+                assertTrue(b + ": " + width, width * 16 <= low);
+            }
+        }
+    }
+
+    @Test  // 分位数为所在桶的上界（不超过最大值）；空直方图全部为0；负数按0记录
+    public void testCase2_Percentiles() {
+        Lab1.Histogram empty = new Lab1.Histogram();
+        assertEquals(0, empty.percentile(0.5));
+        assertEquals(0.0, empty.mean(), 0.0);
+
+        Lab1.Histogram h = new Lab1.Histogram();
+        for (int v = 1; v <= 100; v++) {
+            h.record(v);
+        }
+        assertEquals(100, h.count());
+        assertEquals(5050, h.sum());
+        assertEquals(50.5, h.mean(), 1e-12);
+        assertEquals(1, h.percentile(0.0));
+        assertEquals(10, h.percentile(0.10));
+        assertEquals(51, h.percentile(0.50));   // 50 所在的桶为 [50, 51]
+        assertEquals(99, h.percentile(0.99));   // 99 所在的桶为 [96, 99]
+        assertEquals(100, h.percentile(1.0));   // 100 所在的桶为 [100, 103]，不超过最大值
+
+        Lab1.Histogram negative = new Lab1.Histogram();
+        negative.record(-5);
+        assertEquals(0, negative.max());
+        assertEquals(0, negative.percentile(0.5));
+    }
+
+    @Test  // 随机数据的分位数不小于精确值，相对误差不超过 1/16
+    public void testCase3_PercentileError() {
+        Random random = new Random(5);
+        Lab1.Histogram h = new Lab1.Histogram();
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 30);
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values[values.length - 1], h.max());
+        for (double p : new double[]{0.01, 0.25, 0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(p * values.length) - 1];
+            long approx = h.percentile(p);
+            assertTrue(p + ": " + approx + " < " + exact, approx >= exact);
+            assertTrue(p + ": " + approx + " vs " + exact, approx - exact <= exact / 16);
+        }
+    }
+
+    @Test  // 文本报告的单行格式：按 scale 换算单位
+    public void testCase4_TextLine() {
+        Lab1.Histogram h = new Lab1.Histogram();
+        h.record(1000);
+        h.record(2000);
+        h.record(3000);
+        StringBuilder out = new StringBuilder();
+        Lab1.Metrics.line(out, "query.path", h, "us", 1e3);
+        assertEquals(String.format("query.path           count=3 mean=2.0 p50=2.0 p90=3.0 p99=3.0 max=3.0 us%n"), out.toString());
+        if (!Lab1.Metrics.ENABLED) {
+            assertEquals("metrics disabled (run with -Dlab1.metrics=true)", Lab1.Metrics.report());
+        }
+    }
+}
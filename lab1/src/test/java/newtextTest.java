@@ -0,0 +1,233 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.io.*;
+import static org.junit.Assert.*;
+import static org.junit.Assert.assertTrue;
+
+public class newtextTest {
+
+
+    /* 测试用例1：多位置插入桥接词 */
+    @Test
+    public void testCase1_MultipleInsertions() throws IOException {
+        String input = "3\nmore wrote detailed with\n0\n";
+        String expected = "New text: more data wrote a detailed report with";
+        runTest(input, expected);
+    }
+
+    /* 测试用例2：无桥接词 */
+    @Test
+    public void testCase2_ConsecutiveInsertions() throws IOException {
+        String input = "3\na b c d\n0\n";
+        String expected = "New text: a b c d";
+        runTest(input, expected);
+    }
+
+    /* 测试用例3：句子全部都小写 */
+    @Test
+    public void testCase3_RandomSelection() throws IOException {
+        String input = "3\nbut scientist\n0\n";
+        String[] expectedOptions = {
+                "New text: but the scientist",
+                "New text: but a scientist"
+        };
+        runTestMultiple(input, expectedOptions);
+    }
+
+    /* 测试用例4：句子存在大写 */
+    @Test
+    public void testCase4_CaseInsensitive() throws IOException {
+        String input = "3\nBut Scientist It\n0\n";
+        String expected = "New text: but the scientist analyzed it";
+        runTest(input, expected);
+    }
+
+    /* 测试用例5：存在字母外符号 */
+    @Test
+    public void testCase5_SpecialCharacters() throws IOException {
+        String input = "3\nit111but\n0\n";
+        String expected = "New text: it again but";
+        runTest(input, expected);
+    }
+
+    /* 测试用例6：输入空 */
+    @Test
+    public void testCase6_InvalidInput() throws IOException {
+        String input = "3\n\n0\n";
+        String expected = "Invalid input!";
+        runTest(input, expected);
+    }
+
+    /* 测试用例7：固定种子的随机数生成器得到确定的结果，流式接口与字符串接口相同 */
+    @Test
+    public void testCase7_SeededIsDeterministic() throws IOException {
+        Lab1.graph = Lab1.buildGraph(corpus());
+        Lab1.CompiledGraph g = Lab1.compiledGraph();
+        String text = sampleText(g, 2000);
+        String first = Lab1.generateNewText(g, text, new SplittableRandom(7));
+        assertEquals(first, Lab1.generateNewText(g, text, new SplittableRandom(7)));
+        StringWriter out = new StringWriter();
+        Lab1.generateNewText(new StringReader(text), out, new SplittableRandom(7));
+        assertEquals(first, out.toString());
+        assertNotEquals(first, Lab1.generateNewText(g, text, new SplittableRandom(8)));
+    }
+
+    /* 测试用例8：输入分成小块读取、单词跨越读缓冲区边界时，结果与整段输入相同 */
+    @Test
+    public void testCase8_StreamAcrossBufferBoundaries() throws IOException {
+        Lab1.graph = Lab1.buildGraph(fixture());
+        Lab1.CompiledGraph g = Lab1.compiledGraph();
+        // 每组桥接词最多一个，结果与随机数无关："more wrote detailed with" -> "more data wrote a detailed report with"
+        String sentence = "More, wrote 123 detailed...with ";
+        String expected = String.join(" ", Collections.nCopies(2000, "more data wrote a detailed report with"));
+        String input = sentence.repeat(2000);
+        assertTrue(input.length() > 8192 * 4);
+        for (int chunk : new int[]{1, 7, 8191, 8193}) {
+            StringWriter out = new StringWriter();
+            Lab1.generateNewText(g, new ChunkedReader(input, chunk), out, new SplittableRandom(1));
+            assertEquals("chunk " + chunk, expected, out.toString());
+        }
+        assertEquals(expected, Lab1.generateNewText(g, input, new SplittableRandom(1)));
+    }
+
+    /* 测试用例9：并行批量生成与逐篇生成的结果相同，且与线程调度无关 */
+    @Test
+    public void testCase9_BatchMatchesSequential() throws IOException {
+        Lab1.graph = Lab1.buildGraph(corpus());
+        Lab1.CompiledGraph g = Lab1.compiledGraph();
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            documents.add(sampleText(g, 50 + i * 10));
+        }
+        long seed = 12345;
+        List<String> batch = Lab1.generateNewTexts(documents, seed);
+        assertEquals(documents.size(), batch.size());
+        for (int i = 0; i < documents.size(); i++) {
+            assertEquals(Lab1.generateNewText(g, documents.get(i), new SplittableRandom(seed ^ (i * 0x9E3779B97F4A7C15L))),
+                    batch.get(i));
+        }
+        assertEquals(batch, Lab1.generateNewTexts(documents, seed));
+    }
+
+    /** 从图中按编号轮流取单词组成的文本，相邻单词之间常有多个桥接词 */
+    private static String sampleText(Lab1.CompiledGraph g, int words) {
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(words);
+        for (int i = 0; i < words; i++) {
+            int v = random.nextInt(g.size());
+            // 一半的单词取上一个单词的出边目标的出边目标，保证存在桥接词
+            if (i > 0 && i % 2 == 0 && g.outDegree(v) > 0) {
+                int mid = g.outTarget(g.outBegin(v) + random.nextInt(g.outDegree(v)));
+                if (g.outDegree(mid) > 0) {
+                    text.append(g.word(v)).append(' ');
+                    v = g.outTarget(g.outBegin(mid) + random.nextInt(g.outDegree(mid)));
+                }
+            }
+            text.append(g.word(v)).append(i % 7 == 6 ? ". " : " ");
+        }
+        return text.toString();
+    }
+
+    /** 每次最多返回 chunk 个字符的 Reader */
+    private static final class ChunkedReader extends Reader {
+        private final String text;
+        private final int chunk;
+        private int pos;
+
+        ChunkedReader(String text, int chunk) {
+            this.text = text;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (pos == text.length()) {
+                return -1;
+            }
+            int n = Math.min(Math.min(len, chunk), text.length() - pos);
+            text.getChars(pos, pos + n, cbuf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static String corpus() throws IOException {
+        try {
+            return Paths.get(newtextTest.class.getResource("/corpus-test.txt").toURI()).toString();
+        } catch (java.net.URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 用例断言的桥接关系（如 the -> team -> but、but -> a/two -> team）并不都出现在仓库根目录的 Easy Test.txt 中，
+     * 测试使用自己的输入文件 src/test/resources/menu-test.txt：Easy Test.txt 的原文加上 "But a team and but two team."
+     */
+    private static String fixture() throws IOException {
+        try {
+            return Paths.get(newtextTest.class.getResource("/menu-test.txt").toURI()).toString();
+        } catch (java.net.URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void runTest(String input, String expectedOutput) throws IOException {
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+
+        try {
+            InputStream in = new ByteArrayInputStream(input.getBytes());
+            System.setIn(in);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(out));
+
+            Main.main(new String[]{fixture()});
+
+            String actualOutput = out.toString();
+            assertTrue("Expected output not found: " + expectedOutput,
+                    actualOutput.contains(expectedOutput));
+
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+    }
+
+    private void runTestMultiple(String input, String... expectedOptions) throws IOException {
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+
+        try {
+            InputStream in = new ByteArrayInputStream(input.getBytes());
+            System.setIn(in);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(out));
+
+            Main.main(new String[]{fixture()});
+
+            String actualOutput = out.toString();
+            boolean found = false;
+            for (String expected : expectedOptions) {
+                if (actualOutput.contains(expected)) {
+                    found = true;
+                    break;
+                }
+            }
+            assertTrue("None of the expected outputs matched: " + String.join(" OR ", expectedOptions), found);
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+    }
+}
\ No newline at end of file
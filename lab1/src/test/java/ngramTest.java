@@ -0,0 +1,87 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class ngramTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 状态 s 的全部转移：下一个单词 -> 权重 */
+    private static Map<Integer, Integer> transitions(Lab1.NGramModel model, int s) {
+        Map<Integer, Integer> result = new TreeMap<>();
+        for (int i = model.offsets[s]; i < model.offsets[s + 1]; i++) {
+            result.put(model.nextWords[i], model.cumulative[i] - (i > model.offsets[s] ? model.cumulative[i - 1] : 0));
+        }
+        return result;
+    }
+
+    @Test  // 2 阶模型就是普通单词图：每个状态的转移与该单词的出边和权重相同
+    public void testCase1_OrderTwoIsBigramGraph() throws IOException, URISyntaxException {
+        String corpus = Paths.get(ngramTest.class.getResource("/corpus-test.txt").toURI()).toString();
+        Lab1.NGramModel model = Lab1.buildNGram(corpus, 2);
+        Lab1.CompiledGraph g = model.bigrams;
+        compiledGraphTest.assertSameGraph(Lab1.GraphBuilder.build(corpus), g);
+        int withEdges = 0;
+        for (int u = 0; u < g.size(); u++) {
+            withEdges += g.outDegree(u) > 0 ? 1 : 0;
+        }
+        assertEquals(g.edgeCount(), model.transitionCount());
+        int states = 0;
+        for (int s = 0; s < model.stateCount(); s++) {
+            states += model.hasTransitions(s) ? 1 : 0;
+            int u = model.stateWord(s, 0);
+            Map<Integer, Integer> expected = new TreeMap<>();
+            for (int i = g.outBegin(u); i < g.outEnd(u); i++) {
+                expected.put(g.outTarget(i), g.outWeight(i));
+            }
+            assertEquals(g.word(u), expected, transitions(model, s));
+        }
+        // 文本最后一个单词也是状态，但没有转移
+        assertEquals(withEdges, states);
+    }
+
+    @Test  // 3 阶模型的转移与直接统计三元组的结果相同，转移后的状态为后两个单词
+    public void testCase2_OrderThreeCountsTrigrams() throws IOException {
+        String text = "the cat sat on the mat the cat ran to the dog on the mat the cat sat on the dog";
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        Lab1.NGramModel model = Lab1.buildNGram(file.toString(), 3);
+        Lab1.CompiledGraph g = model.bigrams;
+        String[] words = text.split(" ");
+        Map<List<Integer>, Map<Integer, Integer>> expected = new HashMap<>();
+        for (int i = 2; i < words.length; i++) {
+            expected.computeIfAbsent(List.of(g.id(words[i - 2]), g.id(words[i - 1])), k -> new TreeMap<>())
+                    .merge(g.id(words[i]), 1, Integer::sum);
+        }
+        int states = 0;
+        for (int s = 0; s < model.stateCount(); s++) {
+            if (!model.hasTransitions(s)) {
+                continue;
+            }
+            states++;
+            List<Integer> context = List.of(model.stateWord(s, 0), model.stateWord(s, 1));
+            assertEquals(context.toString(), expected.get(context), transitions(model, s));
+            for (int i = model.offsets[s]; i < model.offsets[s + 1]; i++) {
+                assertEquals(context.get(1).intValue(), model.stateWord(model.nextStates[i], 0));
+                assertEquals(model.nextWords[i], model.stateWord(model.nextStates[i], 1));
+            }
+        }
+        assertEquals(expected.size(), states);
+        // the cat -> sat/ran -> on/to
+        int[] ids = {g.id("the"), g.id("cat")};
+        assertArrayEquals(new int[]{g.id("sat")}, model.bridges(model.state(ids, 1), g.id("on")));
+    }
+
+    @Test  // 阶数超出范围时拒绝
+    public void testCase3_RejectsBadOrder() {
+        assertThrows(IllegalArgumentException.class, () -> new Lab1.NGramBuilder(1));
+        assertThrows(IllegalArgumentException.class, () -> new Lab1.NGramBuilder(Lab1.NGramModel.MAX_ORDER + 1));
+    }
+}
@@ -0,0 +1,39 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import static org.junit.Assert.*;
+
+public class offHeapTest {
+    private static Lab1.CompiledGraph heap;
+    private static Lab1.CompiledGraph offHeap;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        heap = Lab1.buildCompiled(Paths.get(offHeapTest.class.getResource("/corpus-test.txt").toURI()).toString());
+        offHeap = heap.toOffHeap();
+    }
+
+    @Test  // 复制到堆外后字典和CSR数组完全相同
+    public void testCase1_SameAsHeap() {
+        assertTrue(offHeap.isOffHeap());
+        assertFalse(heap.isOffHeap());
+        compiledGraphTest.assertSameGraph(heap, offHeap);
+        assertEquals(-1, offHeap.id("notaword"));
+    }
+
+    @Test  // 查询结果与堆上的表示相同
+    public void testCase2_SameQueryResults() {
+        for (String[] pair : new String[][]{{"the", "of"}, {"i", "was"}, {"dark", "things"}, {"notaword", "the"}}) {
+            assertEquals(Lab1.queryBridgeWords(heap, pair[0], pair[1]), Lab1.queryBridgeWords(offHeap, pair[0], pair[1]));
+            assertEquals(Lab1.calcShortestPath(heap, pair[0], pair[1]), Lab1.calcShortestPath(offHeap, pair[0], pair[1]));
+        }
+        assertArrayEquals(heap.pageRank().ranks, offHeap.pageRank().ranks, 1e-12);
+    }
+
+    @Test  // 还原为可修改的 Graph 后与堆上的表示还原结果相同
+    public void testCase3_ToGraph() {
+        assertEquals(heap.toGraph().adjacencyList, offHeap.toGraph().adjacencyList);
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+
+public class pageRankTest {
+    private static Lab1.CompiledGraph graph;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        graph = Lab1.CompiledGraph.compile(Lab1.buildGraph(Paths.get(pageRankTest.class.getResource("/corpus-test.txt").toURI()).toString()));
+    }
+
+    @Test  // 收敛，所有PR值为正且总和为1
+    public void testCase1_Distribution() {
+        Lab1.PageRank pageRank = Lab1.PageRank.compute(graph, null, null);
+        assertTrue(pageRank.iterations < Lab1.PageRank.MAX_ITERATIONS);
+        assertTrue(pageRank.residual < Lab1.PageRank.TOLERANCE);
+        assertEquals(1.0, Arrays.stream(pageRank.ranks).sum(), 1e-9);
+        assertTrue(Arrays.stream(pageRank.ranks).allMatch(r -> r > 0));
+    }
+
+    @Test  // 结果是不动点：PR(v) = (1-d + d×悬挂节点PR之和)/n + d × Σ PR(u)/出度(u)
+    public void testCase2_FixedPoint() {
+        double[] pr = Lab1.PageRank.compute(graph, null, null).ranks;
+        int n = graph.size();
+        double dangling = 0;
+        for (int u = 0; u < n; u++) {
+            if (graph.outDegree(u) == 0) {
+                dangling += pr[u];
+            }
+        }
+        double d = Lab1.PageRank.DAMPING;
+        for (int v = 0; v < n; v++) {
+            double sum = 0;
+            for (int i = graph.inBegin(v); i < graph.inEnd(v); i++) {
+                sum += pr[graph.inSource(i)] / graph.outDegree(graph.inSource(i));
+            }
+            assertEquals(graph.word(v), (1 - d + d * dangling) / n + d * sum, pr[v], 1e-9);
+        }
+    }
+
+    @Test  // 收敛结果与初始向量无关
+    public void testCase3_IndependentOfInitialVector() {
+        double[] uniform = new double[graph.size()];
+        Arrays.fill(uniform, 1.0);
+        double[] a = Lab1.PageRank.compute(graph, null, null).ranks;
+        double[] b = Lab1.PageRank.compute(graph, uniform, null).ranks;
+        assertArrayEquals(a, b, 1e-9);
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static org.junit.Assert.*;
+
+public class parallelBuildTest {
+    private static String corpus;
+    private static Lab1.Graph sequential;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        corpus = Paths.get(parallelBuildTest.class.getResource("/corpus-test.txt").toURI()).toString();
+        sequential = Lab1.buildGraph(corpus);
+    }
+
+    @Test  // 各种线程数（区间边界落在不同位置）下的边和权重都与顺序构建相同
+    public void testCase1_SameEdgesAsSequential() throws IOException {
+        for (int threads : new int[]{2, 3, 4, 7, 16}) {
+            assertEquals("threads=" + threads, sequential.adjacencyList, Lab1.buildGraph(corpus, threads).adjacencyList);
+        }
+    }
+
+    @Test  // 入边列表中来源的出现顺序也与顺序构建相同
+    public void testCase2_SameIncomingOrder() throws IOException {
+        for (int threads : new int[]{2, 3, 4, 7, 16}) {
+            assertEquals("threads=" + threads, sequential.incomingEdges, Lab1.buildGraph(corpus, threads).incomingEdges);
+        }
+    }
+
+    @Test  // 线程数多于单词数时仍然正确
+    public void testCase3_MoreThreadsThanWords() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, "The scientist carefully analyzed the data, wrote a detailed report.");
+        String small = file.toString();
+        Lab1.Graph expected = Lab1.buildGraph(small);
+        Lab1.Graph actual = Lab1.buildGraph(small, 64);
+        assertEquals(expected.adjacencyList, actual.adjacencyList);
+        assertEquals(expected.incomingEdges, actual.incomingEdges);
+    }
+
+    @Test  // 区间边界落在比读取窗口更长的单词中时，边界移到单词之后，任何边界都不在单词中间
+    public void testCase4_LongWordsAcrossBoundaries() throws IOException {
+        Path file = folder.newFile().toPath();
+        String text = "a " + "x".repeat(1000) + " b " + "y".repeat(300) + "z".repeat(300) + " c d";
+        Files.writeString(file, text);
+        for (int threads : new int[]{2, 3, 5, 16}) {
+            try (FileChannel channel = FileChannel.open(file)) {
+                long[] bounds = Lab1.chunkBounds(channel, threads);
+                assertEquals(0, bounds[0]);
+                assertEquals(text.length(), bounds[threads]);
+                for (int i = 1; i < threads; i++) {
+                    long pos = bounds[i];
+                    assertTrue(bounds[i - 1] <= pos);
+                    assertFalse("threads=" + threads + " bound=" + pos, pos > 0 && pos < text.length()
+                            && Character.isLetter(text.charAt((int) pos - 1)) && Character.isLetter(text.charAt((int) pos)));
+                }
+            }
+            Lab1.Graph expected = Lab1.buildGraph(file.toString());
+            Lab1.Graph actual = Lab1.buildGraph(file.toString(), threads);
+            assertEquals(expected.adjacencyList, actual.adjacencyList);
+            assertEquals(expected.incomingEdges, actual.incomingEdges);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+import static org.junit.Assert.*;
+
+public class queryServerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static HttpResponse<String> get(HttpClient http, String uri) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(uri)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(HttpClient http, String uri) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test  // 多文件语料重复重新加载时每次都从头构图，边权不会累加
+    public void testCase1_ReloadCorpusTwice() throws IOException, InterruptedException {
+        Path dir = folder.newFolder("docs").toPath();
+        Files.writeString(dir.resolve("one.txt"), "a b c a b");
+        Files.writeString(dir.resolve("two.txt"), "b c d");
+        Lab1.CorpusBuilder corpus = new Lab1.CorpusBuilder();
+        corpus.crossDocument = true;
+        Lab1.QueryServer.Loader loader = Lab1.QueryServer.Loader.of(dir.toString(), 1, corpus);
+        Lab1.CompiledGraph initial = loader.load();
+        assertEquals(Lab1.buildCompiled(writeConcatenated("a b c a b b c d")).toGraph().adjacencyList,
+                initial.toGraph().adjacencyList);
+
+        Lab1.QueryServer server = new Lab1.QueryServer(initial, new InetSocketAddress("127.0.0.1", 0), loader);
+        server.start();
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            String reload = "http://127.0.0.1:" + server.address().getPort() + "/reload";
+            for (int i = 0; i < 2; i++) {
+                assertEquals(200, post(http, reload).statusCode());
+                assertNotSame(initial, server.graph());
+                assertEquals(initial.toGraph().adjacencyList, server.graph().toGraph().adjacencyList);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test  // 各查询接口的结果与直接调用相同；缺少参数返回400；/reload 只接受 POST，重新加载后查询使用新图
+    public void testCase2_Endpoints() throws Exception {
+        Path corpus = folder.newFile("menu.txt").toPath();
+        Files.copy(Paths.get(queryServerTest.class.getResource("/menu-test.txt").toURI()), corpus,
+                StandardCopyOption.REPLACE_EXISTING);
+        Lab1.CompiledGraph g = Lab1.buildCompiled(corpus.toString());
+        Lab1.QueryServer server = new Lab1.QueryServer(g, new InetSocketAddress("127.0.0.1", 0),
+                () -> Lab1.buildCompiled(corpus.toString()));
+        server.start();
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.address().getPort();
+            assertEquals(Lab1.queryBridgeWords(g, "the", "but"), get(http, base + "/bridge?from=the&to=but").body());
+            assertEquals(Lab1.queryBridgeChains(g, "but", "team", 2), get(http, base + "/chains?from=but&to=team&k=2").body());
+            assertEquals(Lab1.calcShortestPath(g, "The", "report"), get(http, base + "/path?from=The&to=report").body());
+            assertEquals(Lab1.calcShortestPath(g, "data", ""), get(http, base + "/path?from=data").body());
+            assertEquals(String.valueOf(Lab1.calcPageRank(g, "team")), get(http, base + "/pagerank?word=team").body());
+            assertEquals(Lab1.topPageRank(g, 1).get(0).getKey(), get(http, base + "/pagerank?top=1").body().split(" ")[0]);
+            assertEquals(Lab1.generateNewText(g, "more wrote detailed with", new SplittableRandom(1)),
+                    get(http, base + "/newtext?text=more%20wrote%20detailed%20with&seed=1").body());
+            HttpResponse<String> newText = http.send(HttpRequest.newBuilder(URI.create(base + "/newtext?seed=1"))
+                    .POST(HttpRequest.BodyPublishers.ofString("but scientist")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(Lab1.generateNewText(g, "but scientist", new SplittableRandom(1)), newText.body());
+            assertEquals(Lab1.randomWalk(g, new SplittableRandom(3)), get(http, base + "/walk?seed=3").body());
+            assertEquals(Lab1.analyzeGraph(g), get(http, base + "/analytics").body());
+
+            HttpResponse<String> missing = get(http, base + "/bridge?from=the");
+            assertEquals(400, missing.statusCode());
+            assertEquals("Bad request: missing parameter 'to'", missing.body());
+
+            // GET 不会重新加载
+            Files.writeString(corpus, "alpha beta gamma");
+            assertEquals(400, get(http, base + "/reload").statusCode());
+            assertSame(g, server.graph());
+            HttpResponse<String> reload = post(http, base + "/reload");
+            assertEquals(200, reload.statusCode());
+            assertEquals("Reloaded: 3 words, 2 edges", reload.body());
+            assertNotSame(g, server.graph());
+            assertEquals(Lab1.queryBridgeWords(server.graph(), "alpha", "gamma"),
+                    get(http, base + "/bridge?from=alpha&to=gamma").body());
+            assertTrue(get(http, base + "/bridge?from=alpha&to=gamma").body().contains("beta"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private String writeConcatenated(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        return file.toString();
+    }
+}
@@ -0,0 +1,45 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import static org.junit.Assert.*;
+
+public class randomWalkTest {
+    private static Lab1.CompiledGraph graph;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        graph = Lab1.buildCompiled(Paths.get(randomWalkTest.class.getResource("/menu-test.txt").toURI()).toString());
+    }
+
+    @Test  // 最大长度小于1时拒绝，而不是写越界
+    public void testCase1_RejectsZeroLength() {
+        Lab1.RandomWalker walker = new Lab1.RandomWalker(graph);
+        assertThrows(IllegalArgumentException.class, () -> walker.walks(3, 0, 1L));
+    }
+
+    @Test  // 最大长度为1时每条游走只有起点
+    public void testCase2_LengthOne() {
+        Lab1.WalkBatch batch = new Lab1.RandomWalker(graph).walks(5, 1, 1L);
+        assertEquals(5, batch.count());
+        for (int i = 0; i < batch.count(); i++) {
+            assertEquals(1, batch.walk(i).length);
+        }
+    }
+
+    @Test  // 同一种子结果相同，且相邻节点之间都有边
+    public void testCase3_ReproducibleAlongEdges() {
+        Lab1.RandomWalker walker = new Lab1.RandomWalker(graph);
+        Lab1.WalkBatch a = walker.walks(50, 20, 42L);
+        Lab1.WalkBatch b = walker.walks(50, 20, 42L);
+        for (int i = 0; i < a.count(); i++) {
+            int[] walk = a.walk(i);
+            assertArrayEquals(walk, b.walk(i));
+            assertTrue(walk.length >= 1 && walk.length <= 20);
+            for (int j = 1; j < walk.length; j++) {
+                assertTrue(graph.hasOutTarget(graph.outBegin(walk[j - 1]), graph.outEnd(walk[j - 1]), walk[j]));
+            }
+        }
+    }
+}
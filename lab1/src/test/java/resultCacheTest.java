@@ -0,0 +1,138 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+
+public class resultCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Lab1.CompiledGraph graphOf(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        return Lab1.buildCompiled(file.toString());
+    }
+
+    @Test  // 同一张图上的相同查询只计算一次
+    public void testCase1_Hit() throws IOException {
+        Lab1.ResultCache cache = new Lab1.ResultCache(1 << 16);
+        Lab1.CompiledGraph g = graphOf("a b c");
+        AtomicInteger computed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("x", cache.get(g, "q", List.of("a"), String::length, () -> {
+                computed.incrementAndGet();
+                return "x";
+            }));
+        }
+        assertEquals(1, computed.get());
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test  // 出现更新的图后缓存清空；旧图上的查询直接计算，不写入缓存
+    public void testCase2_NewGenerationInvalidates() throws IOException {
+        Lab1.ResultCache cache = new Lab1.ResultCache(1 << 16);
+        Lab1.CompiledGraph old = graphOf("a b c");
+        cache.get(old, "q", List.of("a"), String::length, () -> "old");
+        Lab1.CompiledGraph next = graphOf("a x c");
+        assertEquals("new", cache.get(next, "q", List.of("a"), String::length, () -> "new"));
+        assertEquals(1, cache.size());
+        assertEquals("stale", cache.get(old, "q", List.of("a"), String::length, () -> "stale"));
+        assertEquals("new", cache.get(next, "q", List.of("a"), String::length, () -> "other"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test  // 权重为负或容量为0时不缓存
+    public void testCase3_NotCached() throws IOException {
+        Lab1.CompiledGraph g = graphOf("a b c");
+        Lab1.ResultCache cache = new Lab1.ResultCache(1 << 16);
+        AtomicInteger computed = new AtomicInteger();
+        cache.get(g, "q", List.of(), v -> -1, () -> "v" + computed.incrementAndGet());
+        cache.get(g, "q", List.of(), v -> -1, () -> "v" + computed.incrementAndGet());
+        assertEquals(2, computed.get());
+        Lab1.ResultCache disabled = new Lab1.ResultCache(0);
+        disabled.get(g, "q", List.of(), String::length, () -> "v" + computed.incrementAndGet());
+        disabled.get(g, "q", List.of(), String::length, () -> "v" + computed.incrementAndGet());
+        assertEquals(4, computed.get());
+        assertEquals(0, disabled.size());
+    }
+
+    @Test  // 查询服务重新加载配置的语料后，缓存的结果不再返回
+    public void testCase4_ReloadInvalidates() throws IOException, InterruptedException {
+        Path corpus = folder.newFile("corpus.txt").toPath();
+        Files.writeString(corpus, "alpha beta gamma");
+        Lab1.QueryServer server = new Lab1.QueryServer(Lab1.buildCompiled(corpus.toString()),
+                new InetSocketAddress("127.0.0.1", 0), () -> Lab1.buildCompiled(corpus.toString()));
+        server.start();
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.address().getPort();
+            HttpRequest path = HttpRequest.newBuilder(URI.create(base + "/path?from=alpha&to=gamma")).build();
+            String before = http.send(path, HttpResponse.BodyHandlers.ofString()).body();
+            assertTrue(before, before.contains("beta"));
+
+            Files.writeString(corpus, "alpha delta gamma");
+            HttpResponse<String> reload = http.send(HttpRequest.newBuilder(URI.create(base + "/reload"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, reload.statusCode());
+            String after = http.send(path, HttpResponse.BodyHandlers.ofString()).body();
+            assertTrue(after, after.contains("delta"));
+            assertFalse(after, after.contains("beta"));
+
+            // 重新加载只能用 POST
+            assertEquals(400, http.send(HttpRequest.newBuilder(URI.create(base + "/reload")).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test  // 没有配置来源时拒绝重新加载
+    public void testCase5_ReloadNotConfigured() throws IOException, InterruptedException {
+        Lab1.QueryServer server = new Lab1.QueryServer(graphOf("a b c"), new InetSocketAddress("127.0.0.1", 0), null);
+        server.start();
+        try {
+            HttpResponse<String> reload = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                            URI.create("http://127.0.0.1:" + server.address().getPort() + "/reload"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, reload.statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test  // 路径查询按小写单词缓存，大小写不同的参数共用一项，输出保留各自输入的大小写；单源结果按最短路径树计权
+    public void testCase6_PathKeyIgnoresCase() throws IOException {
+        Lab1.CompiledGraph g = graphOf("the cat saw the dog");
+        Lab1.ResultCache saved = Lab1.results;
+        Lab1.results = new Lab1.ResultCache(1 << 16);
+        try {
+            assertEquals("Shortest path from 'The' to 'DOG': the → dog (Length: 1)", Lab1.calcShortestPath(g, "The", "DOG"));
+            assertEquals("Shortest path from 'the' to 'dog': the → dog (Length: 1)", Lab1.calcShortestPath(g, "the", "dog"));
+            assertEquals("No path from 'Dog' to 'cat'!", Lab1.calcShortestPath(g, "Dog", "cat"));
+            assertEquals(2, Lab1.results.size());
+            assertEquals(1, Lab1.results.hits());
+
+            String lower = Lab1.calcShortestPath(g, "cat", null);
+            String upper = Lab1.calcShortestPath(g, "CAT", null);
+            assertTrue(upper, upper.startsWith("Shortest paths from 'CAT':"));
+            assertEquals(lower.substring(lower.indexOf('\n')), upper.substring(upper.indexOf('\n')));
+            assertEquals(3, Lab1.results.size());
+            assertEquals(2, Lab1.results.hits());
+            // 路径：长度 + 2个编号；不可达：空数组；最短路径树：dist + prev
+            assertEquals(3 * 2 + 0 + 2 * g.size() * 2, Lab1.results.weight());
+        } finally {
+            Lab1.results = saved;
+        }
+    }
+}
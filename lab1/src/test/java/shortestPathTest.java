@@ -0,0 +1,140 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class shortestPathTest {
+    private static Lab1.CompiledGraph graph;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        graph = Lab1.CompiledGraph.compile(Lab1.buildGraph(Paths.get(shortestPathTest.class.getResource("/corpus-test.txt").toURI()).toString()));
+    }
+
+    @Test  // 提前结束和双向搜索的距离与完整Dijkstra相同，路径是一条长度等于该距离的真实路径
+    public void testCase1_ModesAgreeWithFull() {
+        Lab1.ShortestPaths full = new Lab1.ShortestPaths(graph);
+        Lab1.ShortestPaths sp = new Lab1.ShortestPaths(graph);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            int s = random.nextInt(graph.size());
+            int t = random.nextInt(graph.size());
+            int expected = full.distance(s, t, Lab1.SearchMode.FULL);
+            for (Lab1.SearchMode mode : new Lab1.SearchMode[]{Lab1.SearchMode.EARLY_EXIT, Lab1.SearchMode.BIDIRECTIONAL}) {
+                int actual = sp.distance(s, t, mode);
+                assertEquals(mode + " " + s + " -> " + t, expected, actual);
+                if (actual != Lab1.ShortestPaths.INF) {
+                    assertPath(graph, sp.path(t), s, t, actual);
+                }
+            }
+        }
+    }
+
+    @Test  // 源点与目标相同时距离为0，路径只有一个单词
+    public void testCase2_SourceIsTarget() {
+        Lab1.ShortestPaths sp = new Lab1.ShortestPaths(graph);
+        int v = graph.id("the");
+        for (Lab1.SearchMode mode : Lab1.SearchMode.values()) {
+            assertEquals(0, sp.distance(v, v, mode));
+            assertEquals(List.of("the"), sp.path(v));
+        }
+    }
+
+    @Test  // 提前结束的搜索出堆节点数不超过完整搜索
+    public void testCase3_EarlyExitSettlesLess() {
+        Lab1.ShortestPaths sp = new Lab1.ShortestPaths(graph);
+        int s = graph.id("the");
+        int t = graph.id("of");
+        sp.distance(s, t, Lab1.SearchMode.FULL);
+        int full = sp.settled;
+        sp.distance(s, t, Lab1.SearchMode.EARLY_EXIT);
+        assertTrue(sp.settled <= full);
+    }
+
+    @Test  // 最短路径树的距离与单源Dijkstra相同，从树中还原的路径是长度等于该距离的真实路径
+    public void testCase4_TreeMatchesDijkstra() throws IOException {
+        Lab1.ShortestPaths full = new Lab1.ShortestPaths(graph);
+        Random random = new Random(11);
+        int[] stack = new int[1];
+        for (int i = 0; i < 20; i++) {
+            int s = random.nextInt(graph.size());
+            Lab1.ShortestPathTree tree = Lab1.ShortestPathTree.of(graph, s);
+            full.run(s);
+            assertArrayEquals(full.dist, tree.dist);
+            for (int t = 0; t < graph.size(); t++) {
+                if (tree.dist[t] == Lab1.ShortestPaths.INF) {
+                    continue;
+                }
+                StringWriter out = new StringWriter();
+                stack = tree.writePath(t, out, stack);
+                assertPath(graph, List.of(out.toString().split(" → ")), s, t, tree.dist[t]);
+            }
+        }
+    }
+
+    @Test  // 批量距离表的每一行与单独运行该源点的结果相同
+    public void testCase5_DistanceTableMatchesPerSource() {
+        int[] sources = new Random(3).ints(64, 0, graph.size()).toArray();
+        int[][] table = Lab1.ShortestPathTree.distanceTable(graph, sources, 4);
+        assertEquals(sources.length, table.length);
+        Lab1.ShortestPaths sp = new Lab1.ShortestPaths(graph);
+        for (int i = 0; i < sources.length; i++) {
+            sp.run(sources[i]);
+            assertArrayEquals(sp.dist, table[i]);
+        }
+    }
+
+    @Test  // 流式写出的单源结果与 calcShortestPath 的单词模式相同，每个目标的长度与点对点查询一致
+    public void testCase6_StreamedSingleSource() throws IOException, URISyntaxException {
+        Lab1.graph = Lab1.buildGraph(Paths.get(shortestPathTest.class.getResource("/corpus-test.txt").toURI()).toString());
+        StringWriter out = new StringWriter();
+        assertTrue(Lab1.calcShortestPaths("Dark", out));
+        String streamed = out.toString();
+        assertEquals(Lab1.calcShortestPath("Dark", null), streamed.trim());
+
+        String[] lines = streamed.split("\n");
+        assertEquals("Shortest paths from 'Dark':", lines[0]);
+        int targets = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            targets += v != graph.id("dark") && graph.outDegree(v) > 0 ? 1 : 0;
+        }
+        assertEquals(targets + 1, lines.length);
+        for (int i = 1; i < lines.length; i += 97) {
+            String target = lines[i].substring("  To '".length(), lines[i].indexOf("':"));
+            String pair = Lab1.calcShortestPath("dark", target);
+            if (lines[i].endsWith("No path!")) {
+                assertTrue(pair, pair.startsWith("No path"));
+            } else {
+                assertEquals(pair.substring(pair.lastIndexOf(" (Length")), lines[i].substring(lines[i].lastIndexOf(" (Length")));
+            }
+        }
+        assertFalse(Lab1.calcShortestPaths("zzzz", new StringWriter()));
+    }
+
+    /**
+     * 路径从 s 开始、到 t 结束，相邻单词之间都有边，边权之和等于 length（地标测试共用）
+     */
+    static void assertPath(Lab1.CompiledGraph graph, List<String> path, int s, int t, int length) {
+        assertEquals(graph.word(s), path.get(0));
+        assertEquals(graph.word(t), path.get(path.size() - 1));
+        long total = 0;
+        for (int j = 1; j < path.size(); j++) {
+            int u = graph.id(path.get(j - 1));
+            int v = graph.id(path.get(j));
+            int weight = -1;
+            for (int i = graph.outBegin(u); i < graph.outEnd(u); i++) {
+                if (graph.outTarget(i) == v) {
+                    weight = graph.outWeight(i);
+                }
+            }
+            assertTrue(path.get(j - 1) + " -> " + path.get(j), weight > 0);
+            total += weight;
+        }
+        assertEquals(length, total);
+    }
+}
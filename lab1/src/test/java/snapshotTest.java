@@ -0,0 +1,114 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import static org.junit.Assert.*;
+
+public class snapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 把测试语料复制到临时目录（修改时间等测试会改动源文件） */
+    private Path copyCorpus() throws IOException, URISyntaxException {
+        Path source = folder.getRoot().toPath().resolve("corpus.txt");
+        Files.copy(Paths.get(snapshotTest.class.getResource("/corpus-test.txt").toURI()), source, StandardCopyOption.REPLACE_EXISTING);
+        return source;
+    }
+
+    @Test  // 写出后两种加载方式都还原出相同的图和PageRank
+    public void testCase1_RoundTrip() throws IOException, URISyntaxException {
+        Path source = copyCorpus();
+        Path file = folder.getRoot().toPath().resolve("graph.snap");
+        Lab1.CompiledGraph graph = Lab1.CompiledGraph.compile(Lab1.buildGraph(source.toString()));
+        Lab1.GraphSnapshot.write(graph, file, source, true);
+
+        Lab1.CompiledGraph mapped = Lab1.GraphSnapshot.load(file);
+        assertTrue(mapped.isOffHeap());
+        compiledGraphTest.assertSameGraph(graph, mapped);
+        assertEquals(-1, mapped.id("notaword"));
+        assertArrayEquals(graph.pageRank().ranks, mapped.pageRank().ranks, 0.0);
+
+        Lab1.CompiledGraph onHeap = Lab1.GraphSnapshot.loadOnHeap(file);
+        assertFalse(onHeap.isOffHeap());
+        compiledGraphTest.assertSameGraph(graph, onHeap);
+        assertArrayEquals(graph.pageRank().ranks, onHeap.pageRank().ranks, 0.0);
+    }
+
+    @Test  // 源文本未变时快照有效；只改修改时间（内容相同）仍有效；内容改变后过期
+    public void testCase2_Staleness() throws IOException, URISyntaxException {
+        Path source = copyCorpus();
+        Path file = folder.getRoot().toPath().resolve("graph.snap");
+        Lab1.GraphSnapshot.write(Lab1.CompiledGraph.compile(Lab1.buildGraph(source.toString())), file, source, false);
+        assertTrue(Lab1.GraphSnapshot.isFresh(file, source));
+
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 60_000));
+        assertTrue(Lab1.GraphSnapshot.isFresh(file, source));
+
+        // 大小相同、内容不同
+        byte[] text = Files.readAllBytes(source);
+        text[0] = (byte) (text[0] == 'X' ? 'Y' : 'X');
+        Files.write(source, text);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 120_000));
+        assertFalse(Lab1.GraphSnapshot.isFresh(file, source));
+
+        // 大小不同
+        Files.write(source, "appended text".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+        assertFalse(Lab1.GraphSnapshot.isFresh(file, source));
+    }
+
+    @Test  // 快照文件不存在或不是快照文件时不视为有效，加载时报错
+    public void testCase3_NotASnapshot() throws IOException, URISyntaxException {
+        Path source = copyCorpus();
+        assertFalse(Lab1.GraphSnapshot.isFresh(folder.getRoot().toPath().resolve("missing.snap"), source));
+        Path bogus = folder.newFile("bogus.snap").toPath();
+        Files.write(bogus, new byte[128]);
+        assertFalse(Lab1.GraphSnapshot.isFresh(bogus, source));
+        assertThrows(IOException.class, () -> Lab1.GraphSnapshot.load(bogus));
+    }
+
+    /** 由 words 个不同单词（只含字母）组成、单词字节总数为 bytes 的文本 */
+    private static String distinctWords(int words, int bytes) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int length = bytes / words + (i < bytes % words ? 1 : 0);
+            StringBuilder word = new StringBuilder();
+            for (int j = i; word.length() < 3; j /= 26) {
+                word.append((char) ('a' + j % 26));
+            }
+            text.append(word).append("x".repeat(length - word.length())).append(' ');
+        }
+        return text.toString();
+    }
+
+    private void assertRoundTrip(String text) throws IOException {
+        Path source = folder.newFile().toPath();
+        Files.writeString(source, text);
+        Lab1.CompiledGraph graph = Lab1.buildCompiled(source.toString());
+        Path file = folder.newFile().toPath();
+        Lab1.GraphSnapshot.write(graph, file, source, false);
+        compiledGraphTest.assertSameGraph(graph, Lab1.GraphSnapshot.load(file));
+        compiledGraphTest.assertSameGraph(graph, Lab1.GraphSnapshot.loadOnHeap(file));
+    }
+
+    @Test  // 字典偏移和单词字节恰好填满写出缓冲区、只剩补齐字节时也能写出
+    public void testCase4_PaddingAtBufferBoundary() throws IOException {
+        int words = 1000;
+        int bytes = Lab1.GraphSnapshot.IO_CHUNK - 4 * (words + 1);
+        assertTrue(bytes % 8 != 0);
+        assertRoundTrip(distinctWords(words, bytes));
+        assertRoundTrip(distinctWords(words, bytes - 3));
+    }
+
+    @Test  // 比写出缓冲区还长的单词分段写出
+    public void testCase5_WordLongerThanBuffer() throws IOException {
+        assertRoundTrip("short " + distinctWords(1, Lab1.GraphSnapshot.IO_CHUNK + 5) + "short tail");
+    }
+}
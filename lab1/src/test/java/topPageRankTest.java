@@ -0,0 +1,91 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.IntStream;
+import static org.junit.Assert.*;
+
+public class topPageRankTest {
+    private static Lab1.CompiledGraph graph;
+
+    @BeforeClass
+    public static void buildGraph() throws IOException, URISyntaxException {
+        graph = Lab1.CompiledGraph.compile(Lab1.buildGraph(Paths.get(topPageRankTest.class.getResource("/corpus-test.txt").toURI()).toString()));
+    }
+
+    @Test  // 前K个与全部排序后取前K个的得分相同，且按降序排列
+    public void testCase1_TopKMatchesFullSort() {
+        double[] ranks = graph.pageRank().ranks;
+        double[] sorted = Arrays.stream(ranks).boxed().sorted(Comparator.reverseOrder()).mapToDouble(Double::doubleValue).toArray();
+        for (int k : new int[]{1, 10, 100, graph.size(), graph.size() + 10}) {
+            int[] top = graph.pageRank().topK(k);
+            assertEquals(Math.min(k, graph.size()), top.length);
+            assertEquals(top.length, Arrays.stream(top).distinct().count());
+            for (int i = 0; i < top.length; i++) {
+                assertEquals(sorted[i], ranks[top[i]], 0.0);
+            }
+        }
+        assertEquals(0, graph.pageRank().topK(0).length);
+    }
+
+    @Test  // topPageRank 返回单词和对应的PR值，与 calcPageRank 一致
+    public void testCase2_TopPageRankWords() throws IOException, URISyntaxException {
+        Lab1.graph = Lab1.buildGraph(Paths.get(topPageRankTest.class.getResource("/corpus-test.txt").toURI()).toString());
+        List<Map.Entry<String, Double>> top = Lab1.topPageRank(5);
+        assertEquals(5, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(Lab1.calcPageRank(top.get(i).getKey()), top.get(i).getValue(), 0.0);
+            if (i > 0) {
+                assertTrue(top.get(i - 1).getValue() >= top.get(i).getValue());
+            }
+        }
+    }
+
+    @Test  // 个性化PageRank总和为1，从种子不可达的节点得分为0
+    public void testCase3_PersonalizedStaysNearSeeds() {
+        int[] seeds = {graph.id("dark"), graph.id("mystery")};
+        double[] ranks = Lab1.PageRank.personalized(graph, seeds).ranks;
+        assertEquals(1.0, Arrays.stream(ranks).sum(), 1e-9);
+        BitSet reachable = new BitSet();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int s : seeds) {
+            reachable.set(s);
+            queue.add(s);
+        }
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int i = graph.outBegin(u); i < graph.outEnd(u); i++) {
+                if (!reachable.get(graph.outTarget(i))) {
+                    reachable.set(graph.outTarget(i));
+                    queue.add(graph.outTarget(i));
+                }
+            }
+        }
+        for (int v = 0; v < graph.size(); v++) {
+            if (!reachable.get(v)) {
+                assertEquals(graph.word(v), 0.0, ranks[v], 0.0);
+            }
+        }
+    }
+
+    @Test  // 局部推送的近似值与幂迭代的误差在 epsilon × 边数 以内，且估计值不超过总质量
+    public void testCase4_PushApproximatesPowerIteration() {
+        int[] seeds = {graph.id("dark")};
+        double epsilon = 1e-7;
+        double[] exact = Lab1.PageRank.personalized(graph, seeds).ranks;
+        Lab1.PageRank.Estimate estimate = Lab1.PageRank.push(graph, seeds, epsilon);
+        double tolerance = epsilon * graph.edgeCount();
+        IntStream.range(0, graph.size()).forEach(v ->
+                assertEquals(graph.word(v), exact[v], estimate.values[v], tolerance));
+        assertTrue(Arrays.stream(estimate.values).sum() <= 1.0 + 1e-12);
+        // 只有 touched 中的节点可能有估计值，且不重复
+        assertEquals(estimate.touched.length, Arrays.stream(estimate.touched).distinct().count());
+        BitSet touched = new BitSet();
+        Arrays.stream(estimate.touched).forEach(touched::set);
+        IntStream.range(0, graph.size()).filter(v -> !touched.get(v)).forEach(v -> assertEquals(0.0, estimate.values[v], 0.0));
+        // 阈值较大时只访问种子附近的少数节点
+        assertTrue(Lab1.PageRank.push(graph, seeds, 1e-3).touched.length < graph.size() / 10);
+    }
+}
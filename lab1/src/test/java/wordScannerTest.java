@@ -0,0 +1,95 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class wordScannerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String TRICKY = "  The cat--sat,on\tthe MAT!!\n\nit111but 42 x  y\r\nZébra café 中文 end...";
+
+    /** 最初的实现：整篇读入后把非字母替换为空格、转小写、按空白切分，再逐对加边 */
+    private static Lab1.Graph baseline(String text) {
+        String processed = text.replaceAll("[^a-zA-Z]", " ").toLowerCase();
+        List<String> words = Arrays.stream(processed.split("\\s+")).filter(word -> !word.isEmpty()).toList();
+        Lab1.Graph graph = new Lab1.Graph();
+        for (int i = 0; i < words.size() - 1; i++) {
+            graph.addEdge(words.get(i), words.get(i + 1));
+        }
+        return graph;
+    }
+
+    private static void assertSameGraph(String message, Lab1.Graph expected, Lab1.Graph actual) {
+        assertEquals(message, expected.adjacencyList, actual.adjacencyList);
+        assertEquals(message, expected.incomingEdges, actual.incomingEdges);
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, text);
+        return file;
+    }
+
+    @Test  // 流式构图与最初的整篇分词构图完全相同（包括连续的非字母、数字、非ASCII字符和首尾分隔符）
+    public void testCase1_MatchesBaseline() throws IOException, URISyntaxException {
+        assertSameGraph("tricky", baseline(TRICKY), Lab1.buildGraph(write(TRICKY).toString()));
+        Path corpus = Paths.get(wordScannerTest.class.getResource("/corpus-test.txt").toURI());
+        assertSameGraph("corpus", baseline(Files.readString(corpus)), Lab1.buildGraph(corpus.toString()));
+        assertTrue(Lab1.buildGraph(write("123 ... é").toString()).adjacencyList.isEmpty());
+    }
+
+    @Test  // 映射区间在任意位置（包括单词中间）断开时，扫描器内部状态衔接后结果不变
+    public void testCase2_SplitMappedRanges() throws IOException {
+        Path file = write(TRICKY);
+        Lab1.Graph expected = baseline(TRICKY);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long split = 0; split <= size; split++) {
+                Lab1.Graph graph = new Lab1.Graph();
+                Lab1.WordScanner scanner = new Lab1.WordScanner(graph::addEdge);
+                Lab1.scanRange(channel, 0, split, scanner);
+                Lab1.scanRange(channel, split, size, scanner);
+                scanner.finish();
+                assertSameGraph("split=" + split, expected, graph);
+            }
+        }
+    }
+
+    @Test  // 按任意大小分块喂给扫描器（字节缓冲区或字符数组），结果与一次性扫描相同
+    public void testCase3_ChunkedFeeds() throws IOException, URISyntaxException {
+        String text = Files.readString(Paths.get(wordScannerTest.class.getResource("/corpus-test.txt").toURI())) + TRICKY;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        char[] chars = text.toCharArray();
+        Lab1.Graph expected = baseline(text);
+        for (int chunk : new int[]{1, 2, 3, 7, 64, 4093}) {
+            Lab1.Graph fromBytes = new Lab1.Graph();
+            Lab1.WordScanner byteScanner = new Lab1.WordScanner(fromBytes::addEdge);
+            for (int pos = 0; pos < bytes.length; pos += chunk) {
+                byteScanner.feed(ByteBuffer.wrap(bytes, pos, Math.min(chunk, bytes.length - pos)));
+            }
+            byteScanner.finish();
+            assertSameGraph("bytes chunk=" + chunk, expected, fromBytes);
+
+            Lab1.Graph fromChars = new Lab1.Graph();
+            Lab1.WordScanner charScanner = new Lab1.WordScanner(fromChars::addEdge);
+            for (int pos = 0; pos < chars.length; pos += chunk) {
+                charScanner.feed(chars, pos, Math.min(pos + chunk, chars.length));
+            }
+            charScanner.finish();
+            assertSameGraph("chars chunk=" + chunk, expected, fromChars);
+            assertEquals("looking", charScanner.first);
+            assertEquals("end", charScanner.previous);
+        }
+    }
+}